@@ -1,5 +1,8 @@
 package app_manager.model.application;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 
 import app_manager.model.command.Command;
@@ -9,8 +12,11 @@ import app_manager.model.command.Command.Resolution;
 /**
  * Represents an Application object in the ApplicationManager program. Each
  * application has its own state which is updated from Commands passed to it
- * from the UI. Other fields may be updated when a Command is passed. This class
- * is also the context class for the AppState interface and inner State classes.
+ * from the UI. Other fields may be updated when a Command is passed. What a
+ * Command does is looked up in a transition table keyed by the state, the
+ * command, the application type and the resolution, which is built once into
+ * an array indexed by those four values. A Command with no transition is
+ * rejected without changing the Application.
  * 
  * @author Christine Weld
  */
@@ -37,8 +43,14 @@ public class Application {
 	private boolean processPaperwork;
 	/** Status of application updated after state transition */
 	private Resolution resolution;
-	/** ArrayList of notes appended after each state transition */
-	private ArrayList<String> notes;
+	/** Notes appended after each state transition */
+	private NoteBuffer notes;
+	/** Number of updates applied to the application, so copies of its fields can tell they are stale */
+	private volatile int version;
+	/** File record of the application in UTF-8, or null if it has not been encoded */
+	private Encoded encoded;
+	/** Application this is an unchanged copy of, or null */
+	private Application source;
 
 	/** String constant for Review State name */
 	public static final String REVIEW_NAME = "Review";
@@ -53,18 +65,14 @@ public class Application {
 	/** String constant for Closed State name */
 	public static final String CLOSED_NAME = "Closed";
 
-	/** Final instance of ReviewState */
-	private ReviewState reviewState = new ReviewState();
-	/** Final instance of InterviewState */
-	private InterviewState interviewState = new InterviewState();
-	/** Final instance of RefChkState */
-	private RefChkState refChkState = new RefChkState();
-	/** Final instance of OfferState */
-	private OfferState offerState = new OfferState();
-	/** Final instance of WaitlistState */
-	private WaitlistState waitlistState = new WaitlistState();
-	/** Final instance of ClosedState */
-	private ClosedState closedState = new ClosedState();
+	/** Prefix of the notes added in each state, by the ordinal of the state */
+	private static final String[] NOTE_PREFIXES = new String[AppState.values().length];
+
+	static {
+		for (AppState s : AppState.values()) {
+			NOTE_PREFIXES[s.ordinal()] = "[" + s.getStateName() + "] ";
+		}
+	}
 
 	/**
 	 * Represents the status of an application after state transitions.
@@ -78,6 +86,16 @@ public class Application {
 		HIRED
 	}
 
+	/**
+	 * Result of trying to update an application with a Command.
+	 */
+	public enum UpdateResult {
+		/** the Command was applied */
+		UPDATED,
+		/** the Command is not a valid action for the state and nothing changed */
+		INVALID
+	}
+
 	/**
 	 * Constructs an Application object managed by the program with given fields
 	 * appId, appType, summary, and note, with other fields state, summary,
@@ -98,13 +116,13 @@ public class Application {
 		}
 
 		setAppId(appId);
-		this.state = reviewState;
+		this.state = AppState.REVIEW;
 		this.appType = appType;
 		setSummary(summary);
 		this.reviewer = null;
 		this.processPaperwork = false;
 		this.resolution = null;
-		this.notes = new ArrayList<String>();
+		this.notes = new NoteBuffer(NOTE_PREFIXES);
 		addNote(note);
 	}
 
@@ -158,17 +176,17 @@ public class Application {
 	 */
 	private void setState(String state) {
 		if (REVIEW_NAME.equals(state)) {
-			this.state = reviewState;
+			this.state = AppState.REVIEW;
 		} else if (INTERVIEW_NAME.equals(state)) {
-			this.state = interviewState;
+			this.state = AppState.INTERVIEW;
 		} else if (REFCHK_NAME.equals(state)) {
-			this.state = refChkState;
+			this.state = AppState.REFCHK;
 		} else if (OFFER_NAME.equals(state)) {
-			this.state = offerState;
+			this.state = AppState.OFFER;
 		} else if (WAITLIST_NAME.equals(state)) {
-			this.state = waitlistState;
+			this.state = AppState.WAITLIST;
 		} else if (CLOSED_NAME.equals(state)) {
-			this.state = closedState;
+			this.state = AppState.CLOSED;
 		} else {
 			throw new IllegalArgumentException("Application cannot be created.");
 		}
@@ -182,7 +200,8 @@ public class Application {
 	 *                                  AppType
 	 */
 	private void setAppType(String appType) {
-		if (A_NEW.equals(appType) && (state == reviewState || state == waitlistState || state == closedState)) {
+		if (A_NEW.equals(appType)
+				&& (state == AppState.REVIEW || state == AppState.WAITLIST || state == AppState.CLOSED)) {
 			this.appType = AppType.NEW;
 		} else if (A_OLD.equals(appType)) {
 			this.appType = AppType.OLD;
@@ -216,8 +235,8 @@ public class Application {
 	 * 
 	 */
 	private void setReviewer(String reviewer) {
-		if (state == interviewState || state == refChkState || state == offerState
-				|| state == waitlistState && appType == AppType.OLD) {
+		if (state == AppState.INTERVIEW || state == AppState.REFCHK || state == AppState.OFFER
+				|| state == AppState.WAITLIST && appType == AppType.OLD) {
 			if (reviewer == null || "".equals(reviewer)) {
 				throw new IllegalArgumentException("Application cannot be created.");
 			}
@@ -237,11 +256,11 @@ public class Application {
 	private void setProcessPaperwork(boolean processPaperwork) {
 		// The Application cannot be in the Interview, Review state, or
 		// (waitlisted and new) or (closed and new) if processed is true.
-		if (processPaperwork && (state == reviewState || state == interviewState
-				|| state == waitlistState && appType == AppType.NEW
-				|| state == closedState && appType == AppType.NEW)) {
+		if (processPaperwork && (state == AppState.REVIEW || state == AppState.INTERVIEW
+				|| state == AppState.WAITLIST && appType == AppType.NEW
+				|| state == AppState.CLOSED && appType == AppType.NEW)) {
 			throw new IllegalArgumentException("Application cannot be created.");
-		} else if (!processPaperwork && (state == refChkState || state == offerState)) {
+		} else if (!processPaperwork && (state == AppState.REFCHK || state == AppState.OFFER)) {
 			throw new IllegalArgumentException("Application cannot be created.");
 		} else {
 			this.processPaperwork = processPaperwork;
@@ -254,16 +273,17 @@ public class Application {
 	 * @param resolution the resolution to set
 	 */
 	private void setResolution(String resolution) {
-		if ("".equals(resolution) && state != closedState && state != waitlistState) {
+		if ("".equals(resolution) && state != AppState.CLOSED && state != AppState.WAITLIST) {
 			this.resolution = null;
-		} else if (Command.R_REVCOMPLETED.equals(resolution) && (state == waitlistState || state == closedState)) {
+		} else if (Command.R_REVCOMPLETED.equals(resolution)
+				&& (state == AppState.WAITLIST || state == AppState.CLOSED)) {
 			this.resolution = Resolution.REVCOMPLETED;
-		} else if (Command.R_INTCOMPLETED.equals(resolution) && (state == waitlistState || state == closedState)
+		} else if (Command.R_INTCOMPLETED.equals(resolution) && (state == AppState.WAITLIST || state == AppState.CLOSED)
 				&& appType != AppType.NEW) {
 			this.resolution = Resolution.INTCOMPLETED;
-		} else if (Command.R_REFCHKCOMPLETED.equals(resolution) && state == closedState) {
+		} else if (Command.R_REFCHKCOMPLETED.equals(resolution) && state == AppState.CLOSED) {
 			this.resolution = Resolution.REFCHKCOMPLETED;
-		} else if (Command.R_OFFERCOMPLETED.equals(resolution) && state == closedState) {
+		} else if (Command.R_OFFERCOMPLETED.equals(resolution) && state == AppState.CLOSED) {
 			this.resolution = Resolution.OFFERCOMPLETED;
 		} else {
 			throw new IllegalArgumentException("Application cannot be created.");
@@ -271,7 +291,9 @@ public class Application {
 	}
 
 	/**
-	 * Sets the application's notes field.
+	 * Sets the application's notes field. Notes that start with the name of a
+	 * state in brackets are stored without the prefix, which is added back when
+	 * they are read.
 	 * 
 	 * @param notes the notes to set
 	 */
@@ -279,7 +301,48 @@ public class Application {
 		if (notes == null || notes.size() == 0) {
 			throw new IllegalArgumentException("Application cannot be created.");
 		}
-		this.notes = notes;
+		NoteBuffer buffer = new NoteBuffer(NOTE_PREFIXES);
+		for (int i = 0; i < notes.size(); i++) {
+			if (notes.get(i) == null) {
+				throw new IllegalArgumentException("Application cannot be created.");
+			}
+			buffer.addRendered(notes.get(i));
+		}
+		this.notes = buffer;
+	}
+
+	/**
+	 * Constructs a copy of an Application with the same fields and version. The
+	 * copy shares the notes and the encoded record of the Application, so it costs
+	 * little more than the object itself.
+	 * 
+	 * @param source Application to copy
+	 */
+	private Application(Application source) {
+		this.appId = source.appId;
+		this.state = source.state;
+		this.appType = source.appType;
+		this.summary = source.summary;
+		this.reviewer = source.reviewer;
+		this.processPaperwork = source.processPaperwork;
+		this.resolution = source.resolution;
+		this.notes = source.notes.copy();
+		this.version = source.version;
+		this.encoded = source.encoded;
+		this.source = source;
+	}
+
+	/**
+	 * Returns a copy of the Application that updates of this Application do not
+	 * change, for saving it while commands may run. Must not run at the same time
+	 * as an update of this Application; AppList takes its lock to make the copy.
+	 * A record encoded from the copy is kept by this Application as well, as long
+	 * as it has not been updated since.
+	 * 
+	 * @return copy of the Application
+	 */
+	public Application copy() {
+		return new Application(this);
 	}
 
 	/**
@@ -291,27 +354,24 @@ public class Application {
 		return appId;
 	}
 
+	/**
+	 * Returns the application's version, which changes every time the application
+	 * is updated. Updates of one application must not run at the same time; AppList
+	 * serializes them.
+	 * 
+	 * @return the version
+	 */
+	public int getVersion() {
+		return version;
+	}
+
 	/**
 	 * Returns a String of the application's state field.
 	 * 
 	 * @return the state name
 	 */
 	public String getStateName() {
-		if (state == reviewState) {
-			return REVIEW_NAME;
-		} else if (state == interviewState) {
-			return INTERVIEW_NAME;
-		} else if (state == refChkState) {
-			return REFCHK_NAME;
-		} else if (state == offerState) {
-			return OFFER_NAME;
-		} else if (state == waitlistState) {
-			return WAITLIST_NAME;
-		} else if (state == closedState) {
-			return CLOSED_NAME;
-		} else {
-			return "";
-		}
+		return state.getStateName();
 	}
 
 	/**
@@ -378,25 +438,23 @@ public class Application {
 	}
 
 	/**
-	 * Returns the application's notes field.
+	 * Returns the application's notes. The notes are decoded into a new list, so
+	 * changes to the list do not change the application.
 	 * 
 	 * @return the notes
 	 */
 	public ArrayList<String> getNotes() {
-		return notes;
+		return notes.toList();
 	}
 
 	/**
-	 * Returns String representation of the notes Array
+	 * Returns String representation of the notes Array. The String is kept until
+	 * the next note is added.
 	 * 
 	 * @return String representation of notes array
 	 */
 	public String getNotesString() {
-		String notesString = "";
-		for (int i = 0; i < notes.size(); i++) {
-			notesString += "-" + notes.get(i) + "\n";
-		}
-		return notesString;
+		return notes.render();
 	}
 
 	/**
@@ -407,17 +465,56 @@ public class Application {
 	 */
 	@Override
 	public String toString() {
-		String appString = "*" + appId + "," + getStateName() + "," + getAppType() + "," + summary + "," + reviewer
-				+ "," + processPaperwork + ",";
+		StringBuilder record = new StringBuilder();
+		try {
+			appendTo(record);
+		} catch (IOException e) {
+			// A StringBuilder does not throw
+			throw new IllegalStateException(e);
+		}
+		return record.toString();
+	}
 
-		if (resolution == null) {
-			appString += "";
-		} else {
-			appString += getResolution();
+	/**
+	 * Appends the file record of the Application, the same text as toString(), to
+	 * the given Appendable without building the record as a String first.
+	 * 
+	 * @param out Appendable to append the record to
+	 * @throws IOException if out cannot be appended to
+	 */
+	public void appendTo(Appendable out) throws IOException {
+		out.append('*').append(Integer.toString(appId)).append(',').append(getStateName()).append(',')
+				.append(getAppType()).append(',').append(summary).append(',').append(reviewer).append(',')
+				.append(processPaperwork ? "true" : "false").append(',');
+		if (resolution != null) {
+			out.append(getResolution());
 		}
+		out.append('\n').append(getNotesString());
+	}
 
-		appString += "\n" + getNotesString();
-		return appString;
+	/**
+	 * Returns the file record of the Application encoded in UTF-8. The encoding is
+	 * kept until the Application is updated, so saving an Application that has not
+	 * changed since it was last saved copies the kept bytes.
+	 * 
+	 * @return read-only buffer of the encoded record
+	 */
+	public ByteBuffer getEncoded() {
+		// The version is read before the fields, and updates change it after them, so
+		// an encoding that raced with an update is never reused
+		int current = version;
+		Encoded record = encoded;
+		if (record == null || record.version != current) {
+			record = new Encoded(current, toString().getBytes(StandardCharsets.UTF_8));
+			encoded = record;
+			// The record is tagged with the version it was encoded at, so the
+			// Application copied is never given a record of another version
+			Application original = source;
+			if (original != null && original.version == current) {
+				original.encoded = record;
+			}
+		}
+		return ByteBuffer.wrap(record.bytes).asReadOnlyBuffer();
 	}
 
 	/**
@@ -430,324 +527,299 @@ public class Application {
 		if (note == null || "".equals(note)) {
 			throw new IllegalArgumentException("Invalid information.");
 		}
-		notes.add("[" + getStateName() + "] " + note);
+		notes.add(state.ordinal(), note);
 	}
 
 	/**
-	 * Delegates to the current state's updateState(Command) method. Update the
-	 * Application based on the given Command. An UnsupportedOperationException is
-	 * thrown if the Command is not a valid action for the given state.
+	 * Update the Application based on the given Command. An
+	 * UnsupportedOperationException is thrown if the Command is not a valid action
+	 * for the given state.
 	 * 
 	 * @param command Command describing the action that will update the
 	 *                Application's state.
-	 * @throws UnsupportedOperationException if the Command is not a valid action
-	 *                                       for the given state.
+	 * @throws UnsupportedOperationException "Invalid information." if the Command
+	 *                                       is not a valid action for the given
+	 *                                       state.
 	 */
 	public void update(Command command) {
-		try {
-			state.updateState(command);
-		} catch (UnsupportedOperationException e) {
+		if (tryUpdate(command) != UpdateResult.UPDATED) {
 			throw new UnsupportedOperationException("Invalid information.");
 		}
 	}
 
 	/**
-	 * Interface for states in the Application State Pattern. All concrete
-	 * application states must implement the AppState interface. The AppState
-	 * interface should be a private interface of the Application class.
+	 * Update the Application based on the given Command, returning INVALID instead
+	 * of throwing if the Command is not a valid action for the given state, so
+	 * callers that process many Commands do not build an exception for each one
+	 * rejected. A rejected Command changes nothing, the version included.
 	 * 
-	 * @author Dr. Sarah Heckman (sarah_heckman@ncsu.edu)
-	 * @author Dr. Chandrika Satyavolu (jsatyav@ncsu.edu)
+	 * @param command Command describing the action that will update the
+	 *                Application's state.
+	 * @return UPDATED if the Command was applied, or INVALID if it is not a valid
+	 *         action for the given state
 	 */
-	private interface AppState {
-
-		/**
-		 * Update the Application based on the given Command. An
-		 * UnsupportedOperationException is thrown if the Command is not a valid action
-		 * for the given state.
-		 * 
-		 * @param command Command describing the action that will update the
-		 *                Application's state.
-		 * @throws UnsupportedOperationException if the Command is not a valid action
-		 *                                       for the given state.
-		 */
-		void updateState(Command command);
-
-		/**
-		 * Returns the name of the current state as a String.
-		 * 
-		 * @return the name of the current state as a String.
-		 */
-		String getStateName();
-
+	public UpdateResult tryUpdate(Command command) {
+		Transition t = TRANSITIONS[key(state, command.getCommand(), appType, resolution)];
+		if (t == null) {
+			return UpdateResult.INVALID;
+		}
+		// An updated copy no longer matches the Application it was copied from
+		source = null;
+		try {
+			if (t.setsReviewer) {
+				reviewer = command.getReviewerId();
+			}
+			if (t.processes) {
+				processPaperwork = true;
+			}
+			if (t.setsResolution) {
+				resolution = t.resolution;
+			}
+			if (t.type != null) {
+				appType = t.type;
+			}
+			state = t.next;
+			addNote(command.getNote());
+		} finally {
+			version++;
+		}
+		return UpdateResult.UPDATED;
 	}
 
 	/**
-	 * Concrete class for the AppState interface representing the Review phase of an
-	 * application cycle.
+	 * File record of an application encoded in UTF-8, with the version of the
+	 * application it was encoded from.
 	 */
-	private class ReviewState implements AppState {
+	private static final class Encoded {
+		/** Version of the application that was encoded */
+		final int version;
+		/** Encoded record */
+		final byte[] bytes;
 
 		/**
-		 * Update the Application based on the given Command. An
-		 * UnsupportedOperationException is thrown if the Command is not a valid action
-		 * for the given state.
+		 * Constructs an encoded record.
 		 * 
-		 * @param c Command describing the action that will update the Application's
-		 *          state.
-		 * @throws UnsupportedOperationException "Invalid information." if the Command
-		 *                                       is not a valid action for the given
-		 *                                       state.
+		 * @param version version of the application that was encoded
+		 * @param bytes   encoded record
 		 */
-		public void updateState(Command c) {
-			if (c.getCommand() == CommandValue.ACCEPT) {
-				reviewer = c.getReviewerId();
-				appType = AppType.OLD;
-				state = interviewState;
-			} else if (c.getCommand() == CommandValue.STANDBY && appType == AppType.NEW) {
-				resolution = Resolution.REVCOMPLETED;
-				reviewer = c.getReviewerId();
-				state = waitlistState;
-			} else if (c.getCommand() == CommandValue.REJECT) {
-				resolution = Resolution.REVCOMPLETED;
-				reviewer = c.getReviewerId();
-				state = closedState;
-			} else {
-				throw new UnsupportedOperationException("Invalid information.");
-			}
-			addNote(c.getNote());
-		}
-
-		/**
-		 * Returns String of state name
-		 * 
-		 * @return state name
-		 */
-		@Override
-		public String getStateName() {
-			return REVIEW_NAME;
+		Encoded(int version, byte[] bytes) {
+			this.version = version;
+			this.bytes = bytes;
 		}
 	}
 
 	/**
-	 * Concrete class for the AppState interface representing the Interview phase of
-	 * an application cycle.
+	 * States of an application cycle. What a Command does in a state is looked up
+	 * in the transition table rather than coded in the state.
 	 */
-	private class InterviewState implements AppState {
+	private enum AppState {
+		/** Review phase */
+		REVIEW(REVIEW_NAME),
+		/** Interview phase */
+		INTERVIEW(INTERVIEW_NAME),
+		/** Reference Check phase */
+		REFCHK(REFCHK_NAME),
+		/** Offer phase */
+		OFFER(OFFER_NAME),
+		/** Waitlist phase */
+		WAITLIST(WAITLIST_NAME),
+		/** Closed phase */
+		CLOSED(CLOSED_NAME);
+
+		/** Name of the state */
+		private final String name;
 
 		/**
-		 * Update the Application based on the given Command. An
-		 * UnsupportedOperationException is thrown if the Command is not a valid action
-		 * for the given state.
+		 * Constructs a state with the given name.
 		 * 
-		 * @param c Command describing the action that will update the Application's
-		 *          state.
-		 * @throws UnsupportedOperationException "Invalid information." if the Command
-		 *                                       is not a valid action for the given
-		 *                                       state.
+		 * @param name name of the state
 		 */
-		public void updateState(Command c) {
-			if (c.getCommand() == CommandValue.REOPEN) {
-				throw new UnsupportedOperationException("Invalid information.");
-			} else if (c.getCommand() == CommandValue.ACCEPT) {
-				reviewer = c.getReviewerId();
-				processPaperwork = true;
-				state = refChkState;
-			} else if (c.getCommand() == CommandValue.STANDBY) {
-				reviewer = c.getReviewerId();
-				resolution = Resolution.INTCOMPLETED;
-				state = waitlistState;
-			} else if (c.getCommand() == CommandValue.REJECT) {
-				resolution = Resolution.INTCOMPLETED;
-				reviewer = c.getReviewerId();
-				state = closedState;
-			}
-			addNote(c.getNote());
+		AppState(String name) {
+			this.name = name;
 		}
 
 		/**
-		 * Returns String of state name
+		 * Returns the name of the state as a String.
 		 * 
-		 * @return state name
+		 * @return the name of the state
 		 */
-		@Override
-		public String getStateName() {
-			return INTERVIEW_NAME;
+		String getStateName() {
+			return name;
 		}
 	}
 
 	/**
-	 * Concrete class for the AppState interface representing the Reference Check
-	 * phase of an application cycle.
+	 * Changes a valid Command makes to an Application. Transitions are immutable
+	 * and are built with to() and the methods that return a copy with one more
+	 * change.
 	 */
-	private class RefChkState implements AppState {
+	private static final class Transition {
+		/** State the Application moves to */
+		private final AppState next;
+		/** Type the Application becomes, or null to keep its type */
+		private final AppType type;
+		/** Whether the reviewer becomes the reviewer of the Command */
+		private final boolean setsReviewer;
+		/** Whether the paperwork becomes processed */
+		private final boolean processes;
+		/** Whether the resolution changes */
+		private final boolean setsResolution;
+		/** Resolution the Application gets if setsResolution, which may be null */
+		private final Resolution resolution;
 
 		/**
-		 * Update the Application based on the given Command. An
-		 * UnsupportedOperationException is thrown if the Command is not a valid action
-		 * for the given state.
+		 * Constructs a Transition.
 		 * 
-		 * @param c Command describing the action that will update the Application's
-		 *          state.
-		 * @throws UnsupportedOperationException "Invalid information." if the Command
-		 *                                       is not a valid action for the given
-		 *                                       state.
+		 * @param next           state the Application moves to
+		 * @param type           type the Application becomes, or null to keep it
+		 * @param setsReviewer   whether the reviewer becomes the Command's reviewer
+		 * @param processes      whether the paperwork becomes processed
+		 * @param setsResolution whether the resolution changes
+		 * @param resolution     resolution the Application gets if setsResolution
 		 */
-		public void updateState(Command c) {
-			if (c.getCommand() == CommandValue.REOPEN || c.getCommand() == CommandValue.STANDBY) {
-				throw new UnsupportedOperationException("Invalid information.");
-			} else if (c.getCommand() == CommandValue.ACCEPT) {
-				reviewer = c.getReviewerId();
-				processPaperwork = true;
-				state = offerState;
-			} else if (c.getCommand() == CommandValue.REJECT) {
-				resolution = Resolution.REFCHKCOMPLETED;
-				reviewer = c.getReviewerId();
-				state = closedState;
-			}
-			addNote(c.getNote());
+		private Transition(AppState next, AppType type, boolean setsReviewer, boolean processes,
+				boolean setsResolution, Resolution resolution) {
+			this.next = next;
+			this.type = type;
+			this.setsReviewer = setsReviewer;
+			this.processes = processes;
+			this.setsResolution = setsResolution;
+			this.resolution = resolution;
 		}
 
 		/**
-		 * Returns String of state name
+		 * Returns a copy that also changes the type.
 		 * 
-		 * @return state name
+		 * @param newType type the Application becomes
+		 * @return the new Transition
 		 */
-		@Override
-		public String getStateName() {
-			return REFCHK_NAME;
+		private Transition type(AppType newType) {
+			return new Transition(next, newType, setsReviewer, processes, setsResolution, resolution);
 		}
-	}
-
-	/**
-	 * Concrete class for the AppState interface representing the Offer phase of an
-	 * application cycle.
-	 */
-	private class OfferState implements AppState {
 
 		/**
-		 * Update the Application based on the given Command. An
-		 * UnsupportedOperationException is thrown if the Command is not a valid action
-		 * for the given state.
+		 * Returns a copy that also sets the reviewer to the Command's reviewer.
 		 * 
-		 * @param c Command describing the action that will update the Application's
-		 *          state.
-		 * @throws UnsupportedOperationException "Invalid information." if the Command
-		 *                                       is not a valid action for the given
-		 *                                       state.
+		 * @return the new Transition
 		 */
-		public void updateState(Command c) {
-			if (c.getCommand() == CommandValue.REOPEN || c.getCommand() == CommandValue.STANDBY) {
-				throw new UnsupportedOperationException("Invalid information.");
-			} else if (c.getCommand() == CommandValue.ACCEPT) {
-				reviewer = c.getReviewerId();
-				processPaperwork = true;
-				resolution = Resolution.OFFERCOMPLETED;
-				appType = AppType.HIRED;
-				state = closedState;
-			} else if (c.getCommand() == CommandValue.REJECT) {
-				resolution = Resolution.OFFERCOMPLETED;
-				reviewer = c.getReviewerId();
-				state = closedState;
-			}
-			addNote(c.getNote());
+		private Transition reviewer() {
+			return new Transition(next, type, true, processes, setsResolution, resolution);
 		}
 
 		/**
-		 * Returns String of state name
+		 * Returns a copy that also marks the paperwork processed.
 		 * 
-		 * @return state name
+		 * @return the new Transition
 		 */
-		@Override
-		public String getStateName() {
-			return OFFER_NAME;
+		private Transition processed() {
+			return new Transition(next, type, setsReviewer, true, setsResolution, resolution);
 		}
-	}
-
-	/**
-	 * Concrete class for the AppState interface representing the Waitlist phase of
-	 * an application cycle.
-	 */
-	private class WaitlistState implements AppState {
 
 		/**
-		 * Update the Application based on the given Command. An
-		 * UnsupportedOperationException is thrown if the Command is not a valid action
-		 * for the given state.
+		 * Returns a copy that also sets the resolution.
 		 * 
-		 * @param c Command describing the action that will update the Application's
-		 *          state.
-		 * @throws UnsupportedOperationException "Invalid information." if the Command
-		 *                                       is not a valid action for the given
-		 *                                       state.
+		 * @param newResolution resolution the Application gets, which may be null
+		 * @return the new Transition
 		 */
-		public void updateState(Command c) {
-			if (resolution == Resolution.INTCOMPLETED && c.getCommand() == CommandValue.REOPEN) {
-				reviewer = c.getReviewerId();
-				processPaperwork = true;
-				resolution = null;
-				state = refChkState;
-			} else if (resolution == Resolution.REVCOMPLETED && appType == AppType.NEW
-					&& c.getCommand() == CommandValue.REOPEN) {
-				appType = AppType.OLD;
-				resolution = null;
-				state = reviewState;
-			} else {
-				throw new UnsupportedOperationException("Invalid information.");
-			}
-			addNote(c.getNote());
+		private Transition resolution(Resolution newResolution) {
+			return new Transition(next, type, setsReviewer, processes, true, newResolution);
 		}
+	}
 
-		/**
-		 * Returns String of state name
-		 * 
-		 * @return state name
-		 */
-		@Override
-		public String getStateName() {
-			return WAITLIST_NAME;
-		}
+	/** Number of Command values */
+	private static final int COMMANDS = CommandValue.values().length;
+	/** Every application type, for transitions that do not depend on the type */
+	private static final AppType[] ANY_TYPE = AppType.values();
+	/** Every resolution and none, for transitions that do not depend on it */
+	private static final Resolution[] ANY_RESOLUTION = { null, Resolution.REVCOMPLETED, Resolution.INTCOMPLETED,
+			Resolution.REFCHKCOMPLETED, Resolution.OFFERCOMPLETED };
+	/** Transitions indexed by key(), with null where a Command is not valid */
+	private static final Transition[] TRANSITIONS = new Transition[AppState.values().length * COMMANDS
+			* ANY_TYPE.length * ANY_RESOLUTION.length];
+
+	static {
+		AppType[] newType = { AppType.NEW };
+		Resolution[] reviewed = { Resolution.REVCOMPLETED };
+
+		allow(AppState.REVIEW, CommandValue.ACCEPT, ANY_TYPE, ANY_RESOLUTION,
+				to(AppState.INTERVIEW).reviewer().type(AppType.OLD));
+		allow(AppState.REVIEW, CommandValue.STANDBY, newType, ANY_RESOLUTION,
+				to(AppState.WAITLIST).reviewer().resolution(Resolution.REVCOMPLETED));
+		allow(AppState.REVIEW, CommandValue.REJECT, ANY_TYPE, ANY_RESOLUTION,
+				to(AppState.CLOSED).reviewer().resolution(Resolution.REVCOMPLETED));
+
+		allow(AppState.INTERVIEW, CommandValue.ACCEPT, ANY_TYPE, ANY_RESOLUTION,
+				to(AppState.REFCHK).reviewer().processed());
+		allow(AppState.INTERVIEW, CommandValue.STANDBY, ANY_TYPE, ANY_RESOLUTION,
+				to(AppState.WAITLIST).reviewer().resolution(Resolution.INTCOMPLETED));
+		allow(AppState.INTERVIEW, CommandValue.REJECT, ANY_TYPE, ANY_RESOLUTION,
+				to(AppState.CLOSED).reviewer().resolution(Resolution.INTCOMPLETED));
+
+		allow(AppState.REFCHK, CommandValue.ACCEPT, ANY_TYPE, ANY_RESOLUTION,
+				to(AppState.OFFER).reviewer().processed());
+		allow(AppState.REFCHK, CommandValue.REJECT, ANY_TYPE, ANY_RESOLUTION,
+				to(AppState.CLOSED).reviewer().resolution(Resolution.REFCHKCOMPLETED));
+
+		allow(AppState.OFFER, CommandValue.ACCEPT, ANY_TYPE, ANY_RESOLUTION,
+				to(AppState.CLOSED).reviewer().processed().resolution(Resolution.OFFERCOMPLETED).type(AppType.HIRED));
+		allow(AppState.OFFER, CommandValue.REJECT, ANY_TYPE, ANY_RESOLUTION,
+				to(AppState.CLOSED).reviewer().resolution(Resolution.OFFERCOMPLETED));
+
+		allow(AppState.WAITLIST, CommandValue.REOPEN, ANY_TYPE, new Resolution[] { Resolution.INTCOMPLETED },
+				to(AppState.REFCHK).reviewer().processed().resolution(null));
+		allow(AppState.WAITLIST, CommandValue.REOPEN, newType, reviewed,
+				to(AppState.REVIEW).type(AppType.OLD).resolution(null));
+
+		// Reopening a closed application only adds its note, unless it is a new
+		// application closed after review, which goes back to review
+		allow(AppState.CLOSED, CommandValue.REOPEN, ANY_TYPE, ANY_RESOLUTION, to(AppState.CLOSED));
+		allow(AppState.CLOSED, CommandValue.REOPEN, newType, reviewed,
+				to(AppState.REVIEW).type(AppType.OLD).resolution(null));
 	}
 
 	/**
-	 * Concrete class for the AppState interface representing the Closed phase of an
-	 * application cycle.
+	 * Returns a Transition to the given state that changes nothing else.
+	 * 
+	 * @param next state the Application moves to
+	 * @return the new Transition
 	 */
-	private class ClosedState implements AppState {
+	private static Transition to(AppState next) {
+		return new Transition(next, null, false, false, false, null);
+	}
 
-		/**
-		 * Update the Application based on the given Command. An
-		 * UnsupportedOperationException is thrown if the Command is not a valid action
-		 * for the given state.
-		 * 
-		 * @param c Command describing the action that will update the Application's
-		 *          state.
-		 * @throws UnsupportedOperationException "Invalid information." if the Command
-		 *                                       is not a valid action for the given
-		 *                                       state.
-		 */
-		public void updateState(Command c) {
-			if (c.getCommand() == CommandValue.ACCEPT || c.getCommand() == CommandValue.STANDBY
-					|| c.getCommand() == CommandValue.REJECT) {
-				throw new UnsupportedOperationException("Invalid information.");
-			} else if (resolution == Resolution.REVCOMPLETED && appType == AppType.NEW
-					&& c.getCommand() == CommandValue.REOPEN) {
-				appType = AppType.OLD;
-				resolution = null;
-				state = reviewState;
+	/**
+	 * Puts a Transition in the table for every combination of the given types and
+	 * resolutions, replacing any Transition already there.
+	 * 
+	 * @param from        state the Command is given in
+	 * @param command     Command value
+	 * @param types       application types the Transition applies to
+	 * @param resolutions resolutions the Transition applies to
+	 * @param t           Transition to make
+	 */
+	private static void allow(AppState from, CommandValue command, AppType[] types, Resolution[] resolutions,
+			Transition t) {
+		for (AppType type : types) {
+			for (Resolution resolution : resolutions) {
+				TRANSITIONS[key(from, command, type, resolution)] = t;
 			}
-			addNote(c.getNote());
-		}
-
-		/**
-		 * Returns String of state name
-		 * 
-		 * @return state name
-		 */
-		@Override
-		public String getStateName() {
-			return CLOSED_NAME;
 		}
 	}
 
-};
\ No newline at end of file
+	/**
+	 * Returns the index in the transition table of a state, Command value, type
+	 * and resolution.
+	 * 
+	 * @param state      state of the Application
+	 * @param command    Command value
+	 * @param type       type of the Application
+	 * @param resolution resolution of the Application, or null for none
+	 * @return index in TRANSITIONS
+	 */
+	private static int key(AppState state, CommandValue command, AppType type, Resolution resolution) {
+		int key = state.ordinal();
+		key = key * COMMANDS + command.ordinal();
+		key = key * ANY_TYPE.length + type.ordinal();
+		return key * ANY_RESOLUTION.length + (resolution == null ? 0 : resolution.ordinal() + 1);
+	}
+}
@@ -0,0 +1,220 @@
+package app_manager.model.application;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+/**
+ * Compact store of the notes of an Application. Each note is kept in one
+ * growable byte array as a tag byte, the length of its text and the text in
+ * UTF-8. The tag picks one of a shared table of prefixes, such as "[Review] ",
+ * so the prefix is stored once for every application instead of in each note.
+ * A note that does not start with a known prefix is stored whole with the RAW
+ * tag.
+ *
+ * The notes rendered as a String are cached until the next note is added.
+ * Notes are only added under the lock that guards updates of the application,
+ * but may be read at any time; the length is written after the bytes of a note
+ * so a reader sees either all of a note or none of it.
+ *
+ * @author Christine Weld
+ */
+class NoteBuffer {
+
+	/** Tag of a note stored with no prefix */
+	static final int RAW = 0xFF;
+	/** Buffer of a NoteBuffer with no notes */
+	private static final byte[] EMPTY = new byte[0];
+
+	/** Prefixes the tags stand for, shared by every NoteBuffer of a kind */
+	private final String[] prefixes;
+	/** Encoded notes, of which the first length bytes are used */
+	private byte[] data;
+	/** Number of bytes of data in use, written after the bytes of a note */
+	private volatile int length;
+	/** Notes rendered for the length they were rendered at, or null */
+	private Rendered rendered;
+	/** Whether data is shared with the NoteBuffer this is a copy of */
+	private boolean shared;
+
+	/**
+	 * Notes rendered as a String, with the length of the buffer they were
+	 * rendered from, so a rendering that raced with an added note is not used.
+	 */
+	private static final class Rendered {
+		/** Length of the buffer that was rendered */
+		final int length;
+		/** Rendered notes */
+		final String text;
+
+		/**
+		 * Constructs a rendering of the notes.
+		 *
+		 * @param length length of the buffer that was rendered
+		 * @param text   rendered notes
+		 */
+		Rendered(int length, String text) {
+			this.length = length;
+			this.text = text;
+		}
+	}
+
+	/**
+	 * Constructs an empty NoteBuffer.
+	 *
+	 * @param prefixes prefixes of the tags, by tag, which must be fewer than RAW
+	 */
+	NoteBuffer(String[] prefixes) {
+		this.prefixes = prefixes;
+		this.data = EMPTY;
+	}
+
+	/**
+	 * Returns a copy of the notes added so far. The copy shares the bytes of the
+	 * notes, which are never changed once written, and moves them to an array of
+	 * its own before a note is added to it. Notes added to this NoteBuffer
+	 * afterwards are not in the copy.
+	 *
+	 * @return copy of the notes
+	 */
+	NoteBuffer copy() {
+		NoteBuffer copy = new NoteBuffer(prefixes);
+		int end = length;
+		copy.data = data;
+		copy.rendered = rendered;
+		copy.shared = true;
+		copy.length = end;
+		return copy;
+	}
+
+	/**
+	 * Adds a note made of the prefix of a tag and the given text.
+	 *
+	 * @param tag  tag of the prefix, or RAW for none
+	 * @param text text of the note after the prefix
+	 */
+	void add(int tag, String text) {
+		byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+		int end = length;
+		int needed = end + 1 + lengthSize(bytes.length) + bytes.length;
+		byte[] buffer = data;
+		if (needed > buffer.length || shared) {
+			// The first note gets a buffer of its own size, as most applications only
+			// have a few notes
+			int capacity = buffer.length == 0 ? needed : Math.max(needed, buffer.length + buffer.length / 2);
+			byte[] grown = new byte[capacity];
+			System.arraycopy(buffer, 0, grown, 0, end);
+			buffer = grown;
+			shared = false;
+		}
+		buffer[end++] = (byte) tag;
+		// The length of the text in seven bit groups, low group first, with the high
+		// bit set on every byte but the last
+		int n = bytes.length;
+		while (n >= 0x80) {
+			buffer[end++] = (byte) (n | 0x80);
+			n >>>= 7;
+		}
+		buffer[end++] = (byte) n;
+		System.arraycopy(bytes, 0, buffer, end, bytes.length);
+		data = buffer;
+		length = end + bytes.length;
+	}
+
+	/**
+	 * Adds a note as it is rendered, splitting off a known prefix into its tag.
+	 *
+	 * @param note the whole note, prefix included
+	 */
+	void addRendered(String note) {
+		for (int tag = 0; tag < prefixes.length; tag++) {
+			if (note.startsWith(prefixes[tag])) {
+				add(tag, note.substring(prefixes[tag].length()));
+				return;
+			}
+		}
+		add(RAW, note);
+	}
+
+	/**
+	 * Returns the notes, prefixes included, in the order they were added.
+	 *
+	 * @return a new list of the notes
+	 */
+	ArrayList<String> toList() {
+		int end = length;
+		byte[] buffer = data;
+		ArrayList<String> notes = new ArrayList<String>();
+		StringBuilder note = new StringBuilder();
+		for (int i = 0; i < end;) {
+			note.setLength(0);
+			i = appendNote(buffer, i, note);
+			notes.add(note.toString());
+		}
+		return notes;
+	}
+
+	/**
+	 * Returns the notes as one String, each note on its own line after a dash. The
+	 * String is rendered once and kept until a note is added.
+	 *
+	 * @return the rendered notes
+	 */
+	String render() {
+		int end = length;
+		byte[] buffer = data;
+		Rendered cached = rendered;
+		if (cached != null && cached.length == end) {
+			return cached.text;
+		}
+		StringBuilder text = new StringBuilder(end + end / 4);
+		for (int i = 0; i < end;) {
+			text.append('-');
+			i = appendNote(buffer, i, text);
+			text.append('\n');
+		}
+		String result = text.toString();
+		rendered = new Rendered(end, result);
+		return result;
+	}
+
+	/**
+	 * Returns the number of bytes the length of a text is encoded in.
+	 *
+	 * @param n length of the text
+	 * @return number of bytes of the encoded length
+	 */
+	private static int lengthSize(int n) {
+		int size = 1;
+		while (n >= 0x80) {
+			n >>>= 7;
+			size++;
+		}
+		return size;
+	}
+
+	/**
+	 * Decodes the note at a position of the buffer and appends it, prefix
+	 * included.
+	 *
+	 * @param buffer encoded notes
+	 * @param i      position of the tag of the note
+	 * @param out    builder to append the note to
+	 * @return position of the next note
+	 */
+	private int appendNote(byte[] buffer, int i, StringBuilder out) {
+		int tag = buffer[i++] & 0xFF;
+		int n = 0;
+		for (int shift = 0;; shift += 7) {
+			byte b = buffer[i++];
+			n |= (b & 0x7F) << shift;
+			if (b >= 0) {
+				break;
+			}
+		}
+		if (tag != RAW) {
+			out.append(prefixes[tag]);
+		}
+		out.append(new String(buffer, i, n, StandardCharsets.UTF_8));
+		return i + n;
+	}
+}
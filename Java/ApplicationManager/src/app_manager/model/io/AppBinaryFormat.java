@@ -0,0 +1,555 @@
+package app_manager.model.io;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import app_manager.model.application.Application;
+import app_manager.model.command.Command;
+
+/**
+ * Reads and writes Applications in a compact, versioned binary format. All
+ * numbers are big-endian and every String is stored as an int byte length
+ * followed by its UTF-8 bytes. A file is laid out as:
+ * <ul>
+ * <li>header: the magic bytes "APPB", a version byte and three reserved
+ * bytes</li>
+ * <li>reviewer dictionary: an int count followed by the reviewer Strings</li>
+ * <li>records: for each Application an int length followed by the id, one byte
+ * each for the state, type, resolution and paperwork flag, the int index of the
+ * reviewer in the dictionary or -1, the summary, an int note count and the
+ * notes</li>
+ * <li>index: an int count followed by the id and long file offset of each
+ * record</li>
+ * <li>trailer: the long offset of the index, the int record count, the int
+ * high-water mark and the magic bytes</li>
+ * </ul>
+ * The high-water mark is the greatest id the saved list ever used, deleted
+ * Applications included, so ids are not handed out again after loading. Version
+ * 1 files have no high-water mark in their trailer and are still read, taking
+ * the greatest id in the file instead.
+ * States, types and resolutions are stored as their position in the name
+ * arrays of this class, with resolution 0 meaning none.
+ *
+ * @author Christine Weld
+ */
+public class AppBinaryFormat {
+
+	/** Extension of files saved in the binary format */
+	public static final String EXTENSION = ".appb";
+	/** Version of the format written by this class */
+	static final int VERSION = 2;
+	/** Oldest version of the format read by this class, without a high-water mark */
+	static final int VERSION_1 = 1;
+	/** Bytes every binary file starts and ends with */
+	private static final byte[] MAGIC = { 'A', 'P', 'P', 'B' };
+	/** Size of the file header in bytes */
+	static final int HEADER_SIZE = 8;
+	/** Size of the file trailer in bytes */
+	static final int TRAILER_SIZE = 20;
+	/** Size of the file trailer of version 1 files in bytes */
+	static final int TRAILER_SIZE_1 = 16;
+
+	/** State names by their code in the file */
+	static final String[] STATES = { Application.REVIEW_NAME, Application.INTERVIEW_NAME, Application.REFCHK_NAME,
+		Application.OFFER_NAME, Application.WAITLIST_NAME, Application.CLOSED_NAME };
+	/** Application type names by their code in the file */
+	static final String[] TYPES = { Application.A_NEW, Application.A_OLD, Application.A_HIRED };
+	/** Resolution names by their code in the file */
+	static final String[] RESOLUTIONS = { "", Command.R_REVCOMPLETED, Command.R_INTCOMPLETED,
+		Command.R_REFCHKCOMPLETED, Command.R_OFFERCOMPLETED };
+
+	/**
+	 * Returns true if the given file name has the binary extension.
+	 *
+	 * @param fileName name of the file
+	 * @return true if the file should be written in the binary format
+	 */
+	public static boolean isBinaryFileName(String fileName) {
+		return fileName.endsWith(EXTENSION);
+	}
+
+	/**
+	 * Returns true if the given file exists and starts with the binary header.
+	 *
+	 * @param fileName name of the file
+	 * @return true if the file is in the binary format
+	 */
+	public static boolean isBinaryFile(String fileName) {
+		try (FileChannel channel = FileChannel.open(Paths.get(fileName))) {
+			ByteBuffer magic = ByteBuffer.allocate(MAGIC.length);
+			while (magic.hasRemaining() && channel.read(magic) >= 0) {
+				// keep reading until the magic bytes are in or the file ends
+			}
+			return !magic.hasRemaining() && Arrays.equals(magic.array(), MAGIC);
+		} catch (IOException | RuntimeException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Reads every Application from a binary file in file order.
+	 *
+	 * @param fileName file to read Applications from
+	 * @return a list of valid Applications
+	 * @throws IllegalArgumentException "Unable to load file." if the file cannot be
+	 *                                  found or read, or a record is invalid
+	 */
+	public static ArrayList<Application> readAppsFromFile(String fileName) {
+		try (FileChannel channel = FileChannel.open(Paths.get(fileName))) {
+			Trailer trailer = readTrailer(channel);
+			DataInputStream in = new DataInputStream(
+					new BufferedInputStream(Channels.newInputStream(channel.position(HEADER_SIZE)), 64 * 1024));
+			String[] reviewers = readDictionary(in);
+
+			ArrayList<Application> apps = new ArrayList<Application>(trailer.count);
+			ByteBuffer record = ByteBuffer.allocate(256);
+			for (int i = 0; i < trailer.count; i++) {
+				int length = in.readInt();
+				if (record.capacity() < length) {
+					record = ByteBuffer.allocate(Math.max(length, record.capacity() * 2));
+				}
+				record.clear();
+				in.readFully(record.array(), 0, length);
+				record.limit(length);
+				apps.add(decodeApp(record, reviewers));
+			}
+			return apps;
+		} catch (IOException | RuntimeException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+	}
+
+	/**
+	 * Checks the header of a binary file and reads its trailer.
+	 *
+	 * @param channel channel of the file
+	 * @return the trailer of the file
+	 * @throws IOException              if the file cannot be read
+	 * @throws IllegalArgumentException if the file is not a supported binary file
+	 */
+	static Trailer readTrailer(FileChannel channel) throws IOException {
+		long size = channel.size();
+		if (size < HEADER_SIZE + TRAILER_SIZE_1) {
+			throw new IllegalArgumentException();
+		}
+		ByteBuffer header = readFully(channel, 0, HEADER_SIZE);
+		byte[] magic = new byte[MAGIC.length];
+		header.get(magic);
+		int version = header.get();
+		if (!Arrays.equals(magic, MAGIC) || (version != VERSION && version != VERSION_1)) {
+			throw new IllegalArgumentException();
+		}
+
+		int trailerSize = version == VERSION_1 ? TRAILER_SIZE_1 : TRAILER_SIZE;
+		if (size < HEADER_SIZE + trailerSize) {
+			throw new IllegalArgumentException();
+		}
+		ByteBuffer trailer = readFully(channel, size - trailerSize, trailerSize);
+		long indexOffset = trailer.getLong();
+		int count = trailer.getInt();
+		int highWaterMark = version == VERSION_1 ? 0 : trailer.getInt();
+		Trailer t = new Trailer(indexOffset, count, highWaterMark);
+		trailer.get(magic);
+		if (!Arrays.equals(magic, MAGIC) || t.indexOffset < HEADER_SIZE || t.indexOffset > size - trailerSize
+				|| t.count < 0 || t.highWaterMark < 0) {
+			throw new IllegalArgumentException();
+		}
+		return t;
+	}
+
+	/**
+	 * Returns the high-water mark saved in a binary file: the greatest id the
+	 * saved list ever used. For a version 1 file, which has none, this is the
+	 * greatest id in the file. Only the trailer and, for version 1, the index are
+	 * read.
+	 *
+	 * @param fileName binary file to read
+	 * @return the high-water mark, or 0 if the file holds no ids
+	 * @throws IllegalArgumentException "Unable to load file." if the file cannot be
+	 *                                  read or is not a binary application file
+	 */
+	public static int readHighWaterMark(String fileName) {
+		try (FileChannel channel = FileChannel.open(Paths.get(fileName))) {
+			Trailer trailer = readTrailer(channel);
+			if (trailer.highWaterMark > 0) {
+				return trailer.highWaterMark;
+			}
+			int highWaterMark = 0;
+			ByteBuffer index = readFully(channel, trailer.indexOffset + 4, trailer.count * 12);
+			for (int i = 0; i < trailer.count; i++) {
+				highWaterMark = Math.max(highWaterMark, index.getInt(i * 12));
+			}
+			return highWaterMark;
+		} catch (IOException | RuntimeException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+	}
+
+	/**
+	 * Reads the given number of bytes at the given position of a file.
+	 *
+	 * @param channel  channel of the file
+	 * @param position offset to read from
+	 * @param length   number of bytes to read
+	 * @return buffer holding the bytes, ready to be read
+	 * @throws IOException if the file cannot be read or is too short
+	 */
+	static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(length);
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) < 0) {
+				throw new IOException("Unexpected end of file");
+			}
+		}
+		buffer.flip();
+		return buffer;
+	}
+
+	/**
+	 * Reads the reviewer dictionary.
+	 *
+	 * @param in stream positioned at the dictionary
+	 * @return the reviewers by their index
+	 * @throws IOException if the file cannot be read
+	 */
+	static String[] readDictionary(DataInputStream in) throws IOException {
+		String[] reviewers = new String[in.readInt()];
+		for (int i = 0; i < reviewers.length; i++) {
+			byte[] bytes = new byte[in.readInt()];
+			in.readFully(bytes);
+			reviewers[i] = new String(bytes, StandardCharsets.UTF_8);
+		}
+		return reviewers;
+	}
+
+	/**
+	 * Decodes a single record into an Application.
+	 *
+	 * @param record    buffer holding the record after its length
+	 * @param reviewers reviewer dictionary of the file
+	 * @return the Application in the record
+	 * @throws IllegalArgumentException if the record is invalid
+	 */
+	static Application decodeApp(ByteBuffer record, String[] reviewers) {
+		int id = record.getInt();
+		String state = STATES[record.get()];
+		String type = TYPES[record.get()];
+		String resolution = RESOLUTIONS[record.get()];
+		boolean processed = record.get() != 0;
+		int reviewerIndex = record.getInt();
+		String reviewer = reviewerIndex < 0 ? null : reviewers[reviewerIndex];
+		String summary = getString(record);
+		int noteCount = record.getInt();
+		ArrayList<String> notes = new ArrayList<String>(noteCount);
+		for (int i = 0; i < noteCount; i++) {
+			notes.add(getString(record));
+		}
+		return new Application(id, state, type, summary, reviewer, processed, resolution, notes);
+	}
+
+	/**
+	 * Reads a length-prefixed UTF-8 String from the buffer.
+	 *
+	 * @param buffer buffer to read from
+	 * @return the String
+	 */
+	static String getString(ByteBuffer buffer) {
+		int length = buffer.getInt();
+		String s = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length,
+				StandardCharsets.UTF_8);
+		buffer.position(buffer.position() + length);
+		return s;
+	}
+
+	/**
+	 * Writes the given Applications to a binary file, replacing the file
+	 * atomically.
+	 *
+	 * @param fileName file to write Applications to
+	 * @param apps     list of Applications to write
+	 * @throws IllegalArgumentException "Unable to save file." if cannot write to
+	 *                                  file
+	 */
+	public static void writeAppsToFile(String fileName, List<Application> apps) {
+		writeAppsToFile(fileName, apps, 0);
+	}
+
+	/**
+	 * Writes the given Applications to a binary file with the given high-water
+	 * mark, replacing the file atomically. The mark saved is never less than the
+	 * greatest id written.
+	 *
+	 * @param fileName      file to write Applications to
+	 * @param apps          list of Applications to write
+	 * @param highWaterMark greatest id the list has used
+	 * @throws IllegalArgumentException "Unable to save file." if cannot write to
+	 *                                  file
+	 */
+	public static void writeAppsToFile(String fileName, List<Application> apps, int highWaterMark) {
+		AppWriter.writeAtomically(fileName, channel -> writeApps(channel, apps, highWaterMark));
+	}
+
+	/**
+	 * Writes the header, dictionary, records, index and trailer of a binary file.
+	 *
+	 * @param channel       channel to write to
+	 * @param apps          list of Applications to write
+	 * @param highWaterMark greatest id the list has used
+	 * @throws IOException if the channel cannot be written
+	 */
+	private static void writeApps(FileChannel channel, List<Application> apps, int highWaterMark)
+			throws IOException {
+		LinkedHashMap<String, Integer> reviewers = new LinkedHashMap<String, Integer>();
+		for (int i = 0; i < apps.size(); i++) {
+			String reviewer = apps.get(i).getReviewer();
+			if (reviewer != null) {
+				reviewers.putIfAbsent(reviewer, reviewers.size());
+			}
+		}
+
+		Output out = new Output(channel);
+		out.put(MAGIC);
+		out.put(new byte[] { VERSION, 0, 0, 0 });
+		out.putInt(reviewers.size());
+		for (String reviewer : reviewers.keySet()) {
+			out.putString(reviewer.getBytes(StandardCharsets.UTF_8));
+		}
+
+		int[] ids = new int[apps.size()];
+		long[] offsets = new long[apps.size()];
+		ByteBuffer record = ByteBuffer.allocate(256);
+		int mark = Math.max(highWaterMark, 0);
+		for (int i = 0; i < apps.size(); i++) {
+			Application app = apps.get(i);
+			record = encodeApp(record, app, reviewers);
+			ids[i] = app.getAppId();
+			mark = Math.max(mark, ids[i]);
+			offsets[i] = out.position();
+			out.putInt(record.remaining());
+			out.put(record.array(), 0, record.remaining());
+		}
+
+		long indexOffset = out.position();
+		out.putInt(apps.size());
+		for (int i = 0; i < ids.length; i++) {
+			out.putInt(ids[i]);
+			out.putLong(offsets[i]);
+		}
+		out.putLong(indexOffset);
+		out.putInt(apps.size());
+		out.putInt(mark);
+		out.put(MAGIC);
+		out.flush();
+	}
+
+	/**
+	 * Encodes an Application into a record, growing the buffer if needed.
+	 *
+	 * @param record    reusable buffer to encode into
+	 * @param app       Application to encode
+	 * @param reviewers reviewer dictionary of the file
+	 * @return buffer holding the record, ready to be read
+	 */
+	private static ByteBuffer encodeApp(ByteBuffer record, Application app, LinkedHashMap<String, Integer> reviewers) {
+		byte[] summary = app.getSummary().getBytes(StandardCharsets.UTF_8);
+		List<String> notes = app.getNotes();
+		byte[][] noteBytes = new byte[notes.size()][];
+		int length = 4 + 4 + 4 + 4 + summary.length + 4;
+		for (int i = 0; i < noteBytes.length; i++) {
+			noteBytes[i] = notes.get(i).getBytes(StandardCharsets.UTF_8);
+			length += 4 + noteBytes[i].length;
+		}
+		if (record.capacity() < length) {
+			record = ByteBuffer.allocate(Math.max(length, record.capacity() * 2));
+		}
+
+		record.clear();
+		record.putInt(app.getAppId());
+		record.put((byte) indexOf(STATES, app.getStateName()));
+		record.put((byte) indexOf(TYPES, app.getAppType()));
+		record.put((byte) (app.getResolution() == null ? 0 : indexOf(RESOLUTIONS, app.getResolution())));
+		record.put((byte) (app.isProcessed() ? 1 : 0));
+		record.putInt(app.getReviewer() == null ? -1 : reviewers.get(app.getReviewer()));
+		record.putInt(summary.length).put(summary);
+		record.putInt(noteBytes.length);
+		for (int i = 0; i < noteBytes.length; i++) {
+			record.putInt(noteBytes[i].length).put(noteBytes[i]);
+		}
+		record.flip();
+		return record;
+	}
+
+	/**
+	 * Returns the position of a name in an array of names.
+	 *
+	 * @param names array of names
+	 * @param name  name to find
+	 * @return position of the name in the array
+	 * @throws IllegalArgumentException if the name is not in the array
+	 */
+	private static int indexOf(String[] names, String name) {
+		for (int i = 0; i < names.length; i++) {
+			if (names[i].equals(name)) {
+				return i;
+			}
+		}
+		throw new IllegalArgumentException();
+	}
+
+	/**
+	 * Offset of the index, number of records and high-water mark of a binary
+	 * file.
+	 */
+	static class Trailer {
+
+		/** Offset of the index in the file */
+		final long indexOffset;
+		/** Number of records in the file */
+		final int count;
+		/** Greatest id the saved list used, or 0 for a version 1 file */
+		final int highWaterMark;
+
+		/**
+		 * Constructs a Trailer.
+		 *
+		 * @param indexOffset   offset of the index in the file
+		 * @param count         number of records in the file
+		 * @param highWaterMark greatest id the saved list used, or 0 if unknown
+		 */
+		Trailer(long indexOffset, int count, int highWaterMark) {
+			this.indexOffset = indexOffset;
+			this.count = count;
+			this.highWaterMark = highWaterMark;
+		}
+	}
+
+	/**
+	 * Buffered writer of big-endian values to a channel that keeps track of the
+	 * number of bytes written.
+	 */
+	private static class Output {
+
+		/** Channel the bytes are written to */
+		private final FileChannel channel;
+		/** Buffer of bytes not yet written */
+		private final ByteBuffer buffer = ByteBuffer.allocate(AppWriter.BUFFER_SIZE);
+		/** Number of bytes written to the channel */
+		private long written;
+
+		/**
+		 * Constructs an Output over the given channel.
+		 *
+		 * @param channel channel to write to
+		 */
+		Output(FileChannel channel) {
+			this.channel = channel;
+		}
+
+		/**
+		 * Returns the file offset of the next byte.
+		 *
+		 * @return the number of bytes written so far
+		 */
+		long position() {
+			return written + buffer.position();
+		}
+
+		/**
+		 * Makes room for the given number of bytes in the buffer.
+		 *
+		 * @param n number of bytes about to be written, at most the buffer size
+		 * @throws IOException if the channel cannot be written
+		 */
+		private void ensure(int n) throws IOException {
+			if (buffer.remaining() < n) {
+				flush();
+			}
+		}
+
+		/**
+		 * Writes an int.
+		 *
+		 * @param value value to write
+		 * @throws IOException if the channel cannot be written
+		 */
+		void putInt(int value) throws IOException {
+			ensure(4);
+			buffer.putInt(value);
+		}
+
+		/**
+		 * Writes a long.
+		 *
+		 * @param value value to write
+		 * @throws IOException if the channel cannot be written
+		 */
+		void putLong(long value) throws IOException {
+			ensure(8);
+			buffer.putLong(value);
+		}
+
+		/**
+		 * Writes a length-prefixed String.
+		 *
+		 * @param bytes UTF-8 bytes of the String
+		 * @throws IOException if the channel cannot be written
+		 */
+		void putString(byte[] bytes) throws IOException {
+			putInt(bytes.length);
+			put(bytes);
+		}
+
+		/**
+		 * Writes bytes.
+		 *
+		 * @param bytes bytes to write
+		 * @throws IOException if the channel cannot be written
+		 */
+		void put(byte[] bytes) throws IOException {
+			put(bytes, 0, bytes.length);
+		}
+
+		/**
+		 * Writes a range of bytes, passing ranges larger than the buffer straight
+		 * to the channel.
+		 *
+		 * @param bytes  array holding the bytes
+		 * @param offset start of the range
+		 * @param length number of bytes to write
+		 * @throws IOException if the channel cannot be written
+		 */
+		void put(byte[] bytes, int offset, int length) throws IOException {
+			if (length > buffer.capacity()) {
+				flush();
+				ByteBuffer large = ByteBuffer.wrap(bytes, offset, length);
+				while (large.hasRemaining()) {
+					channel.write(large);
+				}
+				written += length;
+				return;
+			}
+			ensure(length);
+			buffer.put(bytes, offset, length);
+		}
+
+		/**
+		 * Writes all buffered bytes to the channel.
+		 *
+		 * @throws IOException if the channel cannot be written
+		 */
+		void flush() throws IOException {
+			written += buffer.position();
+			AppWriter.drain(channel, buffer);
+		}
+	}
+}
@@ -0,0 +1,101 @@
+package app_manager.model.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzip compression of application text files. A compressed file holds the same
+ * text as a plain file and is recognized by the gzip magic bytes at its start,
+ * so it can be read under any name. Files named with the ".gz" extension, or
+ * replacing a compressed file, are written compressed.
+ *
+ * @author Christine Weld
+ */
+public class AppCompression {
+
+	/** Extension of compressed application files */
+	public static final String EXTENSION = ".gz";
+	/** Compression level used unless another one is given */
+	public static final int DEFAULT_LEVEL = Deflater.DEFAULT_COMPRESSION;
+	/** Size of the compression buffers used unless another one is given */
+	public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+	/** First two bytes of a gzip stream */
+	private static final byte[] MAGIC = { (byte) 0x1f, (byte) 0x8b };
+
+	/**
+	 * Returns true if the given file name has the compressed extension.
+	 *
+	 * @param fileName name of the file
+	 * @return true if the file should be written compressed
+	 */
+	public static boolean isCompressedFileName(String fileName) {
+		return fileName.endsWith(EXTENSION);
+	}
+
+	/**
+	 * Returns true if the given file exists and starts with the gzip magic bytes.
+	 *
+	 * @param fileName name of the file
+	 * @return true if the file is compressed
+	 */
+	public static boolean isCompressedFile(String fileName) {
+		try (FileChannel channel = FileChannel.open(Paths.get(fileName))) {
+			ByteBuffer magic = ByteBuffer.allocate(MAGIC.length);
+			while (magic.hasRemaining() && channel.read(magic) >= 0) {
+				// keep reading until the magic bytes are in or the file ends
+			}
+			return !magic.hasRemaining() && magic.get(0) == MAGIC[0] && magic.get(1) == MAGIC[1];
+		} catch (IOException | RuntimeException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Opens a compressed file as a channel of its uncompressed contents.
+	 *
+	 * @param fileName   compressed file to open
+	 * @param bufferSize size of the buffer compressed bytes are read into
+	 * @return channel of the uncompressed contents
+	 * @throws IOException if the file cannot be opened or is not compressed
+	 */
+	static ReadableByteChannel openCompressed(String fileName, int bufferSize) throws IOException {
+		InputStream in = Files.newInputStream(Paths.get(fileName));
+		try {
+			return Channels.newChannel(new GZIPInputStream(in, bufferSize));
+		} catch (IOException | RuntimeException e) {
+			in.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Wraps a file channel in a gzip stream with the given level and buffer size.
+	 * The stream must be finished, not closed, so the channel stays open to be
+	 * synced.
+	 *
+	 * @param channel    channel to write compressed bytes to
+	 * @param level      compression level, from 0 to 9 or -1 for the default
+	 * @param bufferSize size of the buffer compressed bytes are written from
+	 * @return stream that compresses into the channel
+	 * @throws IOException if the gzip header cannot be written
+	 */
+	static GZIPOutputStream newCompressedStream(FileChannel channel, int level, int bufferSize) throws IOException {
+		OutputStream out = Channels.newOutputStream(channel);
+		return new GZIPOutputStream(out, bufferSize) {
+			{
+				def.setLevel(level);
+			}
+		};
+	}
+}
@@ -0,0 +1,224 @@
+package app_manager.model.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import app_manager.model.application.Application;
+
+/**
+ * Lazily reads Application records from a file one at a time. Each call to
+ * next() reads only the lines of the next record, so callers can filter or stop
+ * early without building every Application in the file. The iterator holds the
+ * file open until it reaches the end of the file or is closed.
+ *
+ * An iterator given an ImportReport is lenient: instead of failing on an
+ * invalid record, it adds the record's position and the reason to the report
+ * and moves on to the next record.
+ *
+ * A line "*#" followed by an id is not an Application but the high-water mark
+ * of the file: the greatest id the list had used when it was saved, kept so ids
+ * of deleted Applications are not given out again once the file is loaded.
+ * The deletion line "*~" of a journal is an invalid record in a file, so one
+ * is never read as the other.
+ *
+ * @author Christine Weld
+ */
+public class AppIterator implements Iterator<Application>, Closeable {
+
+	/** Reader over the lines of the file */
+	private final LineReader reader;
+	/** Lines of the record being read, after its header */
+	private final ArrayList<String> lines;
+	/** Header of the record being read, or null if none has been read yet */
+	private String header;
+	/** Line number of the header of the record being read */
+	private int headerLine;
+	/** Byte offset of the header of the record being read */
+	private long headerOffset;
+	/** Report invalid records are added to, or null to fail on them */
+	private final ImportReport report;
+	/** True once text before the first record has been reported */
+	private boolean reportedLeadingText;
+	/** Application read ahead by hasNext() and not yet returned */
+	private Application next;
+	/** True once the end of the file has been reached */
+	private boolean done;
+	/** Greatest id of the Applications and high-water marks read so far */
+	private int highWaterMark;
+
+	/**
+	 * Constructs an AppIterator over the lines of the given reader.
+	 *
+	 * @param reader reader over the lines of an application file
+	 */
+	AppIterator(LineReader reader) {
+		this(reader, null);
+	}
+
+	/**
+	 * Constructs an AppIterator over the lines of the given reader that skips
+	 * invalid records, adding them to the given report.
+	 *
+	 * @param reader reader over the lines of an application file
+	 * @param report report to add invalid records to, or null to fail on them
+	 */
+	AppIterator(LineReader reader, ImportReport report) {
+		this.reader = reader;
+		this.lines = new ArrayList<String>();
+		this.report = report;
+	}
+
+	/**
+	 * Returns true if there is another Application record in the file.
+	 *
+	 * @return true if there is another Application
+	 * @throws IllegalArgumentException "Unable to load file." if the next record
+	 *                                  is invalid or the file cannot be read
+	 */
+	@Override
+	public boolean hasNext() {
+		if (next == null && !done) {
+			next = readNext();
+		}
+		return next != null;
+	}
+
+	/**
+	 * Returns the next Application record in the file.
+	 *
+	 * @return the next Application
+	 * @throws NoSuchElementException   if there are no more records
+	 * @throws IllegalArgumentException "Unable to load file." if the next record
+	 *                                  is invalid or the file cannot be read
+	 */
+	@Override
+	public Application next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		Application app = next;
+		next = null;
+		return app;
+	}
+
+	/**
+	 * Reads lines until a whole valid record has been read and returns its
+	 * Application. A record ends at the next line starting with "*" or at the end
+	 * of the file.
+	 *
+	 * @return the next Application, or null at the end of the file
+	 * @throws IllegalArgumentException "Unable to load file." if the record is
+	 *                                  invalid or the file cannot be read
+	 */
+	private Application readNext() {
+		try {
+			while (reader.nextLine()) {
+				if (reader.startsWith('*')) {
+					String previous = header;
+					int previousLine = headerLine;
+					long previousOffset = headerOffset;
+					header = reader.lineString(1);
+					headerLine = reader.lineNumber();
+					headerOffset = reader.lineOffset();
+					if (previous != null) {
+						Application app = parse(previous, previousLine, previousOffset);
+						lines.clear();
+						if (app != null) {
+							return app;
+						}
+					}
+				} else if (header != null) {
+					lines.add(reader.lineString(0));
+				} else if (!reader.isBlank() && !reportedLeadingText) {
+					reject(reader.lineNumber(), reader.lineOffset(), "Text before the first record");
+					reportedLeadingText = true;
+				}
+			}
+			close();
+
+			Application app = null;
+			if (header != null) {
+				app = parse(header, headerLine, headerOffset);
+				header = null;
+				lines.clear();
+			}
+			return app;
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+	}
+
+	/**
+	 * Returns the greatest id of the Applications read so far, or the high-water
+	 * mark saved in the file if it is greater. Once the iterator has reached the
+	 * end of the file this is the high-water mark of the whole file.
+	 *
+	 * @return the high-water mark read so far, or 0 if there is none
+	 */
+	public int getHighWaterMark() {
+		return highWaterMark;
+	}
+
+	/**
+	 * Builds the Application of a record from its header and the lines read
+	 * after it.
+	 *
+	 * @param recordHeader header of the record without the leading "*"
+	 * @param line         line number of the header
+	 * @param offset       byte offset of the header
+	 * @return the Application, or null if the record is a high-water mark or is
+	 *         invalid and was reported
+	 * @throws IllegalArgumentException "Unable to load file." if the record is
+	 *                                  invalid and the iterator is not lenient
+	 */
+	private Application parse(String recordHeader, int line, long offset) {
+		try {
+			if (recordHeader.startsWith("#")) {
+				highWaterMark = Math.max(highWaterMark, AppReader.parseHighWaterMark(recordHeader, lines));
+				return null;
+			}
+			Application app = AppReader.parseApp(recordHeader, lines);
+			highWaterMark = Math.max(highWaterMark, app.getAppId());
+			return app;
+		} catch (IllegalArgumentException e) {
+			reject(line, offset, e.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * Reports an invalid record, or fails if the iterator is not lenient.
+	 *
+	 * @param line   line number of the start of the record
+	 * @param offset byte offset of the start of the record
+	 * @param reason why the record is invalid
+	 * @throws IllegalArgumentException "Unable to load file." if the iterator is
+	 *                                  not lenient
+	 */
+	private void reject(int line, long offset, String reason) {
+		if (report == null) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+		report.addError(line, offset, reason);
+	}
+
+	/**
+	 * Closes the file. No further records are returned after the iterator is
+	 * closed.
+	 *
+	 * @throws IllegalArgumentException "Unable to load file." if the file cannot
+	 *                                  be closed
+	 */
+	@Override
+	public void close() {
+		done = true;
+		try {
+			reader.close();
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+	}
+}
@@ -0,0 +1,424 @@
+package app_manager.model.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import app_manager.model.application.Application;
+
+/**
+ * Append-only journal of changes to an application file. The journal is kept
+ * next to the file it belongs to, with the extension ".journal", and holds the
+ * records of changed Applications in the same text format as the file itself.
+ * A deleted Application is recorded as a line "*~" followed by its id. When
+ * the file is loaded, the journal is replayed on top of it: a record replaces
+ * any earlier record with the same id, and a deletion removes it. Deletions
+ * also keep the ids they remove counted in the high-water mark of the file,
+ * which a compaction saves in the rewritten file. The high-water mark line
+ * "*#" of a file is an invalid entry in a journal.
+ *
+ * Once the journal grows past a size threshold it is compacted on a background
+ * thread. The journal is first renamed to ".compacting" so new changes can keep
+ * being appended, then the file is rewritten with the changes applied and the
+ * ".compacting" file is removed. Replaying a journal twice gives the same
+ * result as replaying it once, so a crash at any point of a compaction loses
+ * no changes.
+ *
+ * Every AppJournal of the same file shares one lock and one record of the
+ * running compaction, so a journal made for a file while an older journal of
+ * that file is still compacting never reads the file half way through a
+ * compaction, and waits for the compaction before it rewrites the file.
+ *
+ * @author Christine Weld
+ */
+public class AppJournal {
+
+	/** Extension of the journal file */
+	public static final String JOURNAL_EXTENSION = ".journal";
+	/** Extension of a journal file that is being compacted */
+	public static final String COMPACTING_EXTENSION = ".compacting";
+	/** Default journal size in bytes after which the file is compacted */
+	public static final long DEFAULT_COMPACT_THRESHOLD = 8 * 1024 * 1024;
+
+	/** Single background thread shared by all journals for compactions */
+	private static final ExecutorService COMPACTOR = Executors.newSingleThreadExecutor(r -> {
+		Thread t = new Thread(r, "AppJournal compactor");
+		t.setDaemon(true);
+		return t;
+	});
+
+	/** Shared state of each application file, by absolute path */
+	private static final ConcurrentHashMap<Path, FileState> FILES = new ConcurrentHashMap<Path, FileState>();
+
+	/** Application file the journal belongs to */
+	private final String fileName;
+	/** Lock and compaction shared by every journal of the file */
+	private final FileState state;
+	/** Path of the journal file */
+	private final Path journal;
+	/** Path of the journal file while it is being compacted */
+	private final Path compacting;
+	/** Journal size in bytes after which the file is compacted */
+	private final long compactThreshold;
+	/** Greatest id in the file and its journals when last loaded */
+	private int highWaterMark;
+
+	/**
+	 * Constructs the journal for the given application file with the default
+	 * compaction threshold.
+	 *
+	 * @param fileName application file the journal belongs to
+	 */
+	public AppJournal(String fileName) {
+		this(fileName, DEFAULT_COMPACT_THRESHOLD);
+	}
+
+	/**
+	 * Constructs the journal for the given application file.
+	 *
+	 * @param fileName         application file the journal belongs to
+	 * @param compactThreshold journal size in bytes after which the file is
+	 *                         compacted
+	 */
+	public AppJournal(String fileName, long compactThreshold) {
+		this.fileName = fileName;
+		this.journal = Paths.get(fileName + JOURNAL_EXTENSION);
+		this.compacting = Paths.get(fileName + COMPACTING_EXTENSION);
+		this.compactThreshold = compactThreshold;
+		this.state = FILES.computeIfAbsent(canonicalPath(fileName), path -> new FileState());
+	}
+
+	/**
+	 * Returns the path the state of a file is kept under. The directory of the
+	 * file is resolved to its real path, so different names of the same file get
+	 * the same state whether or not the file exists yet.
+	 *
+	 * @param fileName application file
+	 * @return absolute path of the file
+	 */
+	private static Path canonicalPath(String fileName) {
+		Path path = Paths.get(fileName).toAbsolutePath().normalize();
+		try {
+			return path.getParent().toRealPath().resolve(path.getFileName());
+		} catch (IOException | RuntimeException e) {
+			return path;
+		}
+	}
+
+	/**
+	 * Returns the application file the journal belongs to.
+	 *
+	 * @return the application file name
+	 */
+	public String getFileName() {
+		return fileName;
+	}
+
+	/**
+	 * Returns true if there are no journaled changes waiting to be replayed.
+	 *
+	 * @return true if the journal is empty
+	 */
+	public boolean isEmpty() {
+		synchronized (state) {
+			return !Files.exists(journal) && !Files.exists(compacting);
+		}
+	}
+
+	/**
+	 * Appends the given changes to the journal and syncs it to disk. Starts a
+	 * background compaction if the journal has passed the size threshold.
+	 *
+	 * @param changed    Applications that were added or updated
+	 * @param deletedIds ids of Applications that were deleted
+	 * @throws IllegalArgumentException "Unable to save file." if the journal
+	 *                                  cannot be written
+	 */
+	public void append(Collection<Application> changed, Collection<Integer> deletedIds) {
+		long size;
+		synchronized (state) {
+			try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.APPEND)) {
+				StringBuilder text = new StringBuilder();
+				for (Integer id : deletedIds) {
+					text.append("*~").append(id).append('\n');
+				}
+				for (Application app : changed) {
+					app.appendTo(text);
+				}
+				ByteBuffer bytes = StandardCharsets.UTF_8.encode(CharBuffer.wrap(text));
+				while (bytes.hasRemaining()) {
+					channel.write(bytes);
+				}
+				channel.force(false);
+				size = channel.size();
+			} catch (IOException e) {
+				throw new IllegalArgumentException("Unable to save file.");
+			}
+		}
+
+		if (size > compactThreshold) {
+			compactAsync();
+		}
+	}
+
+	/**
+	 * Reads the application file and replays any journals on top of it.
+	 *
+	 * @return the Applications in the file with all journaled changes applied
+	 * @throws IllegalArgumentException "Unable to load file." if the file or a
+	 *                                  journal cannot be read
+	 */
+	public ArrayList<Application> load() {
+		synchronized (state) {
+			ArrayList<Application> apps = new ArrayList<Application>();
+			highWaterMark = readFile(apps);
+			if (isEmpty()) {
+				return apps;
+			}
+
+			// The first record with an id wins, the same as in AppList
+			LinkedHashMap<Integer, Application> byId = new LinkedHashMap<Integer, Application>();
+			for (int i = 0; i < apps.size(); i++) {
+				byId.putIfAbsent(apps.get(i).getAppId(), apps.get(i));
+			}
+			highWaterMark = Math.max(highWaterMark, replay(compacting, byId));
+			highWaterMark = Math.max(highWaterMark, replay(journal, byId));
+			return new ArrayList<Application>(byId.values());
+		}
+	}
+
+	/**
+	 * Returns the greatest id in the file and its journals when they were last
+	 * loaded, counting ids that were deleted and the high-water mark saved in the
+	 * file.
+	 *
+	 * @return the high-water mark of the last load, or 0 if there was none
+	 */
+	public int getHighWaterMark() {
+		synchronized (state) {
+			return highWaterMark;
+		}
+	}
+
+	/**
+	 * Reads the Applications of the application file into the given list and
+	 * returns its high-water mark: the one saved in the file, or the greatest id
+	 * in the file if that is greater.
+	 *
+	 * @param apps list the Applications read from the file are added to
+	 * @return the high-water mark of the file
+	 * @throws IllegalArgumentException "Unable to load file." if the file cannot
+	 *                                  be read
+	 */
+	private int readFile(List<Application> apps) {
+		if (AppBinaryFormat.isBinaryFile(fileName)) {
+			apps.addAll(AppBinaryFormat.readAppsFromFile(fileName));
+			int mark = AppBinaryFormat.readHighWaterMark(fileName);
+			for (int i = 0; i < apps.size(); i++) {
+				mark = Math.max(mark, apps.get(i).getAppId());
+			}
+			return mark;
+		}
+		try (AppIterator it = AppReader.iterateAppsFromFile(fileName)) {
+			while (it.hasNext()) {
+				apps.add(it.next());
+			}
+			return it.getHighWaterMark();
+		}
+	}
+
+	/**
+	 * Applies the changes in a journal file, if it exists, to the given
+	 * Applications.
+	 *
+	 * @param path journal file to replay
+	 * @param byId Applications by id, updated in place
+	 * @return the greatest id added, updated or deleted by the journal, or 0 if
+	 *         there is none
+	 * @throws IllegalArgumentException "Unable to load file." if the journal
+	 *                                  cannot be read
+	 */
+	private static int replay(Path path, LinkedHashMap<Integer, Application> byId) {
+		if (!Files.exists(path)) {
+			return 0;
+		}
+		try (LineReader reader = new LineReader(FileChannel.open(path))) {
+			int mark = 0;
+			String header = null;
+			ArrayList<String> lines = new ArrayList<String>();
+			while (reader.nextLine()) {
+				if (reader.startsWith('*')) {
+					mark = Math.max(mark, apply(header, lines, byId));
+					lines.clear();
+					header = reader.lineString(1);
+				} else if (header != null) {
+					lines.add(reader.lineString(0));
+				}
+			}
+			return Math.max(mark, apply(header, lines, byId));
+		} catch (IOException | IllegalArgumentException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+	}
+
+	/**
+	 * Applies a single journal entry to the given Applications.
+	 *
+	 * @param header    header of the entry, or null if there is none
+	 * @param noteLines lines of the entry after its header
+	 * @param byId      Applications by id, updated in place
+	 * @return the id the entry adds, updates or deletes, or 0 if there is no entry
+	 */
+	private static int apply(String header, List<String> noteLines, LinkedHashMap<Integer, Application> byId) {
+		if (header == null) {
+			return 0;
+		}
+		if (header.startsWith("~")) {
+			int id = Integer.parseInt(header.substring(1));
+			byId.remove(id);
+			return id;
+		}
+		Application app = AppReader.processApp(header, noteLines);
+		byId.put(app.getAppId(), app);
+		return app.getAppId();
+	}
+
+	/**
+	 * Starts compacting the journal into the application file on the background
+	 * thread, unless a compaction is already running.
+	 */
+	public void compactAsync() {
+		synchronized (state) {
+			if (state.compaction != null && !state.compaction.isDone()) {
+				return;
+			}
+			state.compaction = COMPACTOR.submit(() -> {
+				try {
+					compact();
+				} catch (IllegalArgumentException e) {
+					// The journals are left in place and replayed on the next load
+				}
+			});
+		}
+	}
+
+	/**
+	 * Rewrites the application file with the journaled changes applied and removes
+	 * the compacted journal.
+	 *
+	 * @throws IllegalArgumentException if the file cannot be rewritten
+	 */
+	private void compact() {
+		ArrayList<Application> apps;
+		int mark;
+		synchronized (state) {
+			try {
+				if (!Files.exists(compacting) && Files.exists(journal)) {
+					Files.move(journal, compacting, StandardCopyOption.ATOMIC_MOVE);
+				}
+			} catch (IOException e) {
+				throw new IllegalArgumentException("Unable to save file.");
+			}
+			apps = new ArrayList<Application>();
+			mark = readFile(apps);
+		}
+
+		LinkedHashMap<Integer, Application> byId = new LinkedHashMap<Integer, Application>();
+		for (int i = 0; i < apps.size(); i++) {
+			byId.putIfAbsent(apps.get(i).getAppId(), apps.get(i));
+		}
+		mark = Math.max(mark, replay(compacting, byId));
+		apps = new ArrayList<Application>(byId.values());
+		apps.sort((a, b) -> Integer.compare(a.getAppId(), b.getAppId()));
+
+		synchronized (state) {
+			AppWriter.writeAppsToFile(fileName, apps, mark);
+			try {
+				Files.deleteIfExists(compacting);
+			} catch (IOException e) {
+				throw new IllegalArgumentException("Unable to save file.");
+			}
+		}
+	}
+
+	/**
+	 * Waits for a running compaction to finish.
+	 */
+	public void awaitCompaction() {
+		Future<?> running;
+		synchronized (state) {
+			running = state.compaction;
+		}
+		if (running != null) {
+			try {
+				running.get();
+			} catch (Exception e) {
+				// A failed compaction leaves the journals to be replayed
+			}
+		}
+	}
+
+	/**
+	 * Rewrites the whole application file with the given Applications and deletes
+	 * the journals, waiting first for a running compaction so it cannot overwrite
+	 * the new file.
+	 *
+	 * @param apps Applications to write
+	 * @throws IllegalArgumentException "Unable to save file." if the file cannot
+	 *                                  be written or the journals cannot be
+	 *                                  deleted
+	 */
+	public void writeAll(List<Application> apps) {
+		writeAll(apps, 0);
+	}
+
+	/**
+	 * Rewrites the whole application file with the given Applications and
+	 * high-water mark, and deletes the journals, waiting first for a running
+	 * compaction so it cannot overwrite the new file.
+	 *
+	 * @param apps          Applications to write
+	 * @param highWaterMark greatest id the list has used
+	 * @throws IllegalArgumentException "Unable to save file." if the file cannot
+	 *                                  be written or the journals cannot be
+	 *                                  deleted
+	 */
+	public void writeAll(List<Application> apps, int highWaterMark) {
+		awaitCompaction();
+		synchronized (state) {
+			AppWriter.writeAppsToFile(fileName, apps, highWaterMark);
+			try {
+				Files.deleteIfExists(compacting);
+				Files.deleteIfExists(journal);
+			} catch (IOException e) {
+				throw new IllegalArgumentException("Unable to save file.");
+			}
+		}
+	}
+
+	/**
+	 * Lock and running compaction of an application file, shared by every
+	 * journal of the file.
+	 */
+	private static class FileState {
+
+		/** Compaction of the file that is running or queued, or null if none */
+		private Future<?> compaction;
+	}
+}
@@ -1,11 +1,18 @@
 package app_manager.model.io;
 
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.Scanner;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import app_manager.model.application.Application;
+import app_manager.model.command.Command;
 
 /**
  * Reads and processes Application records from a text file into an ArrayList of
@@ -15,11 +22,20 @@ import app_manager.model.application.Application;
  */
 public class AppReader {
 
+	/** Names of the application states, as written in the file */
+	private static final String[] STATE_NAMES = { Application.REVIEW_NAME, Application.INTERVIEW_NAME,
+			Application.REFCHK_NAME, Application.OFFER_NAME, Application.WAITLIST_NAME, Application.CLOSED_NAME };
+	/** Names of the application resolutions, as written in the file */
+	private static final String[] RESOLUTION_NAMES = { Command.R_REVCOMPLETED, Command.R_INTCOMPLETED,
+			Command.R_REFCHKCOMPLETED, Command.R_OFFERCOMPLETED };
+
 	/**
-	 * Reads Application records from a file into a String object, calls
-	 * processApp() to return a single Application from the String, and generates a
-	 * list of Applications. If the file to read cannot be found or the permissions
-	 * are incorrect, an IllegalArgumentException is thrown.
+	 * Reads Application records from a file in a single pass, calling processApp()
+	 * for each record as soon as its last line has been read, and generates a list
+	 * of Applications. Files in the binary format are recognized by their header
+	 * and read by AppBinaryFormat, and gzip compressed files are uncompressed as
+	 * they are read. If the file to read cannot be found or the
+	 * permissions are incorrect, an IllegalArgumentException is thrown.
 	 * 
 	 * @param fileName file to read Application records from
 	 * @return a list of valid Applications
@@ -27,94 +43,236 @@ public class AppReader {
 	 *                                  found or read
 	 */
 	public static ArrayList<Application> readAppsFromFile(String fileName) {
+		if (AppBinaryFormat.isBinaryFile(fileName)) {
+			return AppBinaryFormat.readAppsFromFile(fileName);
+		}
 		ArrayList<Application> apps = new ArrayList<Application>();
-		try {
-			Scanner fileReader = new Scanner(new FileInputStream(fileName));
-			String fileText = "";
-
-			while (fileReader.hasNextLine()) {
-				fileText += fileReader.nextLine() + "\n";
+		try (AppIterator it = iterateAppsFromFile(fileName)) {
+			while (it.hasNext()) {
+				apps.add(it.next());
 			}
+		}
+		return apps;
+	}
 
-			Scanner lineScanner = new Scanner(fileText);
-			lineScanner.useDelimiter("\\r?\\n?[*]");
+	/**
+	 * Reads Application records from a file by memory mapping it and parsing
+	 * chunks of records in parallel. Meant for very large files; the returned list
+	 * is the same as the one returned by readAppsFromFile(). Compressed and binary
+	 * files cannot be split into chunks and are read by readAppsFromFile().
+	 * 
+	 * @param fileName file to read Application records from
+	 * @return a list of valid Applications
+	 * @throws IllegalArgumentException "Unable to load file." if the file cannot be
+	 *                                  found or read
+	 */
+	public static ArrayList<Application> readAppsFromFileParallel(String fileName) {
+		if (AppCompression.isCompressedFile(fileName) || AppBinaryFormat.isBinaryFile(fileName)) {
+			return readAppsFromFile(fileName);
+		}
+		return ParallelAppReader.read(fileName);
+	}
 
-			while (lineScanner.hasNext()) {
-				Application app = processApp(lineScanner.next());
-				apps.add(app);
+	/**
+	 * Reads Application records from a text file leniently. Invalid records are
+	 * skipped instead of failing the whole file, and the returned report holds
+	 * every valid Application along with the line number, byte offset and reason
+	 * of every skipped record. A binary file is read as a whole, since an invalid
+	 * record in it means the file is damaged.
+	 * 
+	 * @param fileName file to read Application records from
+	 * @return report of the valid Applications and the skipped records
+	 * @throws IllegalArgumentException "Unable to load file." if the file cannot be
+	 *                                  found or read
+	 */
+	public static ImportReport importAppsFromFile(String fileName) {
+		ImportReport report = new ImportReport();
+		if (AppBinaryFormat.isBinaryFile(fileName)) {
+			ArrayList<Application> apps = AppBinaryFormat.readAppsFromFile(fileName);
+			for (int i = 0; i < apps.size(); i++) {
+				report.addApp(apps.get(i));
+			}
+			report.setHighWaterMark(AppBinaryFormat.readHighWaterMark(fileName));
+			return report;
+		}
+		try (AppIterator it = new AppIterator(new LineReader(openChannel(fileName)), report)) {
+			while (it.hasNext()) {
+				report.addApp(it.next());
 			}
+			report.setHighWaterMark(it.getHighWaterMark());
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+		return report;
+	}
 
-			lineScanner.close();
-			fileReader.close();
-		} catch (FileNotFoundException e) {
+	/**
+	 * Opens a file of Application records for lazy reading. A record starts at a
+	 * line beginning with "*" and continues until the next such line; each record
+	 * is only parsed when the iterator reaches it. A gzip compressed file is
+	 * uncompressed as it is read. The returned iterator must be closed to release
+	 * the file.
+	 * 
+	 * @param fileName file to read Application records from
+	 * @return an iterator over the Applications in the file
+	 * @throws IllegalArgumentException "Unable to load file." if the file cannot be
+	 *                                  found or read
+	 */
+	public static AppIterator iterateAppsFromFile(String fileName) {
+		try {
+			return new AppIterator(new LineReader(openChannel(fileName)));
+		} catch (IOException e) {
 			throw new IllegalArgumentException("Unable to load file.");
 		}
-		return apps;
 	}
 
 	/**
-	 * Processes a String object of the lines from the text file representing a
-	 * single application.
+	 * Opens a text file of Application records as a channel, uncompressing it if
+	 * it is gzip compressed.
 	 * 
-	 * @param appString String object of all lines from input file
+	 * @param fileName file to open
+	 * @return channel of the text of the file
+	 * @throws IOException if the file cannot be opened
+	 */
+	private static ReadableByteChannel openChannel(String fileName) throws IOException {
+		if (AppCompression.isCompressedFile(fileName)) {
+			return AppCompression.openCompressed(fileName, AppCompression.DEFAULT_BUFFER_SIZE);
+		}
+		return FileChannel.open(Paths.get(fileName));
+	}
+
+	/**
+	 * Opens a file of Application records as a lazy, ordered Stream. Records are
+	 * parsed as the stream is consumed, so filters and short-circuiting operations
+	 * only read as much of the file as they need. The stream must be closed to
+	 * release the file.
+	 * 
+	 * @param fileName file to read Application records from
+	 * @return a stream of the Applications in the file
+	 * @throws IllegalArgumentException "Unable to load file." if the file cannot be
+	 *                                  found or read
+	 */
+	public static Stream<Application> streamAppsFromFile(String fileName) {
+		AppIterator it = iterateAppsFromFile(fileName);
+		return StreamSupport
+				.stream(Spliterators.spliteratorUnknownSize(it, Spliterator.ORDERED | Spliterator.NONNULL), false)
+				.onClose(it::close);
+	}
+
+	/**
+	 * Processes the lines from the text file representing a single application.
+	 * The first line holds the comma separated fields of the application and the
+	 * remaining lines hold its notes, each note starting with "-".
+	 * 
+	 * @param header    first line of the record without the leading "*"
+	 * @param noteLines remaining lines of the record
 	 * @return Application constructed from processes data from input file
 	 * @throws IllegalArgumentException if Application cannot be constructed.
 	 */
-	private static Application processApp(String appString) {
-		Application app = null;
+	static Application processApp(String header, List<String> noteLines) {
 		try {
-			Scanner lineScanner = new Scanner(appString);
-			String line = lineScanner.nextLine();
-
-			Scanner tokenScanner = new Scanner(line);
-			tokenScanner.useDelimiter(",");
-
-			int id = Integer.parseInt(tokenScanner.next());
-			String state = tokenScanner.next();
-			String appType = tokenScanner.next();
-			String summary = tokenScanner.next();
-			String reviewer = tokenScanner.next();
-			boolean processPaperwork = Boolean.parseBoolean(tokenScanner.next());
+			return parseApp(header, noteLines);
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+	}
+
+	/**
+	 * Processes the lines of a single application the same way as processApp(),
+	 * but fails with the reason the record is invalid.
+	 * 
+	 * @param header    first line of the record without the leading "*"
+	 * @param noteLines remaining lines of the record
+	 * @return Application constructed from processes data from input file
+	 * @throws IllegalArgumentException with the reason if Application cannot be
+	 *                                  constructed
+	 */
+	static Application parseApp(String header, List<String> noteLines) {
+		HeaderTokenizer tokenizer = new HeaderTokenizer(header);
+		String field = "id";
+		try {
+			int id = tokenizer.nextInt();
+			field = "state";
+			String state = tokenizer.next(STATE_NAMES);
+			field = "type";
+			String appType = tokenizer.next(Application.A_NEW, Application.A_OLD, Application.A_HIRED);
+			field = "summary";
+			String summary = tokenizer.next();
+			field = "reviewer";
+			String reviewer = tokenizer.next();
+			field = "processed";
+			boolean processPaperwork = tokenizer.nextBoolean();
 			String resolution = "";
-			ArrayList<String> notes = new ArrayList<String>();
+			if (tokenizer.hasNext()) {
+				resolution = tokenizer.next(RESOLUTION_NAMES);
+			}
+			if (tokenizer.hasNext()) {
+				throw new IllegalArgumentException("Too many fields");
+			}
 
-			if (tokenScanner.hasNext()) {
-				resolution = tokenScanner.next();
+			ArrayList<String> notes = new ArrayList<String>();
+			// Trailing blank lines are not part of the last note
+			int end = noteLines.size();
+			while (end > 0 && noteLines.get(end - 1).isBlank()) {
+				end--;
 			}
 
-			String noteElement = "";
-			while (lineScanner.hasNext()) {
-				String firstLine = lineScanner.nextLine();
+			if (end > 0) {
+				String firstLine = noteLines.get(0);
+				StringBuilder noteElement = new StringBuilder();
 				if (firstLine.startsWith("-")) {
-					firstLine = firstLine.replaceFirst("-", "");
-					noteElement += firstLine;
+					noteElement.append(firstLine, 1, firstLine.length());
 				}
 
-				while (lineScanner.hasNext()) {
-					String nextLine = lineScanner.nextLine();
+				for (int i = 1; i < end; i++) {
+					String nextLine = noteLines.get(i);
 					if (nextLine.startsWith("-")) {
-						notes.add(noteElement);
-						nextLine = nextLine.replaceFirst("-", "");
-						noteElement = nextLine;
+						notes.add(noteElement.toString());
+						noteElement.setLength(0);
+						noteElement.append(nextLine, 1, nextLine.length());
 					} else {
-						noteElement += "\n" + nextLine;
+						noteElement.append('\n').append(nextLine);
 					}
 				}
-				notes.add(noteElement);
+				notes.add(noteElement.toString());
 			}
 
-			if (tokenScanner.hasNext()) {
-				tokenScanner.close();
-				lineScanner.close();
-				throw new IllegalArgumentException();
+			field = null;
+			return new Application(id, state, appType, summary, reviewer, processPaperwork, resolution, notes);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid id");
+		} catch (IllegalArgumentException e) {
+			if (field != null && e.getMessage() == null) {
+				throw new IllegalArgumentException("Missing " + field);
 			}
-			tokenScanner.close();
-			lineScanner.close();
+			throw e;
+		}
+	}
 
-			app = new Application(id, state, appType, summary, reviewer, processPaperwork, resolution, notes);
-		} catch (IllegalArgumentException e) {
-			throw new IllegalArgumentException("Unable to load file.");
+	/**
+	 * Processes a high-water mark record, a line "*#" followed by the greatest id
+	 * the list had used when it was saved.
+	 * 
+	 * @param header    first line of the record without the leading "*"
+	 * @param noteLines remaining lines of the record, which must be blank
+	 * @return the high-water mark
+	 * @throws IllegalArgumentException with the reason if the record is invalid
+	 */
+	static int parseHighWaterMark(String header, List<String> noteLines) {
+		for (int i = 0; i < noteLines.size(); i++) {
+			if (!noteLines.get(i).isBlank()) {
+				throw new IllegalArgumentException("Too many fields");
+			}
+		}
+		int mark;
+		try {
+			mark = Integer.parseInt(header.substring(1));
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid high-water mark");
+		}
+		if (mark < 0) {
+			throw new IllegalArgumentException("Invalid high-water mark");
 		}
-		return app;
+		return mark;
 	}
 }
@@ -0,0 +1,286 @@
+package app_manager.model.io;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import app_manager.model.application.Application;
+
+/**
+ * Read-only, random-access view of a binary application file. Opening a store
+ * only reads the reviewer dictionary and the id-to-offset index at the end of
+ * the file; no record is parsed until it is asked for. Table rows are read from
+ * the start of a record without decoding its notes, and a whole Application,
+ * notes included, is only built by getAppById(). The same Application instance
+ * is returned for an id every time, so changes made to it are kept.
+ *
+ * @author Christine Weld
+ */
+public class AppStore implements Closeable {
+
+	/** Bytes at the start of a record read for a table row, up to the summary */
+	private static final int ROW_PREFIX = 20;
+
+	/** Channel of the binary file */
+	private final FileChannel channel;
+	/** Reviewer dictionary of the file */
+	private final String[] reviewers;
+	/** Ids of the records, in ascending order */
+	private final int[] ids;
+	/** File offsets of the records, in the same order as ids */
+	private final long[] offsets;
+	/** Applications built so far, by id */
+	private final HashMap<Integer, Application> loaded;
+	/** Greatest id the saved list used */
+	private final int highWaterMark;
+
+	/**
+	 * Constructs an AppStore from the parts of an opened file.
+	 *
+	 * @param channel   channel of the binary file
+	 * @param reviewers reviewer dictionary of the file
+	 * @param ids       ids of the records, in ascending order
+	 * @param offsets       file offsets of the records
+	 * @param highWaterMark high-water mark saved in the file, or 0 if none
+	 */
+	private AppStore(FileChannel channel, String[] reviewers, int[] ids, long[] offsets, int highWaterMark) {
+		this.channel = channel;
+		this.reviewers = reviewers;
+		this.ids = ids;
+		this.offsets = offsets;
+		this.loaded = new HashMap<Integer, Application>();
+		this.highWaterMark = Math.max(highWaterMark, ids.length == 0 ? 0 : ids[ids.length - 1]);
+	}
+
+	/**
+	 * Opens a binary application file, reading only its dictionary and index. If
+	 * the file holds more than one record with the same id, the first one is used,
+	 * the same as when the file is loaded into an AppList.
+	 *
+	 * @param fileName binary file to open
+	 * @return a store over the file
+	 * @throws IllegalArgumentException "Unable to load file." if the file cannot be
+	 *                                  read or is not a binary application file
+	 */
+	public static AppStore open(String fileName) {
+		FileChannel channel = null;
+		try {
+			channel = FileChannel.open(Paths.get(fileName));
+			AppBinaryFormat.Trailer trailer = AppBinaryFormat.readTrailer(channel);
+			DataInputStream in = new DataInputStream(
+					new BufferedInputStream(Channels.newInputStream(channel.position(AppBinaryFormat.HEADER_SIZE))));
+			String[] reviewers = AppBinaryFormat.readDictionary(in);
+
+			ByteBuffer index = AppBinaryFormat.readFully(channel, trailer.indexOffset + 4, trailer.count * 12);
+			int[] ids = new int[trailer.count];
+			long[] offsets = new long[trailer.count];
+			boolean sorted = true;
+			for (int i = 0; i < trailer.count; i++) {
+				ids[i] = index.getInt();
+				offsets[i] = index.getLong();
+				sorted = sorted && (i == 0 || ids[i - 1] < ids[i]);
+			}
+			if (!sorted) {
+				int[] order = sortById(ids);
+				int[] sortedIds = new int[order.length];
+				long[] sortedOffsets = new long[order.length];
+				for (int i = 0; i < order.length; i++) {
+					sortedIds[i] = ids[order[i]];
+					sortedOffsets[i] = offsets[order[i]];
+				}
+				ids = sortedIds;
+				offsets = sortedOffsets;
+			}
+			return new AppStore(channel, reviewers, ids, offsets, trailer.highWaterMark);
+		} catch (IOException | RuntimeException e) {
+			if (channel != null) {
+				try {
+					channel.close();
+				} catch (IOException closeFailed) {
+					// already failing to load
+				}
+			}
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+	}
+
+	/**
+	 * Returns the positions of the given ids in ascending id order, keeping only
+	 * the first position of each id.
+	 *
+	 * @param ids ids in file order
+	 * @return positions of the distinct ids in ascending id order
+	 */
+	private static int[] sortById(int[] ids) {
+		// The position in the low bits keeps equal ids in file order
+		long[] keys = new long[ids.length];
+		for (int i = 0; i < ids.length; i++) {
+			keys[i] = ((long) ids[i] << 32) | i;
+		}
+		Arrays.sort(keys);
+		int[] order = new int[keys.length];
+		int count = 0;
+		for (int i = 0; i < keys.length; i++) {
+			if (i == 0 || (int) (keys[i] >> 32) != (int) (keys[i - 1] >> 32)) {
+				order[count++] = (int) keys[i];
+			}
+		}
+		return Arrays.copyOf(order, count);
+	}
+
+	/**
+	 * Returns the greatest id the saved list used, deleted Applications included.
+	 *
+	 * @return the high-water mark, or 0 if the file holds no ids
+	 */
+	public int getHighWaterMark() {
+		return highWaterMark;
+	}
+
+	/**
+	 * Returns the number of Applications in the store.
+	 *
+	 * @return the number of Applications
+	 */
+	public int size() {
+		return ids.length;
+	}
+
+	/**
+	 * Returns the id of the Application at the given position in id order.
+	 *
+	 * @param index position of the Application
+	 * @return id of the Application
+	 */
+	public int getIdAt(int index) {
+		return ids[index];
+	}
+
+	/**
+	 * Returns the position of the given id, or -1 if the store has no such id.
+	 *
+	 * @param id application id to search for
+	 * @return position of the id in id order, or -1
+	 */
+	public int indexOf(int id) {
+		int index = Arrays.binarySearch(ids, id);
+		return index < 0 ? -1 : index;
+	}
+
+	/**
+	 * Returns the Application with the given id, reading it from the file the
+	 * first time it is asked for.
+	 *
+	 * @param id application id to search for
+	 * @return the Application, or null if the store has no such id
+	 * @throws IllegalArgumentException "Unable to load file." if the record cannot
+	 *                                  be read
+	 */
+	public synchronized Application getAppById(int id) {
+		Application app = loaded.get(id);
+		if (app == null) {
+			int index = indexOf(id);
+			if (index < 0) {
+				return null;
+			}
+			try {
+				ByteBuffer length = AppBinaryFormat.readFully(channel, offsets[index], 4);
+				ByteBuffer record = AppBinaryFormat.readFully(channel, offsets[index] + 4, length.getInt());
+				app = AppBinaryFormat.decodeApp(record, reviewers);
+			} catch (IOException | RuntimeException e) {
+				throw new IllegalArgumentException("Unable to load file.");
+			}
+			loaded.put(id, app);
+		}
+		return app;
+	}
+
+	/**
+	 * Returns the table row of the Application at the given position: its id,
+	 * state name, type name and summary. Only the start of the record is read and
+	 * its notes are not decoded. An Application that has already been built is
+	 * read from memory, so changes made to it are shown.
+	 *
+	 * @param index position of the Application in id order
+	 * @return array of id, state, type and summary
+	 * @throws IllegalArgumentException "Unable to load file." if the record cannot
+	 *                                  be read
+	 */
+	public synchronized Object[] getRow(int index) {
+		Application app = loaded.get(ids[index]);
+		if (app != null) {
+			return new Object[] { app.getAppId(), app.getStateName(), app.getAppType(), app.getSummary() };
+		}
+		try {
+			ByteBuffer prefix = AppBinaryFormat.readFully(channel, offsets[index], ROW_PREFIX);
+			prefix.position(4);
+			int id = prefix.getInt();
+			String state = AppBinaryFormat.STATES[prefix.get()];
+			String type = AppBinaryFormat.TYPES[prefix.get()];
+			prefix.position(prefix.position() + 6);
+			ByteBuffer summary = AppBinaryFormat.readFully(channel, offsets[index] + ROW_PREFIX, prefix.getInt());
+			return new Object[] { id, state, type, StandardCharsets.UTF_8.decode(summary).toString() };
+		} catch (IOException | RuntimeException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+	}
+
+	/**
+	 * Returns the type name of the Application at the given position. Only the
+	 * type byte of the record is read.
+	 *
+	 * @param index position of the Application in id order
+	 * @return type name of the Application
+	 * @throws IllegalArgumentException "Unable to load file." if the record cannot
+	 *                                  be read
+	 */
+	public synchronized String getTypeAt(int index) {
+		Application app = loaded.get(ids[index]);
+		if (app != null) {
+			return app.getAppType();
+		}
+		try {
+			// The type follows the record length, the id and the state
+			return AppBinaryFormat.TYPES[AppBinaryFormat.readFully(channel, offsets[index] + 9, 1).get()];
+		} catch (IOException | RuntimeException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+	}
+
+	/**
+	 * Returns every Application in the store in id order, building the ones that
+	 * have not been asked for yet.
+	 *
+	 * @return list of all Applications
+	 * @throws IllegalArgumentException "Unable to load file." if a record cannot
+	 *                                  be read
+	 */
+	public ArrayList<Application> readAll() {
+		ArrayList<Application> apps = new ArrayList<Application>(ids.length);
+		for (int i = 0; i < ids.length; i++) {
+			apps.add(getAppById(ids[i]));
+		}
+		return apps;
+	}
+
+	/**
+	 * Closes the file.
+	 */
+	@Override
+	public void close() {
+		try {
+			channel.close();
+		} catch (IOException e) {
+			// nothing left to read from the file
+		}
+	}
+}
@@ -1,36 +1,291 @@
 package app_manager.model.io;
 
-import java.io.File;
-import java.io.PrintStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.security.SecureRandom;
 import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
 
 import app_manager.model.application.Application;
 
 /**
- * Writes a list of Applications to file.
- * 
+ * Writes a list of Applications to file. The encoded record of each
+ * Application, which it keeps until it is updated, is copied into one reusable
+ * buffer and written through a FileChannel to a temporary file next to the
+ * target, which is synced to disk and then renamed over the target. A failed
+ * save leaves the previous contents of the file in place. Files named with the
+ * binary extension, or replacing a binary file, are written in the binary
+ * format instead, and files named with the compressed extension, or replacing
+ * a compressed file, are written gzip compressed. A text file whose list has
+ * used ids above the greatest one written ends with a line "*#" followed by the
+ * high-water mark, so deleted ids are not given out again once it is loaded.
+ *
  * @author Christine Weld
  */
 public class AppWriter {
 
+	/** Size of the buffer records are encoded into before being written */
+	static final int BUFFER_SIZE = 256 * 1024;
+	/** Source of temporary file names */
+	private static final SecureRandom RANDOM = new SecureRandom();
+
 	/**
 	 * Writes the given list of Applications to file.
-	 * 
+	 *
 	 * @param fileName file to write schedule of Applications to
 	 * @param appList  list of Applications to write
 	 * @throws IllegalArgumentException "Unable to save file." if cannot write to
 	 *                                  file
 	 */
 	public static void writeAppsToFile(String fileName, List<Application> appList) {
+		writeAppsToFile(fileName, appList, 0);
+	}
+
+	/**
+	 * Writes the given list of Applications to file with the greatest id the list
+	 * has used. The binary format saves the high-water mark in its trailer, and a
+	 * text file ends with a "*#" record holding it if it is greater than the
+	 * greatest id written.
+	 *
+	 * @param fileName      file to write schedule of Applications to
+	 * @param appList       list of Applications to write
+	 * @param highWaterMark greatest id the list has used
+	 * @throws IllegalArgumentException "Unable to save file." if cannot write to
+	 *                                  file
+	 */
+	public static void writeAppsToFile(String fileName, List<Application> appList, int highWaterMark) {
+		if (AppBinaryFormat.isBinaryFileName(fileName) || AppBinaryFormat.isBinaryFile(fileName)) {
+			AppBinaryFormat.writeAppsToFile(fileName, appList, highWaterMark);
+			return;
+		}
+		if (AppCompression.isCompressedFileName(fileName) || AppCompression.isCompressedFile(fileName)) {
+			writeCompressedAppsToFile(fileName, appList, highWaterMark, AppCompression.DEFAULT_LEVEL,
+					AppCompression.DEFAULT_BUFFER_SIZE);
+			return;
+		}
+		writeAtomically(fileName, channel -> writeApps(channel, appList, highWaterMark));
+	}
+
+	/**
+	 * Writes the given list of Applications to file as gzip compressed text.
+	 *
+	 * @param fileName   file to write schedule of Applications to
+	 * @param appList    list of Applications to write
+	 * @param level      compression level, from 0 for none to 9 for the smallest
+	 *                   file, or -1 for the default
+	 * @param bufferSize size of the buffer compressed bytes are written from
+	 * @throws IllegalArgumentException if the level or buffer size is invalid, or
+	 *                                  "Unable to save file." if cannot write to
+	 *                                  file
+	 */
+	public static void writeCompressedAppsToFile(String fileName, List<Application> appList, int level,
+			int bufferSize) {
+		writeCompressedAppsToFile(fileName, appList, 0, level, bufferSize);
+	}
+
+	/**
+	 * Writes the given list of Applications to file as gzip compressed text with
+	 * the greatest id the list has used.
+	 *
+	 * @param fileName      file to write schedule of Applications to
+	 * @param appList       list of Applications to write
+	 * @param highWaterMark greatest id the list has used
+	 * @param level         compression level, from 0 for none to 9 for the
+	 *                      smallest file, or -1 for the default
+	 * @param bufferSize    size of the buffer compressed bytes are written from
+	 * @throws IllegalArgumentException if the level or buffer size is invalid, or
+	 *                                  "Unable to save file." if cannot write to
+	 *                                  file
+	 */
+	private static void writeCompressedAppsToFile(String fileName, List<Application> appList, int highWaterMark,
+			int level, int bufferSize) {
+		if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION || bufferSize < 1) {
+			throw new IllegalArgumentException();
+		}
+		writeAtomically(fileName, channel -> {
+			GZIPOutputStream out = AppCompression.newCompressedStream(channel, level, bufferSize);
+			writeApps(Channels.newChannel(out), appList, highWaterMark);
+			out.finish();
+		});
+	}
+
+	/**
+	 * Writes a file by handing a channel over a temporary file to the given
+	 * writer, syncing the temporary file to disk, renaming it over the target and
+	 * syncing the directory so the rename itself survives a crash. The temporary
+	 * file is created with the permissions of a new file, and takes the
+	 * permissions of the target if it already exists, so a save does not change
+	 * who can read the file.
+	 *
+	 * @param fileName file to write
+	 * @param writer   writes the contents of the file to the channel
+	 * @throws IllegalArgumentException "Unable to save file." if cannot write to
+	 *                                  file
+	 */
+	static void writeAtomically(String fileName, ChannelWriter writer) {
 		try {
-			PrintStream fileWriter = new PrintStream(new File(fileName));
-			for (int i = 0; i < appList.size(); i++) {
-				fileWriter.print(appList.get(i).toString());
+			Path target = Paths.get(fileName).toAbsolutePath();
+			Path temp = createTemp(target);
+			try {
+				copyPermissions(target, temp);
+				try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+					writer.write(channel);
+					channel.force(true);
+				}
+				replace(temp, target);
+				syncDirectory(target.getParent());
+			} finally {
+				Files.deleteIfExists(temp);
 			}
-			fileWriter.close();
 		} catch (Exception e) {
 			throw new IllegalArgumentException("Unable to save file.");
 		}
 	}
 
+	/**
+	 * Writes the contents of a file to a channel.
+	 */
+	interface ChannelWriter {
+
+		/**
+		 * Writes the contents of the file to the given channel.
+		 *
+		 * @param channel channel to write to
+		 * @throws IOException if the channel cannot be written
+		 */
+		void write(FileChannel channel) throws IOException;
+	}
+
+	/**
+	 * Copies the encoded records of the given Applications into a single buffer,
+	 * writing the buffer to the channel each time it fills up. A record larger than
+	 * the buffer is written to the channel directly. The high-water mark is
+	 * written last if it is greater than every id written.
+	 *
+	 * @param channel       channel to write to
+	 * @param appList       list of Applications to write
+	 * @param highWaterMark greatest id the list has used
+	 * @throws IOException if the channel cannot be written
+	 */
+	private static void writeApps(WritableByteChannel channel, List<Application> appList, int highWaterMark)
+			throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		int greatestId = 0;
+
+		for (int i = 0; i < appList.size(); i++) {
+			greatestId = Math.max(greatestId, appList.get(i).getAppId());
+			ByteBuffer record = appList.get(i).getEncoded();
+			if (record.remaining() > buffer.remaining()) {
+				drain(channel, buffer);
+				if (record.remaining() > buffer.capacity()) {
+					while (record.hasRemaining()) {
+						channel.write(record);
+					}
+					continue;
+				}
+			}
+			buffer.put(record);
+		}
+		if (highWaterMark > greatestId) {
+			if (buffer.remaining() < 16) {
+				drain(channel, buffer);
+			}
+			buffer.put(("*#" + highWaterMark + "\n").getBytes(StandardCharsets.US_ASCII));
+		}
+		drain(channel, buffer);
+	}
+
+	/**
+	 * Writes everything in the buffer to the channel and clears the buffer.
+	 *
+	 * @param channel channel to write to
+	 * @param buffer  buffer of encoded records
+	 * @throws IOException if the channel cannot be written
+	 */
+	static void drain(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * Creates an empty temporary file next to the target. Files.createTempFile()
+	 * is not used as it makes the file readable by its owner only.
+	 *
+	 * @param target file the temporary file will replace
+	 * @return the temporary file
+	 * @throws IOException if no temporary file can be created
+	 */
+	private static Path createTemp(Path target) throws IOException {
+		String prefix = "." + target.getFileName() + ".";
+		while (true) {
+			Path temp = target.resolveSibling(prefix + Long.toHexString(RANDOM.nextLong()) + ".tmp");
+			try {
+				return Files.createFile(temp);
+			} catch (FileAlreadyExistsException e) {
+				// Try another name
+			}
+		}
+	}
+
+	/**
+	 * Gives the temporary file the permissions of the target, if the target exists
+	 * and the file system has POSIX permissions.
+	 *
+	 * @param target file the temporary file will replace
+	 * @param temp   temporary file
+	 * @throws IOException if the permissions cannot be read or set
+	 */
+	private static void copyPermissions(Path target, Path temp) throws IOException {
+		if (Files.exists(target) && Files.getFileStore(temp).supportsFileAttributeView(PosixFileAttributeView.class)) {
+			Files.setPosixFilePermissions(temp, Files.getPosixFilePermissions(target));
+		}
+	}
+
+	/**
+	 * Syncs a directory to disk, so a file renamed into it is still there after a
+	 * crash. File systems that cannot open a directory, such as on Windows, do
+	 * not need it and are skipped.
+	 *
+	 * @param dir directory to sync
+	 */
+	private static void syncDirectory(Path dir) {
+		try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+			channel.force(true);
+		} catch (IOException e) {
+			// The directory cannot be opened or synced on this platform
+		}
+	}
+
+	/**
+	 * Renames the temporary file over the target, atomically where the file system
+	 * supports it.
+	 *
+	 * @param temp   fully written temporary file
+	 * @param target file to replace
+	 * @throws IOException if the file cannot be renamed
+	 */
+	private static void replace(Path temp, Path target) throws IOException {
+		try {
+			Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
 }
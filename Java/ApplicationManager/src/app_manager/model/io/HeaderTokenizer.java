@@ -0,0 +1,133 @@
+package app_manager.model.io;
+
+/**
+ * Splits the comma separated header line of an Application record into fields
+ * by moving a cursor over its characters. Numbers and booleans are parsed in
+ * place, and fields with a fixed set of values are matched against their String
+ * constants so that no new String is created for them. Fields are returned the
+ * same way a Scanner with a "," delimiter would return them: empty fields
+ * between two commas are returned, but a trailing comma does not start a new
+ * field.
+ *
+ * @author Christine Weld
+ */
+class HeaderTokenizer {
+
+	/** Header line being split */
+	private final String line;
+	/** Index of the first character of the next field */
+	private int pos;
+	/** Index of the first character of the current field */
+	private int start;
+	/** Index one past the last character of the current field */
+	private int end;
+
+	/**
+	 * Constructs a HeaderTokenizer over the given line.
+	 *
+	 * @param line header line to split
+	 */
+	HeaderTokenizer(String line) {
+		this.line = line;
+	}
+
+	/**
+	 * Returns true if there is another field in the line.
+	 *
+	 * @return true if there is another field
+	 */
+	boolean hasNext() {
+		return pos < line.length();
+	}
+
+	/**
+	 * Moves the cursor over the next field.
+	 *
+	 * @throws IllegalArgumentException if there are no more fields
+	 */
+	private void advance() {
+		if (!hasNext()) {
+			throw new IllegalArgumentException();
+		}
+		start = pos;
+		int comma = line.indexOf(',', pos);
+		if (comma < 0) {
+			end = line.length();
+			pos = end;
+		} else {
+			end = comma;
+			pos = comma + 1;
+		}
+	}
+
+	/**
+	 * Parses the next field as a decimal int, accepting the same input as
+	 * Integer.parseInt().
+	 *
+	 * @return the value of the next field
+	 * @throws IllegalArgumentException if there are no more fields or the field is
+	 *                                  not a valid int
+	 */
+	int nextInt() {
+		advance();
+		int i = start;
+		boolean negative = false;
+		if (i < end && (line.charAt(i) == '-' || line.charAt(i) == '+')) {
+			negative = line.charAt(i) == '-';
+			i++;
+		}
+		if (i == end) {
+			throw new NumberFormatException();
+		}
+		long value = 0;
+		for (; i < end; i++) {
+			int digit = line.charAt(i) - '0';
+			if (digit < 0 || digit > 9) {
+				throw new NumberFormatException();
+			}
+			value = value * 10 + digit;
+			if (value > (long) Integer.MAX_VALUE + 1) {
+				throw new NumberFormatException();
+			}
+		}
+		value = negative ? -value : value;
+		if (value > Integer.MAX_VALUE) {
+			throw new NumberFormatException();
+		}
+		return (int) value;
+	}
+
+	/**
+	 * Parses the next field as a boolean, which is true only if the field is
+	 * "true" ignoring case.
+	 *
+	 * @return the value of the next field
+	 * @throws IllegalArgumentException if there are no more fields
+	 */
+	boolean nextBoolean() {
+		advance();
+		return end - start == 4 && line.regionMatches(true, start, "true", 0, 4);
+	}
+
+	/**
+	 * Returns the next field. If the field equals one of the given constants, the
+	 * constant itself is returned instead of a new String.
+	 *
+	 * @param constants expected values of the field
+	 * @return the next field
+	 * @throws IllegalArgumentException if there are no more fields
+	 */
+	String next(String... constants) {
+		advance();
+		int length = end - start;
+		if (length == 0) {
+			return "";
+		}
+		for (String constant : constants) {
+			if (constant.length() == length && line.startsWith(constant, start)) {
+				return constant;
+			}
+		}
+		return line.substring(start, end);
+	}
+}
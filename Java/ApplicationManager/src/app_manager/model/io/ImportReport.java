@@ -0,0 +1,161 @@
+package app_manager.model.io;
+
+import java.util.ArrayList;
+
+import app_manager.model.application.Application;
+
+/**
+ * Result of a lenient import of an application file. Holds every Application
+ * that could be read and, for every record that could not, where the record
+ * starts in the file and why it was skipped, along with the high-water mark
+ * of the file.
+ *
+ * @author Christine Weld
+ */
+public class ImportReport {
+
+	/** Applications read from the file, in file order */
+	private final ArrayList<Application> apps;
+	/** Records that were skipped, in file order */
+	private final ArrayList<RecordError> errors;
+	/** Greatest id the file has used, counting its saved high-water mark */
+	private int highWaterMark;
+
+	/**
+	 * Constructs an empty ImportReport.
+	 */
+	public ImportReport() {
+		this.apps = new ArrayList<Application>();
+		this.errors = new ArrayList<RecordError>();
+	}
+
+	/**
+	 * Returns the Applications read from the file.
+	 *
+	 * @return list of valid Applications
+	 */
+	public ArrayList<Application> getApps() {
+		return apps;
+	}
+
+	/**
+	 * Returns the records that were skipped.
+	 *
+	 * @return list of errors, one per skipped record
+	 */
+	public ArrayList<RecordError> getErrors() {
+		return errors;
+	}
+
+	/**
+	 * Returns true if any record was skipped.
+	 *
+	 * @return true if there are errors
+	 */
+	public boolean hasErrors() {
+		return !errors.isEmpty();
+	}
+
+	/**
+	 * Returns the greatest id the file has used: the high-water mark saved in the
+	 * file, or the greatest id read from it if that is greater.
+	 *
+	 * @return the high-water mark of the file, or 0 if it has none
+	 */
+	public int getHighWaterMark() {
+		return highWaterMark;
+	}
+
+	/**
+	 * Sets the high-water mark of the file.
+	 *
+	 * @param highWaterMark greatest id the file has used
+	 */
+	void setHighWaterMark(int highWaterMark) {
+		this.highWaterMark = highWaterMark;
+	}
+
+	/**
+	 * Adds an Application read from the file.
+	 *
+	 * @param app valid Application
+	 */
+	void addApp(Application app) {
+		apps.add(app);
+	}
+
+	/**
+	 * Adds a skipped record.
+	 *
+	 * @param lineNumber line the record starts on, counting from 1
+	 * @param offset     byte offset of the start of the record
+	 * @param reason     why the record was skipped
+	 */
+	void addError(int lineNumber, long offset, String reason) {
+		errors.add(new RecordError(lineNumber, offset, reason));
+	}
+
+	/**
+	 * A record of an application file that could not be read.
+	 */
+	public static class RecordError {
+
+		/** Line the record starts on, counting from 1 */
+		private final int lineNumber;
+		/** Byte offset of the start of the record */
+		private final long offset;
+		/** Why the record was skipped */
+		private final String reason;
+
+		/**
+		 * Constructs a RecordError.
+		 *
+		 * @param lineNumber line the record starts on, counting from 1
+		 * @param offset     byte offset of the start of the record
+		 * @param reason     why the record was skipped
+		 */
+		RecordError(int lineNumber, long offset, String reason) {
+			this.lineNumber = lineNumber;
+			this.offset = offset;
+			this.reason = reason;
+		}
+
+		/**
+		 * Returns the line the record starts on.
+		 *
+		 * @return line number, counting from 1
+		 */
+		public int getLineNumber() {
+			return lineNumber;
+		}
+
+		/**
+		 * Returns the byte offset of the start of the record. For a compressed file
+		 * this is the offset in the uncompressed text.
+		 *
+		 * @return byte offset of the record
+		 */
+		public long getOffset() {
+			return offset;
+		}
+
+		/**
+		 * Returns why the record was skipped.
+		 *
+		 * @return the reason
+		 */
+		public String getReason() {
+			return reason;
+		}
+
+		/**
+		 * Returns the error as "line N (offset X): reason".
+		 *
+		 * @return String form of the error
+		 */
+		@Override
+		public String toString() {
+			return "line " + lineNumber + " (offset " + offset + "): " + reason;
+		}
+	}
+}
@@ -0,0 +1,234 @@
+package app_manager.model.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads UTF-8 text one line at a time from a channel through a single reusable
+ * byte buffer. The current line is exposed as a range of the buffer so callers
+ * can inspect it without creating a String, and the reader keeps track of the
+ * line number and byte offset of the line within the stream. Memory use is
+ * bounded by the length of the longest line in the stream.
+ *
+ * @author Christine Weld
+ */
+class LineReader implements Closeable {
+
+	/** Default size of the read buffer in bytes */
+	static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+	/** Channel the lines are read from */
+	private final ReadableByteChannel channel;
+	/** Buffer of bytes read from the channel */
+	private byte[] bytes;
+	/** Index of the first byte in the buffer not yet returned as a line */
+	private int pos;
+	/** Index one past the last valid byte in the buffer */
+	private int limit;
+	/** Index the search for the next line terminator resumes from */
+	private int scanFrom;
+	/** True once the channel has no more bytes to read */
+	private boolean eof;
+	/** Stream offset of the first byte in the buffer */
+	private long bufferOffset;
+	/** Index of the first byte of the current line */
+	private int lineStart;
+	/** Index one past the last byte of the current line, excluding terminator */
+	private int lineEnd;
+	/** Stream offset of the first byte of the current line */
+	private long lineOffset;
+	/** One-based number of the current line, or 0 before the first line */
+	private int lineNumber;
+
+	/**
+	 * Constructs a LineReader over the given channel with the default buffer size.
+	 *
+	 * @param channel channel to read lines from
+	 */
+	LineReader(ReadableByteChannel channel) {
+		this(channel, DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	 * Constructs a LineReader over the given channel.
+	 *
+	 * @param channel    channel to read lines from
+	 * @param bufferSize initial size of the read buffer in bytes
+	 * @throws IllegalArgumentException if bufferSize is less than 1
+	 */
+	LineReader(ReadableByteChannel channel, int bufferSize) {
+		if (bufferSize < 1) {
+			throw new IllegalArgumentException();
+		}
+		this.channel = channel;
+		this.bytes = new byte[bufferSize];
+	}
+
+	/**
+	 * Advances to the next line. A line ends at "\n" or "\r\n", or at the end of
+	 * the stream.
+	 *
+	 * @return true if a line was read, false at the end of the stream
+	 * @throws IOException if the channel cannot be read
+	 */
+	boolean nextLine() throws IOException {
+		while (true) {
+			for (int i = scanFrom; i < limit; i++) {
+				if (bytes[i] == '\n') {
+					setLine(i);
+					pos = i + 1;
+					scanFrom = pos;
+					return true;
+				}
+			}
+			scanFrom = limit;
+			if (eof) {
+				if (pos < limit) {
+					setLine(limit);
+					pos = limit;
+					return true;
+				}
+				return false;
+			}
+			fill();
+		}
+	}
+
+	/**
+	 * Marks the bytes from pos up to the given terminator index as the current
+	 * line, dropping a trailing carriage return.
+	 *
+	 * @param end index of the line terminator
+	 */
+	private void setLine(int end) {
+		lineStart = pos;
+		lineEnd = end;
+		if (lineEnd > lineStart && bytes[lineEnd - 1] == '\r') {
+			lineEnd--;
+		}
+		lineOffset = bufferOffset + pos;
+		lineNumber++;
+	}
+
+	/**
+	 * Moves unread bytes to the front of the buffer, grows the buffer if a single
+	 * line fills it, and reads more bytes from the channel.
+	 *
+	 * @throws IOException if the channel cannot be read
+	 */
+	private void fill() throws IOException {
+		if (pos > 0) {
+			System.arraycopy(bytes, pos, bytes, 0, limit - pos);
+			bufferOffset += pos;
+			limit -= pos;
+			scanFrom -= pos;
+			pos = 0;
+		}
+		if (limit == bytes.length) {
+			byte[] grown = new byte[bytes.length * 2];
+			System.arraycopy(bytes, 0, grown, 0, limit);
+			bytes = grown;
+		}
+		int read = channel.read(ByteBuffer.wrap(bytes, limit, bytes.length - limit));
+		if (read < 0) {
+			eof = true;
+		} else {
+			limit += read;
+		}
+	}
+
+	/**
+	 * Returns the buffer holding the current line. The buffer is only valid until
+	 * the next call to nextLine().
+	 *
+	 * @return the buffer holding the current line
+	 */
+	byte[] buffer() {
+		return bytes;
+	}
+
+	/**
+	 * Returns the index of the first byte of the current line in the buffer.
+	 *
+	 * @return the start index of the current line
+	 */
+	int lineStart() {
+		return lineStart;
+	}
+
+	/**
+	 * Returns the index one past the last byte of the current line in the buffer.
+	 *
+	 * @return the end index of the current line
+	 */
+	int lineEnd() {
+		return lineEnd;
+	}
+
+	/**
+	 * Returns the one-based number of the current line.
+	 *
+	 * @return the current line number
+	 */
+	int lineNumber() {
+		return lineNumber;
+	}
+
+	/**
+	 * Returns the byte offset of the start of the current line in the stream.
+	 *
+	 * @return the byte offset of the current line
+	 */
+	long lineOffset() {
+		return lineOffset;
+	}
+
+	/**
+	 * Returns true if the current line starts with the given character.
+	 *
+	 * @param c ASCII character to check for
+	 * @return true if the current line starts with c
+	 */
+	boolean startsWith(char c) {
+		return lineEnd > lineStart && bytes[lineStart] == c;
+	}
+
+	/**
+	 * Returns true if the current line is empty or only contains whitespace.
+	 *
+	 * @return true if the current line is blank
+	 */
+	boolean isBlank() {
+		for (int i = lineStart; i < lineEnd; i++) {
+			byte b = bytes[i];
+			if (b != ' ' && b != '\t' && b != '\r' && b != '\f' && b != 0x0B) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Decodes the current line as a String, skipping the given number of leading
+	 * bytes.
+	 *
+	 * @param skip number of bytes to skip at the start of the line
+	 * @return the rest of the current line
+	 */
+	String lineString(int skip) {
+		return new String(bytes, lineStart + skip, lineEnd - lineStart - skip, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Closes the underlying channel.
+	 *
+	 * @throws IOException if the channel cannot be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+}
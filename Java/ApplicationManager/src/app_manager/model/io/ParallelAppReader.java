@@ -0,0 +1,263 @@
+package app_manager.model.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import app_manager.model.application.Application;
+
+/**
+ * Reads Application records from a large file in parallel. The file is split
+ * into chunks that each start at a line beginning with "*", every chunk is
+ * memory mapped and parsed on a ForkJoin pool of its own, and the results are
+ * joined back together in file order. The pool is not the common pool, since
+ * mapping chunks blocks on I/O and would hold up unrelated parallel work, and
+ * it is shut down once the file has been read. The resulting list is the same as the one
+ * returned by AppReader.readAppsFromFile().
+ *
+ * @author Christine Weld
+ */
+class ParallelAppReader {
+
+	/** Smallest chunk worth parsing on its own task, in bytes */
+	static final int MIN_CHUNK_SIZE = 1024 * 1024;
+	/** Largest chunk mapped at once, in bytes */
+	static final int MAX_CHUNK_SIZE = 64 * 1024 * 1024;
+	/** Size of the window read while searching for a record boundary */
+	private static final int SCAN_SIZE = 8 * 1024;
+
+	/**
+	 * Reads Application records from the given file in parallel, sizing the
+	 * chunks from the file size and the number of available processors.
+	 *
+	 * @param fileName file to read Application records from
+	 * @return a list of valid Applications in file order
+	 * @throws IllegalArgumentException "Unable to load file." if the file cannot be
+	 *                                  found or read, or a record is invalid
+	 */
+	static ArrayList<Application> read(String fileName) {
+		try (FileChannel channel = FileChannel.open(Paths.get(fileName))) {
+			long perTask = channel.size() / (Runtime.getRuntime().availableProcessors() * 4L);
+			int chunkSize = (int) Math.min(MAX_CHUNK_SIZE, Math.max(MIN_CHUNK_SIZE, perTask));
+			return read(channel, chunkSize);
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		}
+	}
+
+	/**
+	 * Reads Application records from the given channel in parallel using chunks
+	 * of roughly the given size, on a pool with a thread per available processor
+	 * or per chunk, whichever is fewer.
+	 *
+	 * @param channel   channel of the file to read
+	 * @param chunkSize target size of each chunk in bytes
+	 * @return a list of valid Applications in file order
+	 * @throws IOException              if the file cannot be read
+	 * @throws IllegalArgumentException "Unable to load file." if a record is
+	 *                                  invalid
+	 */
+	static ArrayList<Application> read(FileChannel channel, int chunkSize) throws IOException {
+		long[] bounds = findChunkBounds(channel, chunkSize);
+		int parallelism = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), bounds.length - 1));
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			return pool.invoke(new ChunkTask(channel, bounds, 0, bounds.length - 1));
+		} catch (RuntimeException e) {
+			throw new IllegalArgumentException("Unable to load file.");
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Splits the file into chunks of roughly the given size, moving each split
+	 * forward to the next line that starts with "*".
+	 *
+	 * @param channel   channel of the file to split
+	 * @param chunkSize target size of each chunk in bytes
+	 * @return offsets of the chunk boundaries, starting at 0 and ending at the
+	 *         file size
+	 * @throws IOException if the file cannot be read
+	 */
+	static long[] findChunkBounds(FileChannel channel, int chunkSize) throws IOException {
+		long size = channel.size();
+		long[] bounds = new long[(int) (size / chunkSize) + 2];
+		int count = 1;
+		ByteBuffer window = ByteBuffer.allocate(SCAN_SIZE);
+
+		long from = chunkSize;
+		while (from < size) {
+			long boundary = nextRecordStart(channel, from, window);
+			if (boundary < 0) {
+				break;
+			}
+			bounds[count++] = boundary;
+			from = boundary + chunkSize;
+		}
+		bounds[count++] = size;
+
+		long[] trimmed = new long[count];
+		System.arraycopy(bounds, 0, trimmed, 0, count);
+		return trimmed;
+	}
+
+	/**
+	 * Returns the offset of the first "*" that follows a "\n" at or after the given
+	 * offset.
+	 *
+	 * @param channel channel of the file to search
+	 * @param from    offset to start searching from
+	 * @param window  reusable buffer for reading the file
+	 * @return offset of the next record start, or -1 if there is none
+	 * @throws IOException if the file cannot be read
+	 */
+	private static long nextRecordStart(FileChannel channel, long from, ByteBuffer window) throws IOException {
+		long position = from - 1;
+		byte previous = 0;
+		while (true) {
+			window.clear();
+			int read = channel.read(window, position);
+			if (read <= 0) {
+				return -1;
+			}
+			for (int i = 0; i < read; i++) {
+				byte b = window.get(i);
+				if (b == '*' && previous == '\n' && position + i >= from) {
+					return position + i;
+				}
+				previous = b;
+			}
+			position += read;
+		}
+	}
+
+	/**
+	 * Parses a range of chunks, splitting the range in half until a single chunk
+	 * is left, and joins the results in file order.
+	 */
+	private static class ChunkTask extends RecursiveTask<ArrayList<Application>> {
+
+		/** Serial version UID */
+		private static final long serialVersionUID = 1L;
+		/** Channel of the file being read */
+		private final transient FileChannel channel;
+		/** Offsets of the chunk boundaries */
+		private final long[] bounds;
+		/** Index of the first chunk to parse */
+		private final int lo;
+		/** Index one past the last chunk to parse */
+		private final int hi;
+
+		/**
+		 * Constructs a task to parse chunks lo to hi.
+		 *
+		 * @param channel channel of the file being read
+		 * @param bounds  offsets of the chunk boundaries
+		 * @param lo      index of the first chunk to parse
+		 * @param hi      index one past the last chunk to parse
+		 */
+		ChunkTask(FileChannel channel, long[] bounds, int lo, int hi) {
+			this.channel = channel;
+			this.bounds = bounds;
+			this.lo = lo;
+			this.hi = hi;
+		}
+
+		/**
+		 * Parses the chunks of this task.
+		 *
+		 * @return the Applications in the chunks, in file order
+		 */
+		@Override
+		protected ArrayList<Application> compute() {
+			if (hi - lo > 1) {
+				int mid = (lo + hi) >>> 1;
+				ChunkTask left = new ChunkTask(channel, bounds, lo, mid);
+				left.fork();
+				ArrayList<Application> right = new ChunkTask(channel, bounds, mid, hi).compute();
+				ArrayList<Application> apps = left.join();
+				apps.addAll(right);
+				return apps;
+			}
+
+			ArrayList<Application> apps = new ArrayList<Application>();
+			if (hi == lo) {
+				return apps;
+			}
+			try {
+				ByteBuffer chunk = channel.map(MapMode.READ_ONLY, bounds[lo], bounds[hi] - bounds[lo]);
+				AppIterator it = new AppIterator(new LineReader(new BufferChannel(chunk)));
+				while (it.hasNext()) {
+					apps.add(it.next());
+				}
+			} catch (IOException e) {
+				throw new IllegalArgumentException("Unable to load file.");
+			}
+			return apps;
+		}
+	}
+
+	/**
+	 * Read-only channel over the remaining bytes of a ByteBuffer.
+	 */
+	private static class BufferChannel implements ReadableByteChannel {
+
+		/** Buffer the bytes are read from */
+		private final ByteBuffer source;
+		/** True once the channel has been closed */
+		private boolean closed;
+
+		/**
+		 * Constructs a channel over the given buffer.
+		 *
+		 * @param source buffer to read bytes from
+		 */
+		BufferChannel(ByteBuffer source) {
+			this.source = source;
+		}
+
+		/**
+		 * Copies as many bytes as fit from the source buffer into dst.
+		 *
+		 * @param dst buffer to copy bytes into
+		 * @return the number of bytes copied, or -1 if the source is exhausted
+		 */
+		@Override
+		public int read(ByteBuffer dst) {
+			if (!source.hasRemaining()) {
+				return -1;
+			}
+			int n = Math.min(dst.remaining(), source.remaining());
+			ByteBuffer slice = source.slice();
+			slice.limit(n);
+			dst.put(slice);
+			source.position(source.position() + n);
+			return n;
+		}
+
+		/**
+		 * Returns true until the channel is closed.
+		 *
+		 * @return true if the channel is open
+		 */
+		@Override
+		public boolean isOpen() {
+			return !closed;
+		}
+
+		/**
+		 * Closes the channel.
+		 */
+		@Override
+		public void close() {
+			closed = true;
+		}
+	}
+}
@@ -0,0 +1,102 @@
+package app_manager.model.manager;
+
+/**
+ * Change to an AppList, sent to its AppListeners. Each event names the kind of
+ * change and the ids of the applications it affects, which is a single id
+ * except for the one UPDATED event sent for a batch of commands.
+ *
+ * @author Christine Weld
+ */
+public class AppChangeEvent {
+
+	/**
+	 * Kinds of change.
+	 */
+	public enum Type {
+		/** An application was added to the list */
+		ADDED,
+		/** An application in the list was updated by a command */
+		UPDATED,
+		/** An application was removed from the list */
+		REMOVED,
+		/** The whole list was replaced, so every row may have changed */
+		REPLACED
+	}
+
+	/** Kind of change */
+	private final Type type;
+	/** Ids of the applications changed, or just 0 if the whole list was replaced */
+	private final int[] appIds;
+
+	/**
+	 * Constructs an AppChangeEvent.
+	 *
+	 * @param type  kind of change
+	 * @param appId id of the application changed, or 0 if the whole list was
+	 *              replaced
+	 */
+	public AppChangeEvent(Type type, int appId) {
+		this.type = type;
+		this.appIds = new int[] { appId };
+	}
+
+	/**
+	 * Constructs an AppChangeEvent for several applications.
+	 *
+	 * @param type   kind of change
+	 * @param appIds ids of the applications changed, which are not changed
+	 *               afterwards
+	 * @throws IllegalArgumentException if appIds is null or empty
+	 */
+	public AppChangeEvent(Type type, int[] appIds) {
+		if (appIds == null || appIds.length == 0) {
+			throw new IllegalArgumentException();
+		}
+		this.type = type;
+		this.appIds = appIds;
+	}
+
+	/**
+	 * Returns the kind of change.
+	 *
+	 * @return the type of the event
+	 */
+	public Type getType() {
+		return type;
+	}
+
+	/**
+	 * Returns the id of the application changed, or the first one if the event is
+	 * for several applications.
+	 *
+	 * @return the application id, or 0 if the whole list was replaced
+	 */
+	public int getAppId() {
+		return appIds[0];
+	}
+
+	/**
+	 * Returns the ids of the applications changed.
+	 *
+	 * @return copy of the application ids, or just 0 if the whole list was
+	 *         replaced
+	 */
+	public int[] getAppIds() {
+		return appIds.clone();
+	}
+
+	/**
+	 * Returns the event as its type and application ids, such as "UPDATED 3" or
+	 * "UPDATED 3,5".
+	 *
+	 * @return String form of the event
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder(type.toString()).append(' ').append(appIds[0]);
+		for (int i = 1; i < appIds.length; i++) {
+			sb.append(',').append(appIds[i]);
+		}
+		return sb.toString();
+	}
+}
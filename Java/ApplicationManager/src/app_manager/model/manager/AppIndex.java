@@ -0,0 +1,202 @@
+package app_manager.model.manager;
+
+import java.util.HashMap;
+
+import app_manager.model.application.Application;
+
+/**
+ * Secondary indexes of the Applications in an AppList by type, state, reviewer
+ * and processed paperwork. Each value of an attribute has a compressed bitmap of
+ * the ids of the Applications with that value, so the ids matching a value are
+ * found without looking at any other Application, and conditions on several
+ * attributes are combined with bitmap operations.
+ *
+ * @author Christine Weld
+ */
+class AppIndex {
+
+	/** Ids of the Applications of each type */
+	private final HashMap<String, IdBitmap> byType;
+	/** Ids of the Applications in each state */
+	private final HashMap<String, IdBitmap> byState;
+	/** Ids of the Applications of each reviewer, with null for no reviewer */
+	private final HashMap<String, IdBitmap> byReviewer;
+	/** Ids of the Applications whose paperwork has been processed */
+	private final IdBitmap processed;
+	/** Ids of all the Applications */
+	private final IdBitmap all;
+
+	/**
+	 * Constructs an empty AppIndex.
+	 */
+	AppIndex() {
+		byType = new HashMap<String, IdBitmap>();
+		byState = new HashMap<String, IdBitmap>();
+		byReviewer = new HashMap<String, IdBitmap>();
+		processed = new IdBitmap();
+		all = new IdBitmap();
+	}
+
+	/**
+	 * Adds an Application under its current type, state, reviewer and processed
+	 * paperwork.
+	 *
+	 * @param app Application to add
+	 */
+	void add(Application app) {
+		set(byType, app.getAppType(), app.getAppId());
+		set(byState, app.getStateName(), app.getAppId());
+		set(byReviewer, app.getReviewer(), app.getAppId());
+		if (app.isProcessed()) {
+			processed.add(app.getAppId());
+		}
+		all.add(app.getAppId());
+	}
+
+	/**
+	 * Removes an Application from under its current type, state, reviewer and
+	 * processed paperwork. Must be called before any of those change.
+	 *
+	 * @param app Application to remove
+	 */
+	void remove(Application app) {
+		remove(new Key(app));
+	}
+
+	/**
+	 * Removes an Application from under the type, state and reviewer it had when
+	 * the given Key was taken, and from the processed paperwork.
+	 *
+	 * @param key indexed values of the Application
+	 */
+	void remove(Key key) {
+		clear(byType, key.type, key.id);
+		clear(byState, key.state, key.id);
+		clear(byReviewer, key.reviewer, key.id);
+		processed.remove(key.id);
+		all.remove(key.id);
+	}
+
+	/**
+	 * Returns the ids of the Applications of the given type.
+	 *
+	 * @param type application type
+	 * @return bitmap of ids, which must not be changed
+	 */
+	IdBitmap idsByType(String type) {
+		return get(byType, type);
+	}
+
+	/**
+	 * Returns the ids of the Applications in the given state.
+	 *
+	 * @param state state name
+	 * @return bitmap of ids, which must not be changed
+	 */
+	IdBitmap idsByState(String state) {
+		return get(byState, state);
+	}
+
+	/**
+	 * Returns the ids of the Applications of the given reviewer.
+	 *
+	 * @param reviewer reviewer id, or null for Applications with no reviewer
+	 * @return bitmap of ids, which must not be changed
+	 */
+	IdBitmap idsByReviewer(String reviewer) {
+		return get(byReviewer, reviewer);
+	}
+
+	/**
+	 * Returns the ids of the Applications whose paperwork has been processed.
+	 *
+	 * @return bitmap of ids, which must not be changed
+	 */
+	IdBitmap processedIds() {
+		return processed;
+	}
+
+	/**
+	 * Returns the ids of all the Applications.
+	 *
+	 * @return bitmap of ids, which must not be changed
+	 */
+	IdBitmap allIds() {
+		return all;
+	}
+
+	/**
+	 * Indexed values of an Application at the time the Key is taken, so an
+	 * Application can be updated without holding the lock that guards its index
+	 * and then moved from its old values to its new ones.
+	 */
+	static class Key {
+
+		/** Application id */
+		private final int id;
+		/** Application type */
+		private final String type;
+		/** State name */
+		private final String state;
+		/** Reviewer id, or null for no reviewer */
+		private final String reviewer;
+
+		/**
+		 * Takes the indexed values of an Application.
+		 *
+		 * @param app Application to take the values of
+		 */
+		Key(Application app) {
+			this.id = app.getAppId();
+			this.type = app.getAppType();
+			this.state = app.getStateName();
+			this.reviewer = app.getReviewer();
+		}
+	}
+
+	/**
+	 * Adds an id to the bitmap of a value, creating the bitmap if needed.
+	 *
+	 * @param index index to change
+	 * @param value attribute value
+	 * @param id    application id
+	 */
+	private static void set(HashMap<String, IdBitmap> index, String value, int id) {
+		IdBitmap ids = index.get(value);
+		if (ids == null) {
+			ids = new IdBitmap();
+			index.put(value, ids);
+		}
+		ids.add(id);
+	}
+
+	/**
+	 * Removes an id from the bitmap of a value, dropping the bitmap once it is
+	 * empty.
+	 *
+	 * @param index index to change
+	 * @param value attribute value
+	 * @param id    application id
+	 */
+	private static void clear(HashMap<String, IdBitmap> index, String value, int id) {
+		IdBitmap ids = index.get(value);
+		if (ids != null) {
+			ids.remove(id);
+			if (ids.isEmpty()) {
+				index.remove(value);
+			}
+		}
+	}
+
+	/**
+	 * Returns the bitmap of a value, or an empty one if no Application has it.
+	 *
+	 * @param index index to read
+	 * @param value attribute value
+	 * @return bitmap of ids
+	 */
+	private static IdBitmap get(HashMap<String, IdBitmap> index, String value) {
+		IdBitmap ids = index.get(value);
+		return ids == null ? new IdBitmap() : ids;
+	}
+}
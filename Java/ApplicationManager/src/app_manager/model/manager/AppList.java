@@ -1,100 +1,342 @@
 package app_manager.model.manager;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
 
 import app_manager.model.application.Application;
 import app_manager.model.application.Application.AppType;
+import app_manager.model.application.Application.UpdateResult;
 import app_manager.model.command.Command;
 
 /**
- * Maintains a ArrayList of Applications with functionality to add and remove an
- * Application from the list, search for an Application, update an Application,
- * and return sublists.
+ * Maintains a sorted list of Applications with functionality to add and remove
+ * an Application from the list, search for an Application, update an
+ * Application, and return sublists. Keeps track of which Applications were
+ * added, updated or deleted so only those need to be saved. Applications are
+ * kept in a B+-tree ordered by id, so adding and removing one does not shift the
+ * rest, and in a hash map by id, so they are found without searching. Ids are
+ * also indexed by type, state, reviewer and processed paperwork, so a filtered
+ * list or an AppQuery costs only as much as the Applications in it.
+ * Applications in the list must only be updated through executeCommand() so
+ * that these indexes stay up to date.
+ * 
+ * An AppList may be used by several threads at once. The tree, the maps and the
+ * recorded changes are guarded by a StampedLock. A lookup by id is first read
+ * without locking and only retried under the read lock if a writer changed the
+ * list meanwhile, so lookups do not hold up writers. Filtered lists, ranges and
+ * queries walk the tree and the index, which a writer may leave half changed,
+ * so they are read under the read lock. Commands on an
+ * Application are serialized by a lock striped by id, and the Application is
+ * updated outside the list lock, so commands on different Applications run in
+ * parallel and only hold the list lock to move the Application in the index.
+ * Ids are handed out by an IdAllocator, so an id is never used twice, not even
+ * after the Application that had it is deleted.
+ * 
+ * Every change to the list or to an Application in it moves the list to a new
+ * version. snapshot() returns an immutable AppSnapshot of the rows of the list
+ * at its current version, rebuilding only the rows of Applications whose own
+ * version changed since the last snapshot.
+ * 
+ * AppListeners added to the list are told of every application added, updated
+ * or removed, and of the list being replaced by addApps(), once the change is
+ * done and the list is unlocked.
  * 
  * @author Christine Weld
  */
 public class AppList {
 
-	/** id for the next Application added to the list */
-	private int counter;
-	/** list of applications */
-	private ArrayList<Application> apps;
+	/** Number of locks that commands on Applications are striped over, a power of two */
+	private static final int STRIPES = 64;
+	/** Number of commands from which a batch runs its stripes in parallel */
+	private static final int PARALLEL_BATCH = 256;
+
+	/** hands out the ids of Applications added to the list */
+	private final IdAllocator ids;
+	/** guards the tree, maps, index and recorded changes */
+	private final StampedLock lock;
+	/** locks serializing commands on the Applications, by id */
+	private final ReentrantLock[] stripes;
+	/** applications of the list in id order */
+	private AppTree tree;
+	/** shared list of the applications in id order, or null if it must be rebuilt */
+	private volatile ArrayList<Application> apps;
+	/** number of changes made to the list, written under the write lock */
+	private volatile long version;
+	/** last snapshot taken of the list, or null if none has been */
+	private volatile AppSnapshot snapshot;
+	/** listeners told of changes to the list */
+	private final CopyOnWriteArrayList<AppListener> listeners;
+	/** applications of the list by id */
+	private IntAppMap byId;
+	/** ids of applications by type, state, reviewer and processed paperwork */
+	private AppIndex index;
+	/** ids of applications added or updated since changes were last cleared */
+	private LinkedHashSet<Integer> changedIds;
+	/** ids of applications deleted since changes were last cleared */
+	private LinkedHashSet<Integer> deletedIds;
 
 	/**
 	 * Constructor for AppList
 	 */
 	public AppList() {
-		apps = new ArrayList<Application>();
-		this.counter = 0;
+		tree = new AppTree();
+		byId = new IntAppMap();
+		index = new AppIndex();
+		changedIds = new LinkedHashSet<Integer>();
+		deletedIds = new LinkedHashSet<Integer>();
+		this.ids = new IdAllocator();
+		lock = new StampedLock();
+		listeners = new CopyOnWriteArrayList<AppListener>();
+		stripes = new ReentrantLock[STRIPES];
+		for (int i = 0; i < STRIPES; i++) {
+			stripes[i] = new ReentrantLock();
+		}
 	}
 
 	/**
 	 * Constructs an application from given fields, adds it to the list, and returns
-	 * the counter for the next application's id number.
+	 * the counter for the next application's id number. The application gets a new
+	 * id greater than any id the list has used.
 	 * 
 	 * @param appType application type
 	 * @param summary application summary
 	 * @param note    application note
-	 * @return id of the application added to the list
+	 * @return id of the next application to be added to the list
 	 */
 	public int addApp(AppType appType, String summary, String note) {
-		if (counter == 0) {
-			counter = 1;
+		while (true) {
+			Application app = new Application(ids.allocate(), appType, summary, note);
+			boolean added;
+			long stamp = lock.writeLock();
+			try {
+				// The id may already be taken if addApps() replaced the list since it was
+				// allocated, in which case the application gets another one
+				added = addApp(app);
+				if (added) {
+					markChanged(app.getAppId());
+				}
+			} finally {
+				lock.unlockWrite(stamp);
+			}
+			if (added) {
+				fire(AppChangeEvent.Type.ADDED, app.getAppId());
+				return ids.peek();
+			}
 		}
-		Application app = new Application(counter, appType, summary, note);
-		addApp(app);
-
-		return counter;
 	}
 
 	/**
-	 * Adds the given list of applications to this list in order by id.
+	 * Replaces the contents of this list with the given applications in order by
+	 * id. If several applications have the same id, the first one in the given
+	 * list is kept. The applications are sorted once, with a stable sort that is
+	 * linear on a list already in order, and the tree and its index are then
+	 * built in a single pass. Ids are allocated again after the greatest id in
+	 * the given list, unless it is empty.
 	 * 
 	 * @param list ArrayList of Applications to be added
 	 */
 	public void addApps(ArrayList<Application> list) {
-		apps = new ArrayList<Application>();
-		for (int i = 0; i < list.size(); i++) {
-			Application listApp = list.get(i);
-			addApp(listApp);
+		Application[] sorted = list.toArray(new Application[list.size()]);
+		Arrays.sort(sorted, (a, b) -> Integer.compare(a.getAppId(), b.getAppId()));
+
+		int count = 0;
+		IntAppMap sortedById = new IntAppMap(sorted.length);
+		AppIndex sortedIndex = new AppIndex();
+		for (int i = 0; i < sorted.length; i++) {
+			if (i == 0 || sorted[i].getAppId() != sorted[i - 1].getAppId()) {
+				sorted[count++] = sorted[i];
+				sortedById.put(sorted[i].getAppId(), sorted[i]);
+				sortedIndex.add(sorted[i]);
+			}
 		}
+		AppTree sortedTree = AppTree.build(sorted, count);
+
+		long stamp = lock.writeLock();
+		try {
+			byId = sortedById;
+			index = sortedIndex;
+			tree = sortedTree;
+			apps = null;
+			version++;
+			if (count > 0) {
+				ids.reset(tree.lastId());
+			}
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+		fire(AppChangeEvent.Type.REPLACED, 0);
 	}
 
 	/**
 	 * Adds an Application in sorted order to the list and checks for duplicates.
+	 * The caller must hold the write lock.
 	 * 
 	 * @param app application to be added
+	 * @return true if the application was added, or false if its id is taken
 	 */
-	private void addApp(Application app) {
-		boolean duplicate = false;
-		if (apps.size() > 0) {
-			for (int i = 0; i < apps.size(); i++) {
-				if (app.getAppId() == apps.get(i).getAppId()) {
-					duplicate = true;
+	private boolean addApp(Application app) {
+		if (tree.insert(app)) {
+			byId.put(app.getAppId(), app);
+			index.add(app);
+			apps = null;
+			version++;
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the greatest id the list has used, including ids of deleted
+	 * applications and ids reserved with reserveIds(). Saving it with the list
+	 * keeps ids from being used again once the list is loaded back.
+	 * 
+	 * @return the greatest id used, or 0 if none has been
+	 */
+	public int getHighWaterMark() {
+		return ids.highWaterMark();
+	}
+
+	/**
+	 * Makes sure no id up to the given one is given to an application added from
+	 * now on, for use with a high-water mark saved with the list.
+	 * 
+	 * @param highWaterMark greatest id that must not be used again
+	 */
+	public void reserveIds(int highWaterMark) {
+		ids.reserve(highWaterMark);
+	}
+
+	/**
+	 * Returns a new list of the applications in id order. Changing the list does
+	 * not change the AppList.
+	 * 
+	 * @return the list of applications
+	 */
+	public ArrayList<Application> getApps() {
+		return new ArrayList<Application>(apps());
+	}
+
+	/**
+	 * Returns the applications in id order. The list is built from the tree when
+	 * the applications have changed since it was last returned, and is shared by
+	 * every caller until then, so it must not be changed. A list returned while
+	 * other threads add or delete Applications stays as it was.
+	 * 
+	 * @return the shared list of applications
+	 */
+	private ArrayList<Application> apps() {
+		ArrayList<Application> list = apps;
+		if (list == null) {
+			long stamp = lock.readLock();
+			try {
+				list = apps;
+				if (list == null) {
+					list = new ArrayList<Application>(tree.size());
+					tree.appendTo(list);
+					apps = list;
 				}
+			} finally {
+				lock.unlockRead(stamp);
 			}
-			if (!duplicate) {
-				int sortIdx = 0;
-				for (int i = 0; i < apps.size(); i++) {
-					if (app.getAppId() > apps.get(i).getAppId()) {
-						sortIdx = i + 1;
-					}
+		}
+		return list;
+	}
+
+	/**
+	 * Returns an immutable snapshot of the rows of the list at its current
+	 * version. The previous snapshot is returned if nothing changed since it was
+	 * taken. Otherwise the rows of Applications that are the same and at the same
+	 * version as in the previous snapshot are shared with it, and only the other
+	 * rows are built, each while holding the lock of its Application so it is not
+	 * read halfway through an update.
+	 * 
+	 * @return snapshot of the rows of the list
+	 */
+	public AppSnapshot snapshot() {
+		AppSnapshot current = snapshot;
+		if (current != null && current.getVersion() == version) {
+			return current;
+		}
+		return takeSnapshot();
+	}
+
+	/**
+	 * Builds a snapshot of the list, sharing the unchanged rows of the previous
+	 * one. Snapshots are built one at a time.
+	 * 
+	 * @return snapshot of the rows of the list
+	 */
+	private synchronized AppSnapshot takeSnapshot() {
+		// Read the version first, so a change made while building gives a newer
+		// version and the next call builds again
+		long listVersion = version;
+		AppSnapshot previous = snapshot;
+		if (previous != null && previous.getVersion() == listVersion) {
+			return previous;
+		}
+		if (previous == null) {
+			previous = AppSnapshot.EMPTY;
+		}
+
+		ArrayList<Application> list = apps();
+		int n = list.size();
+		int[] ids = new int[n];
+		Application[] rowApps = new Application[n];
+		int[] appVersions = new int[n];
+		Object[][] rows = new Object[n][];
+		int p = 0;
+		for (int i = 0; i < n; i++) {
+			Application app = list.get(i);
+			int id = app.getAppId();
+			// Both lists are in id order, so the previous row is found by merging
+			while (p < previous.size() && previous.getIdAt(p) < id) {
+				p++;
+			}
+			ids[i] = id;
+			rowApps[i] = app;
+			if (p < previous.size() && previous.getAppAt(p) == app
+					&& previous.getAppVersionAt(p) == app.getVersion()) {
+				appVersions[i] = previous.getAppVersionAt(p);
+				rows[i] = previous.rowAt(p);
+			} else {
+				ReentrantLock stripe = stripeOf(id);
+				stripe.lock();
+				try {
+					appVersions[i] = app.getVersion();
+					rows[i] = AppSnapshot.rowOf(app);
+				} finally {
+					stripe.unlock();
 				}
-				apps.add(sortIdx, app);
 			}
-		} else {
-			apps.add(app);
 		}
-		counter = apps.get(apps.size() - 1).getAppId() + 1;
+		AppSnapshot next = new AppSnapshot(listVersion, ids, rowApps, appVersions, rows);
+		snapshot = next;
+		return next;
 	}
 
 	/**
-	 * Returns the list of applications
+	 * Returns the applications with ids from fromId, inclusive, to toId,
+	 * exclusive, in id order.
 	 * 
-	 * @return the list of applications
+	 * @param fromId least id to return
+	 * @param toId   id after the greatest id to return
+	 * @return list of applications in the range
 	 */
-	public ArrayList<Application> getApps() {
-		return apps;
+	public ArrayList<Application> getApps(int fromId, int toId) {
+		return read(() -> {
+			ArrayList<Application> range = new ArrayList<Application>();
+			tree.appendRange(fromId, toId, range);
+			return range;
+		});
 	}
 
 	/**
@@ -108,13 +350,113 @@ public class AppList {
 		if (type == null) {
 			throw new IllegalArgumentException();
 		}
-		ArrayList<Application> appsByType = new ArrayList<Application>();
-		for (int i = 0; i < apps.size(); i++) {
-			if (apps.get(i).getAppType().equals(type)) {
-				appsByType.add(apps.get(i));
+		return read(() -> appsOf(index.idsByType(type)));
+	}
+
+	/**
+	 * Returns a list of applications filtered by state
+	 * 
+	 * @param state state name to filter list
+	 * @return list of applications in the given state
+	 * @throws IllegalArgumentException if state is null
+	 */
+	public ArrayList<Application> getAppsByState(String state) {
+		if (state == null) {
+			throw new IllegalArgumentException();
+		}
+		return read(() -> appsOf(index.idsByState(state)));
+	}
+
+	/**
+	 * Returns a list of applications filtered by reviewer
+	 * 
+	 * @param reviewer reviewer id to filter list, or null for applications with no
+	 *                 reviewer
+	 * @return list of applications of the given reviewer
+	 */
+	public ArrayList<Application> getAppsByReviewer(String reviewer) {
+		return read(() -> appsOf(index.idsByReviewer(reviewer)));
+	}
+
+	/**
+	 * Runs a query over the applications of the list.
+	 * 
+	 * @param query query to run
+	 * @return the matching applications and the time the query took
+	 */
+	public QueryResult query(AppQuery query) {
+		return read(() -> {
+			long start = System.nanoTime();
+			int[] ids = query.evaluate(index).toArray();
+			long evaluated = System.nanoTime();
+			ArrayList<Application> list = appsOf(ids);
+			return new QueryResult(query, ids, list, evaluated - start, System.nanoTime() - evaluated);
+		});
+	}
+
+	/**
+	 * Runs a reader of the tree, maps or index under the read lock.
+	 * 
+	 * @param <T>    type of the result
+	 * @param reader reader to run, which must not change anything
+	 * @return the result of the reader
+	 */
+	private <T> T read(Supplier<T> reader) {
+		long stamp = lock.readLock();
+		try {
+			return reader.get();
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * Returns the application with the given id. The id is first looked up
+	 * without locking, which IntAppMap.get() allows, and the result kept if no
+	 * writer held the lock meanwhile. Otherwise it is looked up again under the
+	 * read lock.
+	 * 
+	 * @param id application id
+	 * @return the application, or null if there is none
+	 */
+	private Application lookup(int id) {
+		long stamp = lock.tryOptimisticRead();
+		if (stamp != 0) {
+			Application app = byId.get(id);
+			if (lock.validate(stamp)) {
+				return app;
 			}
 		}
-		return appsByType;
+		stamp = lock.readLock();
+		try {
+			return byId.get(id);
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * Returns the applications with the given ids in id order.
+	 * 
+	 * @param ids bitmap of application ids
+	 * @return list of applications
+	 */
+	private ArrayList<Application> appsOf(IdBitmap ids) {
+		return appsOf(ids.toArray());
+	}
+
+	/**
+	 * Returns the applications with the given ids.
+	 * 
+	 * @param ids application ids
+	 * @return list of applications in the order of the ids
+	 */
+	private ArrayList<Application> appsOf(int[] ids) {
+		ArrayList<Application> list = new ArrayList<Application>(ids.length);
+		for (int i = 0; i < ids.length; i++) {
+			list.add(byId.get(ids[i]));
+		}
+		return list;
 	}
 
 	/**
@@ -124,13 +466,101 @@ public class AppList {
 	 * @return application that matches given id
 	 */
 	public Application getAppById(int id) {
-		Application foundId = null;
-		for (int i = 0; i < apps.size(); i++) {
-			if (apps.get(i).getAppId() == id) {
-				foundId = apps.get(i);
+		return lookup(id);
+	}
+
+	/**
+	 * Returns the ids of the applications of the given type, or of every
+	 * application if the type is null, read from the type index without touching
+	 * any application.
+	 * 
+	 * @param type application type, or null for all applications
+	 * @return ids in ascending order
+	 */
+	public int[] getIds(String type) {
+		return read(() -> (type == null ? index.allIds() : index.idsByType(type)).toArray());
+	}
+
+	/**
+	 * Returns one column of the table rows of the given applications, for sorting
+	 * them. The values are read without waiting for commands running on the
+	 * applications, so a value may be from just before or just after one.
+	 * 
+	 * @param ids    application ids
+	 * @param column column: 0 for the id, 1 the state, 2 the type and 3 the
+	 *               summary
+	 * @return value of the column for each id, or null where there is no such
+	 *         application
+	 */
+	public String[] getColumn(int[] ids, int column) {
+		return read(() -> {
+			String[] values = new String[ids.length];
+			for (int i = 0; i < ids.length; i++) {
+				Application app = byId.get(ids[i]);
+				if (app != null) {
+					values[i] = column == 0 ? String.valueOf(app.getAppId())
+							: column == 1 ? app.getStateName() : column == 2 ? app.getAppType() : app.getSummary();
+				}
+			}
+			return values;
+		});
+	}
+
+	/**
+	 * Returns the table row of an application: its id, state name, type and
+	 * summary. The row is built while no command runs on the application, so its
+	 * values are from a single version of it.
+	 * 
+	 * @param id application id to search in list
+	 * @return new row of the application, or null if there is none
+	 */
+	public Object[] getRow(int id) {
+		Application app = getAppById(id);
+		if (app == null) {
+			return null;
+		}
+		ReentrantLock stripe = stripeOf(id);
+		stripe.lock();
+		try {
+			return AppSnapshot.rowOf(app);
+		} finally {
+			stripe.unlock();
+		}
+	}
+
+	/**
+	 * Returns copies of every application in id order, for saving the list while
+	 * commands may run.
+	 * 
+	 * @return copies of the applications
+	 */
+	ArrayList<Application> copyApps() {
+		return copyApps(apps());
+	}
+
+	/**
+	 * Returns copies of the given applications for saving them while commands may
+	 * run. Each copy is made while no command runs on its application, the same
+	 * as a row of a snapshot, so a save never holds an application halfway
+	 * through an update. The copies share the notes and the encoded record of
+	 * the applications.
+	 * 
+	 * @param list applications of the list to copy
+	 * @return copies of the applications, in the same order
+	 */
+	ArrayList<Application> copyApps(List<Application> list) {
+		ArrayList<Application> copies = new ArrayList<Application>(list.size());
+		for (int i = 0; i < list.size(); i++) {
+			Application app = list.get(i);
+			ReentrantLock stripe = stripeOf(app.getAppId());
+			stripe.lock();
+			try {
+				copies.add(app.copy());
+			} finally {
+				stripe.unlock();
 			}
 		}
-		return foundId;
+		return copies;
 	}
 
 	/**
@@ -139,12 +569,30 @@ public class AppList {
 	 * @param id application id to search in list
 	 */
 	public void deleteAppById(int id) {
-		Application app = getAppById(id);
+		Application app;
+		ReentrantLock stripe = stripeOf(id);
+		stripe.lock();
+		try {
+			long stamp = lock.writeLock();
+			try {
+				app = byId.remove(id);
+				if (app != null) {
+					tree.remove(id);
+					index.remove(app);
+					apps = null;
+					version++;
+					changedIds.remove(id);
+					deletedIds.add(id);
+				}
+			} finally {
+				lock.unlockWrite(stamp);
+			}
+		} finally {
+			stripe.unlock();
+		}
 		if (app != null) {
-			apps.remove(app);
+			fire(AppChangeEvent.Type.REMOVED, id);
 		}
-		counter -= 1;
-
 	}
 
 	/**
@@ -152,11 +600,355 @@ public class AppList {
 	 * 
 	 * @param id application id to search in list
 	 * @param c  command to execute on application
+	 * @throws UnsupportedOperationException "Invalid information." if the command
+	 *                                       is not a valid action for the state of
+	 *                                       the application
 	 */
 	public void executeCommand(int id, Command c) {
-		Application app = getAppById(id);
-		if (app != null) {
-			getAppById(id).update(c);
+		boolean changed = false;
+		ReentrantLock stripe = stripeOf(id);
+		stripe.lock();
+		try {
+			Application app = getAppById(id);
+			if (app != null) {
+				AppIndex.Key key = new AppIndex.Key(app);
+				boolean updated = false;
+				boolean rejected = false;
+				try {
+					rejected = app.tryUpdate(c) == UpdateResult.INVALID;
+					updated = !rejected;
+				} finally {
+					// A rejected command changed nothing, so the list is left alone
+					if (!rejected) {
+						long stamp = lock.writeLock();
+						try {
+							// The list may have been replaced by addApps() during the update
+							if (byId.get(id) == app) {
+								index.remove(key);
+								index.add(app);
+								version++;
+								if (updated) {
+									markChanged(id);
+									changed = true;
+								}
+							}
+						} finally {
+							lock.unlockWrite(stamp);
+						}
+					}
+				}
+				if (rejected) {
+					throw new UnsupportedOperationException("Invalid information.");
+				}
+			}
+		} finally {
+			stripe.unlock();
+		}
+		if (changed) {
+			fire(AppChangeEvent.Type.UPDATED, id);
+		}
+	}
+
+	/**
+	 * Executes a command on each of the given applications. See
+	 * executeCommands(CommandBatch).
+	 * 
+	 * @param commands command for each application id
+	 * @return outcome for each application id, in ascending id order
+	 * @throws IllegalArgumentException "Invalid information." if commands is null
+	 *                                  or holds a null id or command
+	 */
+	public Map<Integer, CommandBatch.Outcome> executeCommands(Map<Integer, Command> commands) {
+		return executeCommands(new CommandBatch(commands));
+	}
+
+	/**
+	 * Executes a batch of commands. The commands are grouped by the lock that
+	 * serializes commands on their applications, and each group looks up its
+	 * applications in one pass, runs its commands and moves their index entries
+	 * while holding its lock once. Groups run in parallel for large batches. A
+	 * command that is not a valid action is reported as INVALID rather than
+	 * thrown, and the other commands still run. Listeners get a single UPDATED
+	 * event with the ids of every application updated.
+	 * 
+	 * @param batch commands to execute
+	 * @return outcome for each application id, in ascending id order
+	 * @throws IllegalArgumentException if batch is null
+	 */
+	public Map<Integer, CommandBatch.Outcome> executeCommands(CommandBatch batch) {
+		if (batch == null) {
+			throw new IllegalArgumentException();
+		}
+		int count = batch.size();
+		// Positions of the commands grouped by stripe, with each group in id order
+		int[] starts = new int[STRIPES + 1];
+		for (int i = 0; i < count; i++) {
+			starts[(batch.getIdAt(i) & (STRIPES - 1)) + 1]++;
+		}
+		for (int s = 0; s < STRIPES; s++) {
+			starts[s + 1] += starts[s];
+		}
+		int[] order = new int[count];
+		int[] next = Arrays.copyOf(starts, STRIPES);
+		for (int i = 0; i < count; i++) {
+			order[next[batch.getIdAt(i) & (STRIPES - 1)]++] = i;
+		}
+
+		CommandBatch.Outcome[] outcomes = new CommandBatch.Outcome[count];
+		boolean[] changed = new boolean[count];
+		IntStream groups = IntStream.range(0, STRIPES).filter(s -> starts[s] < starts[s + 1]);
+		if (count >= PARALLEL_BATCH) {
+			groups = groups.parallel();
+		}
+		groups.forEach(s -> executeGroup(batch, order, starts[s], starts[s + 1], outcomes, changed));
+
+		Map<Integer, CommandBatch.Outcome> result = new LinkedHashMap<Integer, CommandBatch.Outcome>();
+		int[] changedIds = new int[count];
+		int changedCount = 0;
+		for (int i = 0; i < count; i++) {
+			result.put(batch.getIdAt(i), outcomes[i]);
+			if (changed[i]) {
+				changedIds[changedCount++] = batch.getIdAt(i);
+			}
+		}
+		if (changedCount > 0 && !listeners.isEmpty()) {
+			fire(new AppChangeEvent(AppChangeEvent.Type.UPDATED, Arrays.copyOf(changedIds, changedCount)));
+		}
+		return result;
+	}
+
+	/**
+	 * Executes the commands of a batch whose applications share a stripe, while
+	 * holding that stripe.
+	 * 
+	 * @param batch    commands to execute
+	 * @param order    positions of the commands in the batch, grouped by stripe
+	 * @param from     first entry of order in the group
+	 * @param to       entry of order after the group
+	 * @param outcomes outcome of each command, by position in the batch
+	 * @param changed  whether each command updated an application still in the
+	 *                 list, by position in the batch
+	 */
+	private void executeGroup(CommandBatch batch, int[] order, int from, int to,
+			CommandBatch.Outcome[] outcomes, boolean[] changed) {
+		ReentrantLock stripe = stripeOf(batch.getIdAt(order[from]));
+		stripe.lock();
+		try {
+			Application[] apps = read(() -> {
+				Application[] found = new Application[to - from];
+				for (int k = from; k < to; k++) {
+					found[k - from] = byId.get(batch.getIdAt(order[k]));
+				}
+				return found;
+			});
+			AppIndex.Key[] keys = new AppIndex.Key[apps.length];
+			try {
+				for (int k = 0; k < apps.length; k++) {
+					int i = order[from + k];
+					if (apps[k] == null) {
+						outcomes[i] = CommandBatch.Outcome.NOT_FOUND;
+					} else {
+						keys[k] = new AppIndex.Key(apps[k]);
+						if (apps[k].tryUpdate(batch.getCommandAt(i)) == UpdateResult.UPDATED) {
+							outcomes[i] = CommandBatch.Outcome.UPDATED;
+						} else {
+							// A rejected command changed nothing, so there is nothing to move
+							outcomes[i] = CommandBatch.Outcome.INVALID;
+							keys[k] = null;
+						}
+					}
+				}
+			} finally {
+				long stamp = lock.writeLock();
+				try {
+					boolean moved = false;
+					for (int k = 0; k < apps.length; k++) {
+						int i = order[from + k];
+						// The list may have been replaced by addApps() during the updates
+						if (keys[k] != null && byId.get(batch.getIdAt(i)) == apps[k]) {
+							index.remove(keys[k]);
+							index.add(apps[k]);
+							moved = true;
+							if (outcomes[i] == CommandBatch.Outcome.UPDATED) {
+								markChanged(batch.getIdAt(i));
+								changed[i] = true;
+							}
+						}
+					}
+					if (moved) {
+						version++;
+					}
+				} finally {
+					lock.unlockWrite(stamp);
+				}
+			}
+		} finally {
+			stripe.unlock();
+		}
+	}
+
+	/**
+	 * Returns the lock that serializes commands on the Application with the given
+	 * id.
+	 * 
+	 * @param id application id
+	 * @return lock of the id
+	 */
+	private ReentrantLock stripeOf(int id) {
+		return stripes[id & (STRIPES - 1)];
+	}
+
+	/**
+	 * Adds a listener to be told of changes to the list.
+	 * 
+	 * @param listener listener to add
+	 * @throws IllegalArgumentException if listener is null
+	 */
+	public void addListener(AppListener listener) {
+		if (listener == null) {
+			throw new IllegalArgumentException();
+		}
+		listeners.add(listener);
+	}
+
+	/**
+	 * Removes a listener added with addListener().
+	 * 
+	 * @param listener listener to remove
+	 */
+	public void removeListener(AppListener listener) {
+		listeners.remove(listener);
+	}
+
+	/**
+	 * Tells every listener of a change. Must be called with no lock held.
+	 * 
+	 * @param type kind of change
+	 * @param id   id of the application changed, or 0 if the whole list was
+	 *             replaced
+	 */
+	private void fire(AppChangeEvent.Type type, int id) {
+		if (!listeners.isEmpty()) {
+			fire(new AppChangeEvent(type, id));
+		}
+	}
+
+	/**
+	 * Tells every listener of a change. Must be called with no lock held.
+	 * 
+	 * @param event the change
+	 */
+	private void fire(AppChangeEvent event) {
+		for (AppListener listener : listeners) {
+			listener.appChanged(event);
+		}
+	}
+
+	/**
+	 * Records that the application with the given id was added or updated. The
+	 * caller must hold the write lock.
+	 * 
+	 * @param id id of the changed application
+	 */
+	private void markChanged(int id) {
+		deletedIds.remove(id);
+		changedIds.add(id);
+	}
+
+	/**
+	 * Returns the applications added or updated since changes were last cleared,
+	 * in the order they were first changed.
+	 * 
+	 * @return list of changed applications
+	 */
+	public ArrayList<Application> getChangedApps() {
+		long stamp = lock.readLock();
+		try {
+			ArrayList<Application> changed = new ArrayList<Application>();
+			for (Integer id : changedIds) {
+				changed.add(byId.get(id));
+			}
+			return changed;
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * Returns the ids of applications deleted since changes were last cleared.
+	 * 
+	 * @return list of deleted application ids
+	 */
+	public ArrayList<Integer> getDeletedIds() {
+		long stamp = lock.readLock();
+		try {
+			return new ArrayList<Integer>(deletedIds);
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * Returns the applications added or updated since changes were last cleared
+	 * and forgets every recorded change, in one step. A change made by another
+	 * thread meanwhile is either returned or kept for the next call.
+	 * 
+	 * @param deleted list the ids of the applications deleted since changes were
+	 *                last cleared are added to
+	 * @return list of changed applications
+	 */
+	ArrayList<Application> takeChanges(ArrayList<Integer> deleted) {
+		long stamp = lock.writeLock();
+		try {
+			ArrayList<Application> changed = new ArrayList<Application>(changedIds.size());
+			for (Integer id : changedIds) {
+				changed.add(byId.get(id));
+			}
+			deleted.addAll(deletedIds);
+			changedIds.clear();
+			deletedIds.clear();
+			return changed;
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * Records again changes returned by takeChanges() that could not be saved,
+	 * except those overtaken by a later add or delete of the same id.
+	 * 
+	 * @param changed applications returned by takeChanges()
+	 * @param deleted ids of deleted applications returned by takeChanges()
+	 */
+	void restoreChanges(ArrayList<Application> changed, ArrayList<Integer> deleted) {
+		long stamp = lock.writeLock();
+		try {
+			for (Application app : changed) {
+				if (byId.get(app.getAppId()) == app) {
+					changedIds.add(app.getAppId());
+				}
+			}
+			for (Integer id : deleted) {
+				if (byId.get(id) == null) {
+					deletedIds.add(id);
+				}
+			}
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * Forgets all recorded changes, for use once the list has been saved or
+	 * loaded.
+	 */
+	public void clearChanges() {
+		long stamp = lock.writeLock();
+		try {
+			changedIds.clear();
+			deletedIds.clear();
+		} finally {
+			lock.unlockWrite(stamp);
 		}
 	}
 
@@ -0,0 +1,19 @@
+package app_manager.model.manager;
+
+/**
+ * Receives the changes made to an AppList, or to the list of an AppManager.
+ * Events are sent on the thread that made the change, after the change is done
+ * and no lock of the list is held, so a listener may read the list. A listener
+ * that updates a user interface should hand the events over to its own thread.
+ *
+ * @author Christine Weld
+ */
+public interface AppListener {
+
+	/**
+	 * Called after the list changed.
+	 *
+	 * @param event the change
+	 */
+	void appChanged(AppChangeEvent event);
+}
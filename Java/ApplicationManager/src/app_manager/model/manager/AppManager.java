@@ -1,19 +1,39 @@
 package app_manager.model.manager;
 
 import java.io.FileNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import app_manager.model.application.Application;
 import app_manager.model.application.Application.AppType;
 import app_manager.model.command.Command;
+import app_manager.model.io.AppBinaryFormat;
+import app_manager.model.io.AppJournal;
 import app_manager.model.io.AppReader;
+import app_manager.model.io.AppStore;
 import app_manager.model.io.AppWriter;
+import app_manager.model.io.ImportReport;
 
 /**
  * Controls the creation and modification of AppLists. Implements the Singleton
  * pattern, works with files that contain saved Applications by calling
  * AppReader and AppWriter classes. Provides information to GUI through methods.
  * 
+ * AppManager may be shared by several threads. Loading, saving and replacing
+ * the list are serialized on the AppManager, while adding, deleting, updating
+ * and reading Applications go straight to the AppList, which is safe for
+ * concurrent use and does not make readers and writers wait for each other.
+ * A save writes copies of the Applications, each made while no command runs on
+ * it, so commands can keep running while the file is written.
+ * 
+ * AppListeners added to the AppManager are told of every change to its list,
+ * whichever AppList it currently holds. Loading, importing or replacing the
+ * list is sent as a single REPLACED event.
+ * 
  * @author Christine Weld
  */
 public class AppManager {
@@ -21,7 +41,17 @@ public class AppManager {
 	/** Single instance of AppManager */
 	private static AppManager instance;
 	/** list of applications */
-	private AppList appList;
+	private volatile AppList appList;
+	/** journal of the file the list was last loaded from or saved to */
+	private AppJournal journal;
+	/** binary file the list is read from on demand, or null once it is in appList */
+	private volatile AppStore store;
+	/** snapshot of the rows of the open store, or null if not taken yet */
+	private AppSnapshot storeSnapshot;
+	/** listeners told of changes to the list */
+	private final CopyOnWriteArrayList<AppListener> listeners = new CopyOnWriteArrayList<AppListener>();
+	/** listener on appList that passes its events on to the listeners */
+	private final AppListener forwarder = this::fire;
 
 	/**
 	 * Constructor for AppManager
@@ -43,90 +73,214 @@ public class AppManager {
 	}
 
 	/**
-	 * Reads in applications from the given file by calling AppReader.
+	 * Reads in applications from the given file. The format is picked from the
+	 * file header: binary files are opened as an AppStore and text files are
+	 * read by AppReader. If the file has a journal of changes saved by
+	 * saveChangesToFile(), the journal is replayed on top of the file.
+	 * 
+	 * A binary file is not read up front. Table rows and applications are read
+	 * from the file as they are asked for, and the whole list is only read into
+	 * appList once it is changed or asked for with getAppList().
+	 * 
+	 * New applications get ids above the high-water mark saved in the file, above
+	 * any id deleted in the journal and above the greatest id in the file.
 	 * 
 	 * @param fileName name of file containing list of applications
 	 * @throws FileNotFoundException if AppReader unable to load file
 	 */
-	public void loadAppsFromFile(String fileName) {
+	public synchronized void loadAppsFromFile(String fileName) {
 		try {
-			ArrayList<Application> fileApps = AppReader.readAppsFromFile(fileName);
-			appList.addApps(fileApps);
+			AppJournal fileJournal = new AppJournal(fileName);
+			if (fileJournal.isEmpty() && AppBinaryFormat.isBinaryFile(fileName)) {
+				AppStore fileStore = AppStore.open(fileName);
+				closeStore();
+				attach(new AppList());
+				store = fileStore;
+				fire(new AppChangeEvent(AppChangeEvent.Type.REPLACED, 0));
+			} else {
+				ArrayList<Application> fileApps = fileJournal.load();
+				closeStore();
+				appList.addApps(fileApps);
+				appList.reserveIds(fileJournal.getHighWaterMark());
+			}
+			appList.clearChanges();
+			journal = fileJournal;
 		} catch (Exception e) {
 			throw new IllegalArgumentException("Unable to load file.");
 		}
 	}
 
 	/**
-	 * Write applications to the given file by calling AppWriter.
+	 * Reads in applications from the given file leniently. Invalid records are
+	 * skipped and every valid application is loaded into the list, replacing its
+	 * contents. The returned report lists the skipped records.
+	 * 
+	 * @param fileName name of file containing list of applications
+	 * @return report of the valid applications and the skipped records
+	 * @throws IllegalArgumentException "Unable to load file." if the file cannot be
+	 *                                  found or read
+	 */
+	public synchronized ImportReport importAppsFromFile(String fileName) {
+		ImportReport report = AppReader.importAppsFromFile(fileName);
+		closeStore();
+		appList.addApps(report.getApps());
+		appList.reserveIds(report.getHighWaterMark());
+		appList.clearChanges();
+		journal = null;
+		return report;
+	}
+
+	/**
+	 * Write applications to the given file by calling AppWriter. The file is
+	 * written in the binary format if its name has the binary extension or it
+	 * already holds a binary file, and as text otherwise. Any journal of changes
+	 * for the file is removed, since the file now holds every change.
+	 * 
+	 * @param fileName name of file to write application list to.
+	 */
+	public synchronized void saveAppsToFile(String fileName) {
+		materialize();
+		AppJournal fileJournal = journalFor(fileName);
+		ArrayList<Integer> deleted = new ArrayList<Integer>();
+		ArrayList<Application> changed = appList.takeChanges(deleted);
+		try {
+			fileJournal.writeAll(appList.copyApps(), appList.getHighWaterMark());
+		} catch (RuntimeException e) {
+			appList.restoreChanges(changed, deleted);
+			throw e;
+		}
+		journal = fileJournal;
+	}
+
+	/**
+	 * Saves only the applications added, updated or deleted since the list was
+	 * last loaded from or saved to the given file, by appending them to the file's
+	 * journal. The journal is compacted into the file in the background once it
+	 * grows large. If the list did not come from the given file, the whole list is
+	 * written instead.
 	 * 
 	 * @param fileName name of file to write application list to.
+	 * @throws IllegalArgumentException "Unable to save file." if the file or its
+	 *                                  journal cannot be written
+	 */
+	public synchronized void saveChangesToFile(String fileName) {
+		materialize();
+		if (journal == null || !journal.getFileName().equals(fileName) || !Files.exists(Paths.get(fileName))) {
+			saveAppsToFile(fileName);
+			return;
+		}
+		ArrayList<Integer> deleted = new ArrayList<Integer>();
+		ArrayList<Application> changed = appList.takeChanges(deleted);
+		try {
+			journal.append(appList.copyApps(changed), deleted);
+		} catch (RuntimeException e) {
+			appList.restoreChanges(changed, deleted);
+			throw e;
+		}
+	}
+
+	/**
+	 * Returns the journal for the given file, reusing the current one if it
+	 * belongs to the same file.
+	 * 
+	 * @param fileName name of the application file
+	 * @return journal of the file
 	 */
-	public void saveAppsToFile(String fileName) {
-		AppWriter.writeAppsToFile(fileName, appList.getApps());
+	private AppJournal journalFor(String fileName) {
+		if (journal != null && journal.getFileName().equals(fileName)) {
+			return journal;
+		}
+		return new AppJournal(fileName);
+	}
+
+	/**
+	 * Reads every application of the open store into appList and closes the
+	 * store. Applications already read from the store keep their identity.
+	 * 
+	 * @throws IllegalArgumentException "Unable to load file." if the store cannot
+	 *                                  be read
+	 */
+	private synchronized void materialize() {
+		if (store != null) {
+			AppList fileList = new AppList();
+			fileList.addApps(store.readAll());
+			fileList.reserveIds(store.getHighWaterMark());
+			fileList.clearChanges();
+			attach(fileList);
+			closeStore();
+		}
+	}
+
+	/**
+	 * Closes the open store, if there is one.
+	 */
+	private void closeStore() {
+		if (store != null) {
+			store.close();
+			store = null;
+			storeSnapshot = null;
+		}
 	}
 
 	/**
 	 * Updates the global appList reference to point to a new AppList object.
 	 */
-	public void createNewAppList() {
+	public synchronized void createNewAppList() {
 		setAppList(new AppList());
+		journal = null;
+	}
+
+	/**
+	 * Returns an immutable snapshot of the rows of the application list, for
+	 * tables that read it without locking. The same snapshot is returned until the
+	 * list or an application in it changes, and a new snapshot only builds the
+	 * rows of the applications that changed. While the list is read on demand
+	 * from a binary file, the snapshot is read from the file once.
+	 * 
+	 * @return snapshot of the rows of the list
+	 */
+	public AppSnapshot getSnapshot() {
+		if (store != null) {
+			synchronized (this) {
+				if (store != null) {
+					if (storeSnapshot == null) {
+						Object[][] rows = new Object[store.size()][];
+						for (int i = 0; i < rows.length; i++) {
+							rows[i] = store.getRow(i);
+						}
+						storeSnapshot = AppSnapshot.ofRows(rows);
+					}
+					return storeSnapshot;
+				}
+			}
+		}
+		return appList.snapshot();
 	}
 
 	/**
 	 * Returns a 2D Object array of a list of applications that is used to populate
 	 * in the GUI. The array stores rows & columns, with 1 row for every Application
-	 * and 4 columns (id, state, type, summary).
+	 * and 4 columns (id, state, type, summary). The rows are shared with the
+	 * snapshot of the list and must not be changed.
 	 * 
 	 * @return 2D object array of a list of applications
 	 */
 	public Object[][] getAppListAsArray() {
-		int numRows = appList.getApps().size();
-		Object[][] appListAsArray = new Object[numRows][4];
-		for (int i = 0; i < appList.getApps().size(); i++) {
-
-			Application app = appList.getApps().get(i);
-			Object[] appFieldArray = new Object[4];
-			Integer appId = app.getAppId();
-			appFieldArray[0] = appId;
-			appFieldArray[1] = app.getStateName();
-			appFieldArray[2] = app.getAppType();
-			appFieldArray[3] = app.getSummary();
-
-			appListAsArray[i] = appFieldArray;
-		}
-		return appListAsArray;
+		return getSnapshot().toArray();
 	}
 
 	/**
 	 * Returns a 2D Object array of a list of applications filtered by type that is
 	 * used to populate in the GUI. The array stores rows & columns, with 1 row for
-	 * every Application and 4 columns (id, state, type, summary).
+	 * every Application and 4 columns (id, state, type, summary). The rows are
+	 * shared with the snapshot of the list and must not be changed.
 	 * 
 	 * @param appType application type to be filtered
 	 * @return 2D object array of a list of applications filtered by type
 	 * @throws IllegalArgumentException if given appType is null
 	 */
 	public Object[][] getAppListAsArrayByAppType(String appType) {
-		ArrayList<Application> appListByType = appList.getAppsByType(appType);
-		int numRows = appListByType.size();
-		Object[][] appListAsArrayByType = new Object[numRows][4];
-		for (int i = 0; i < appListByType.size(); i++) {
-			
-			
-
-			Application app = appListByType.get(i);
-			Object[] appFieldArray = new Object[4];
-			
-			Integer appId = app.getAppId();
-			appFieldArray[0] = appId;
-			appFieldArray[1] = app.getStateName();
-			appFieldArray[2] = appType;
-			appFieldArray[3] = app.getSummary();
-
-			appListAsArrayByType[i] = appFieldArray;
-		}
-		return appListAsArrayByType;
+		return getSnapshot().filterByType(appType).toArray();
 	}
 
 	/**
@@ -136,16 +290,97 @@ public class AppManager {
 	 * @return Application that matched id
 	 */
 	public Application getAppById(int id) {
+		if (store != null) {
+			synchronized (this) {
+				if (store != null) {
+					return store.getAppById(id);
+				}
+			}
+		}
 		return appList.getAppById(id);
 	}
 
+	/**
+	 * Returns the ids of the applications of the given type, or of every
+	 * application if the type is null. Neither the applications nor their rows
+	 * are read, except for the type of each record while the list is read on
+	 * demand from a binary file and a type is given.
+	 * 
+	 * @param type application type, or null for all applications
+	 * @return ids in ascending order
+	 */
+	public int[] getIds(String type) {
+		if (store != null) {
+			synchronized (this) {
+				if (store != null) {
+					int[] ids = new int[store.size()];
+					int count = 0;
+					for (int i = 0; i < ids.length; i++) {
+						if (type == null || type.equals(store.getTypeAt(i))) {
+							ids[count++] = store.getIdAt(i);
+						}
+					}
+					return count == ids.length ? ids : Arrays.copyOf(ids, count);
+				}
+			}
+		}
+		return appList.getIds(type);
+	}
+
+	/**
+	 * Returns one column of the table rows of the given applications, for sorting
+	 * them.
+	 * 
+	 * @param ids    application ids
+	 * @param column column: 0 for the id, 1 the state, 2 the type and 3 the
+	 *               summary
+	 * @return value of the column for each id, or null where there is no such
+	 *         application
+	 */
+	public String[] getColumn(int[] ids, int column) {
+		if (store != null) {
+			synchronized (this) {
+				if (store != null) {
+					String[] values = new String[ids.length];
+					for (int i = 0; i < ids.length; i++) {
+						int index = store.indexOf(ids[i]);
+						if (index >= 0) {
+							values[i] = column == 2 ? store.getTypeAt(index) : String.valueOf(store.getRow(index)[column]);
+						}
+					}
+					return values;
+				}
+			}
+		}
+		return appList.getColumn(ids, column);
+	}
+
+	/**
+	 * Returns the table row of the application with the given id: its id, state
+	 * name, type and summary.
+	 * 
+	 * @param id application id to search in list
+	 * @return new row of the application, or null if there is none
+	 */
+	public Object[] getRow(int id) {
+		if (store != null) {
+			synchronized (this) {
+				if (store != null) {
+					int index = store.indexOf(id);
+					return index < 0 ? null : store.getRow(index);
+				}
+			}
+		}
+		return appList.getRow(id);
+	}
+
 	/**
 	 * Removes an application from list that matches given id
 	 * 
 	 * @param id application id to search in list
 	 */
 	public void deleteAppById(int id) {
-		appList.deleteAppById(id);
+		list().deleteAppById(id);
 	}
 
 	/**
@@ -155,7 +390,32 @@ public class AppManager {
 	 * @param c  Command to be executed
 	 */
 	public void executeCommand(int id, Command c) {
-		appList.executeCommand(id, c);
+		list().executeCommand(id, c);
+	}
+
+	/**
+	 * Executes a command on each of the given applications in one batch. Commands
+	 * that are not valid actions are reported rather than thrown, and listeners
+	 * get a single event for the whole batch.
+	 * 
+	 * @param commands command for each application id
+	 * @return outcome for each application id, in ascending id order
+	 * @throws IllegalArgumentException "Invalid information." if commands is null
+	 *                                  or holds a null id or command
+	 */
+	public Map<Integer, CommandBatch.Outcome> executeCommands(Map<Integer, Command> commands) {
+		return executeCommands(new CommandBatch(commands));
+	}
+
+	/**
+	 * Executes a batch of commands. See AppList.executeCommands(CommandBatch).
+	 * 
+	 * @param batch commands to execute
+	 * @return outcome for each application id, in ascending id order
+	 * @throws IllegalArgumentException if batch is null
+	 */
+	public Map<Integer, CommandBatch.Outcome> executeCommands(CommandBatch batch) {
+		return list().executeCommands(batch);
 	}
 
 	/**
@@ -166,7 +426,7 @@ public class AppManager {
 	 * @param note    application note
 	 */
 	public void addAppToList(AppType appType, String summary, String note) {
-		appList.addApp(appType, summary, note);
+		list().addApp(appType, summary, note);
 	}
 
 	/**
@@ -175,6 +435,19 @@ public class AppManager {
 	 * @return the appList
 	 */
 	public AppList getAppList() {
+		return list();
+	}
+
+	/**
+	 * Returns appList, reading the open store into it first. Once there is no
+	 * store this takes no lock.
+	 * 
+	 * @return the appList
+	 */
+	private AppList list() {
+		if (store != null) {
+			materialize();
+		}
 		return appList;
 	}
 
@@ -183,8 +456,58 @@ public class AppManager {
 	 * 
 	 * @param appList the appList to set
 	 */
-	public void setAppList(AppList appList) {
-		this.appList = appList;
+	public synchronized void setAppList(AppList appList) {
+		closeStore();
+		attach(appList);
+		fire(new AppChangeEvent(AppChangeEvent.Type.REPLACED, 0));
+	}
+
+	/**
+	 * Makes the given list the appList, moving the forwarding of events from the
+	 * old list to the new one. Sends no event itself.
+	 * 
+	 * @param list the new appList
+	 */
+	private void attach(AppList list) {
+		if (appList != null) {
+			appList.removeListener(forwarder);
+		}
+		list.addListener(forwarder);
+		appList = list;
+	}
+
+	/**
+	 * Adds a listener to be told of changes to the list, including changes to
+	 * lists set, loaded or created later.
+	 * 
+	 * @param listener listener to add
+	 * @throws IllegalArgumentException if listener is null
+	 */
+	public void addListener(AppListener listener) {
+		if (listener == null) {
+			throw new IllegalArgumentException();
+		}
+		listeners.add(listener);
+	}
+
+	/**
+	 * Removes a listener added with addListener().
+	 * 
+	 * @param listener listener to remove
+	 */
+	public void removeListener(AppListener listener) {
+		listeners.remove(listener);
+	}
+
+	/**
+	 * Tells every listener of a change.
+	 * 
+	 * @param event the change
+	 */
+	private void fire(AppChangeEvent event) {
+		for (AppListener listener : listeners) {
+			listener.appChanged(event);
+		}
 	}
 
 }
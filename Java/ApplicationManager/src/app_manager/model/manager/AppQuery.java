@@ -0,0 +1,150 @@
+package app_manager.model.manager;
+
+import java.util.function.Function;
+
+/**
+ * Filter over the Applications of an AppList, built from conditions on type,
+ * state, reviewer and processed paperwork combined with and(), or() and not().
+ * A query is evaluated against the indexes of the list, where every condition
+ * is a compressed bitmap of ids, so combining conditions costs a few word
+ * operations per 64 ids and no Application is looked at until the result is
+ * read. For example, old applications in RefCheck with paperwork not processed
+ * and a reviewer of either "a" or "b" are found with:
+ * 
+ * <pre>
+ * AppQuery.type(Application.A_OLD).and(AppQuery.state(Application.REFCHK_NAME))
+ * 		.and(AppQuery.processed(false)).and(AppQuery.reviewer("a").or(AppQuery.reviewer("b")))
+ * </pre>
+ * 
+ * @author Christine Weld
+ */
+public class AppQuery {
+
+	/** Evaluates the query against the indexes of a list */
+	private final Function<AppIndex, IdBitmap> evaluator;
+	/** Readable form of the query */
+	private final String description;
+
+	/**
+	 * Constructs an AppQuery.
+	 * 
+	 * @param evaluator   evaluates the query against the indexes of a list
+	 * @param description readable form of the query
+	 */
+	private AppQuery(Function<AppIndex, IdBitmap> evaluator, String description) {
+		this.evaluator = evaluator;
+		this.description = description;
+	}
+
+	/**
+	 * Returns a query matching every application.
+	 * 
+	 * @return the query
+	 */
+	public static AppQuery all() {
+		return new AppQuery(index -> index.allIds(), "all");
+	}
+
+	/**
+	 * Returns a query matching applications of the given type.
+	 * 
+	 * @param type application type
+	 * @return the query
+	 * @throws IllegalArgumentException if type is null
+	 */
+	public static AppQuery type(String type) {
+		if (type == null) {
+			throw new IllegalArgumentException();
+		}
+		return new AppQuery(index -> index.idsByType(type), "type=" + type);
+	}
+
+	/**
+	 * Returns a query matching applications in the given state.
+	 * 
+	 * @param state state name
+	 * @return the query
+	 * @throws IllegalArgumentException if state is null
+	 */
+	public static AppQuery state(String state) {
+		if (state == null) {
+			throw new IllegalArgumentException();
+		}
+		return new AppQuery(index -> index.idsByState(state), "state=" + state);
+	}
+
+	/**
+	 * Returns a query matching applications of the given reviewer.
+	 * 
+	 * @param reviewer reviewer id, or null for applications with no reviewer
+	 * @return the query
+	 */
+	public static AppQuery reviewer(String reviewer) {
+		return new AppQuery(index -> index.idsByReviewer(reviewer), "reviewer=" + reviewer);
+	}
+
+	/**
+	 * Returns a query matching applications whose paperwork has or has not been
+	 * processed.
+	 * 
+	 * @param processed true to match processed applications
+	 * @return the query
+	 */
+	public static AppQuery processed(boolean processed) {
+		return new AppQuery(index -> processed ? index.processedIds() : index.allIds().andNot(index.processedIds()),
+				"processed=" + processed);
+	}
+
+	/**
+	 * Returns a query matching applications that match both this query and the
+	 * given one.
+	 * 
+	 * @param other query to combine with
+	 * @return the combined query
+	 */
+	public AppQuery and(AppQuery other) {
+		return new AppQuery(index -> evaluate(index).and(other.evaluate(index)),
+				"(" + description + " AND " + other.description + ")");
+	}
+
+	/**
+	 * Returns a query matching applications that match this query, the given one,
+	 * or both.
+	 * 
+	 * @param other query to combine with
+	 * @return the combined query
+	 */
+	public AppQuery or(AppQuery other) {
+		return new AppQuery(index -> evaluate(index).or(other.evaluate(index)),
+				"(" + description + " OR " + other.description + ")");
+	}
+
+	/**
+	 * Returns a query matching applications that do not match this query.
+	 * 
+	 * @return the negated query
+	 */
+	public AppQuery not() {
+		return new AppQuery(index -> index.allIds().andNot(evaluate(index)), "NOT " + description);
+	}
+
+	/**
+	 * Returns the ids matching the query in the given indexes.
+	 * 
+	 * @param index indexes of a list
+	 * @return bitmap of matching ids
+	 */
+	IdBitmap evaluate(AppIndex index) {
+		return evaluator.apply(index);
+	}
+
+	/**
+	 * Returns the query in readable form.
+	 * 
+	 * @return String form of the query
+	 */
+	@Override
+	public String toString() {
+		return description;
+	}
+}
@@ -0,0 +1,208 @@
+package app_manager.model.manager;
+
+import java.util.Arrays;
+
+import app_manager.model.application.Application;
+
+/**
+ * Immutable view of the rows of an AppList at one version of the list, for
+ * tables that read it without locking. Each row holds the id, state name, type
+ * and summary of an Application, in id order. A new snapshot shares the rows of
+ * the previous one for every Application that has not been updated since, so
+ * taking a snapshot only builds the rows that changed.
+ *
+ * @author Christine Weld
+ */
+public class AppSnapshot {
+
+	/** Snapshot of a list with no Applications */
+	static final AppSnapshot EMPTY = new AppSnapshot(0, new int[0], new Application[0], new int[0],
+			new Object[0][]);
+
+	/** Version of the list the snapshot was taken at */
+	private final long version;
+	/** Ids of the rows, in ascending order */
+	private final int[] ids;
+	/** Applications the rows were built from, or null entries if unknown */
+	private final Application[] apps;
+	/** Versions of the Applications the rows were built at */
+	private final int[] appVersions;
+	/** Rows of the snapshot, which are never changed */
+	private final Object[][] rows;
+
+	/**
+	 * Constructs an AppSnapshot from arrays that are not changed afterwards.
+	 *
+	 * @param version     version of the list
+	 * @param ids         ids of the rows, in ascending order
+	 * @param apps        Applications the rows were built from
+	 * @param appVersions versions of the Applications the rows were built at
+	 * @param rows        rows of the snapshot
+	 */
+	AppSnapshot(long version, int[] ids, Application[] apps, int[] appVersions, Object[][] rows) {
+		this.version = version;
+		this.ids = ids;
+		this.apps = apps;
+		this.appVersions = appVersions;
+		this.rows = rows;
+	}
+
+	/**
+	 * Returns the version of the list the snapshot was taken at. A later snapshot
+	 * of the same list has a greater version if anything changed in between.
+	 *
+	 * @return the version of the list
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * Returns the number of rows.
+	 *
+	 * @return the number of rows
+	 */
+	public int size() {
+		return rows.length;
+	}
+
+	/**
+	 * Returns the application id of a row.
+	 *
+	 * @param row index of the row
+	 * @return the id of the row
+	 */
+	public int getIdAt(int row) {
+		return ids[row];
+	}
+
+	/**
+	 * Returns the position of the row with the given id.
+	 *
+	 * @param id application id
+	 * @return index of the row, or -1 if there is none
+	 */
+	public int indexOf(int id) {
+		int i = Arrays.binarySearch(ids, id);
+		return i < 0 ? -1 : i;
+	}
+
+	/**
+	 * Returns a value of a row.
+	 *
+	 * @param row index of the row
+	 * @param col column: 0 for the id, 1 the state, 2 the type and 3 the summary
+	 * @return the value
+	 */
+	public Object getValueAt(int row, int col) {
+		return rows[row][col];
+	}
+
+	/**
+	 * Returns a copy of a row.
+	 *
+	 * @param row index of the row
+	 * @return the id, state, type and summary of the row
+	 */
+	public Object[] getRow(int row) {
+		return rows[row].clone();
+	}
+
+	/**
+	 * Returns the rows of the Applications of the given type, sharing the rows of
+	 * this snapshot.
+	 *
+	 * @param type application type
+	 * @return snapshot of the rows of the type, at the same version
+	 * @throws IllegalArgumentException if type is null
+	 */
+	public AppSnapshot filterByType(String type) {
+		if (type == null) {
+			throw new IllegalArgumentException();
+		}
+		int count = 0;
+		int[] positions = new int[rows.length];
+		for (int i = 0; i < rows.length; i++) {
+			if (type.equals(rows[i][2])) {
+				positions[count++] = i;
+			}
+		}
+		int[] filteredIds = new int[count];
+		Application[] filteredApps = new Application[count];
+		int[] filteredVersions = new int[count];
+		Object[][] filteredRows = new Object[count][];
+		for (int i = 0; i < count; i++) {
+			filteredIds[i] = ids[positions[i]];
+			filteredApps[i] = apps[positions[i]];
+			filteredVersions[i] = appVersions[positions[i]];
+			filteredRows[i] = rows[positions[i]];
+		}
+		return new AppSnapshot(version, filteredIds, filteredApps, filteredVersions, filteredRows);
+	}
+
+	/**
+	 * Returns the rows as an array. The outer array is new, but the rows are
+	 * shared with the snapshot and must not be changed.
+	 *
+	 * @return array of rows
+	 */
+	Object[][] toArray() {
+		return rows.clone();
+	}
+
+	/**
+	 * Returns a row itself, for sharing with a later snapshot.
+	 *
+	 * @param row index of the row
+	 * @return the row, which must not be changed
+	 */
+	Object[] rowAt(int row) {
+		return rows[row];
+	}
+
+	/**
+	 * Returns the Application a row was built from.
+	 *
+	 * @param row index of the row
+	 * @return the Application, or null if the row was not built from one
+	 */
+	Application getAppAt(int row) {
+		return apps[row];
+	}
+
+	/**
+	 * Returns the version of the Application a row was built at.
+	 *
+	 * @param row index of the row
+	 * @return the version of the Application
+	 */
+	int getAppVersionAt(int row) {
+		return appVersions[row];
+	}
+
+	/**
+	 * Returns a new row for an Application. The caller must keep the Application
+	 * from being updated while the row is built.
+	 *
+	 * @param app Application to build the row of
+	 * @return the id, state, type and summary of the Application
+	 */
+	static Object[] rowOf(Application app) {
+		return new Object[] { app.getAppId(), app.getStateName(), app.getAppType(), app.getSummary() };
+	}
+
+	/**
+	 * Returns a snapshot of rows that were not built from Applications, such as
+	 * rows read straight from a file.
+	 *
+	 * @param rows rows in ascending id order, which are not changed afterwards
+	 * @return snapshot of the rows
+	 */
+	static AppSnapshot ofRows(Object[][] rows) {
+		int[] ids = new int[rows.length];
+		for (int i = 0; i < rows.length; i++) {
+			ids[i] = (Integer) rows[i][0];
+		}
+		return new AppSnapshot(0, ids, new Application[rows.length], new int[rows.length], rows);
+	}
+}
@@ -0,0 +1,316 @@
+package app_manager.model.manager;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Virtual view of the rows of an AppManager for a table. The view only holds
+ * the ids of the applications it shows, in the order it shows them, and reads
+ * a row from the AppManager the first time the table asks for it. The rows read
+ * most recently are kept in a small least-recently-used cache, so scrolling a
+ * table over a very large list only reads the rows on screen.
+ *
+ * Filtering by type reads the ids from the type index of the list. Sorting
+ * orders the ids by the values of one column, and ties keep id order. Neither
+ * copies the rows of the list.
+ *
+ * An AppTableView is not safe for concurrent use; a table uses it from the
+ * event dispatch thread only.
+ *
+ * @author Christine Weld
+ */
+public class AppTableView {
+
+	/** Number of rows kept in the cache by default */
+	public static final int DEFAULT_CACHE_SIZE = 1024;
+
+	/** AppManager the rows are read from */
+	private final AppManager manager;
+	/** Rows read most recently, by application id, least recently used first */
+	private final LinkedHashMap<Integer, Object[]> cache;
+	/** Ids of the rows shown, in the order they are shown */
+	private int[] ids;
+	/**
+	 * Index of each row by id, built the first time it is needed after the rows
+	 * change, or null if it has not been built
+	 */
+	private HashMap<Integer, Integer> rows;
+	/** Type of the applications shown, or null for all of them */
+	private String type;
+	/** Column the rows are sorted by */
+	private int sortColumn;
+	/** Whether the rows are sorted in ascending order */
+	private boolean ascending;
+
+	/**
+	 * Constructs an AppTableView of every application of the given AppManager in
+	 * ascending id order, with a cache of DEFAULT_CACHE_SIZE rows.
+	 *
+	 * @param manager AppManager to read rows from
+	 */
+	public AppTableView(AppManager manager) {
+		this(manager, DEFAULT_CACHE_SIZE);
+	}
+
+	/**
+	 * Constructs an AppTableView of every application of the given AppManager in
+	 * ascending id order.
+	 *
+	 * @param manager   AppManager to read rows from
+	 * @param cacheSize number of rows to keep in the cache
+	 * @throws IllegalArgumentException if manager is null or cacheSize is not
+	 *                                  positive
+	 */
+	public AppTableView(AppManager manager, int cacheSize) {
+		if (manager == null || cacheSize <= 0) {
+			throw new IllegalArgumentException();
+		}
+		this.manager = manager;
+		this.cache = new LinkedHashMap<Integer, Object[]>(16, 0.75f, true) {
+			/** ID number used for object serialization. */
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, Object[]> eldest) {
+				return size() > cacheSize;
+			}
+		};
+		this.ascending = true;
+		this.ids = manager.getIds(null);
+	}
+
+	/**
+	 * Returns the number of rows shown.
+	 *
+	 * @return the number of rows
+	 */
+	public int size() {
+		return ids.length;
+	}
+
+	/**
+	 * Returns the application id of a row.
+	 *
+	 * @param row index of the row
+	 * @return the id of the row
+	 */
+	public int getIdAt(int row) {
+		return ids[row];
+	}
+
+	/**
+	 * Returns the position of the row with the given id. Rows in ascending id
+	 * order are searched; in any other order the row is looked up in an index of
+	 * the rows by id, which is built once each time the rows change.
+	 *
+	 * @param id application id
+	 * @return index of the row, or -1 if it is not shown
+	 */
+	public int indexOf(int id) {
+		if (sortColumn == 0 && ascending) {
+			int i = Arrays.binarySearch(ids, id);
+			return i < 0 ? -1 : i;
+		}
+		if (rows == null) {
+			rows = new HashMap<Integer, Integer>(ids.length * 4 / 3 + 1);
+			for (int i = 0; i < ids.length; i++) {
+				rows.put(ids[i], i);
+			}
+		}
+		Integer row = rows.get(id);
+		return row == null ? -1 : row;
+	}
+
+	/**
+	 * Returns a value of a row, reading the row from the AppManager if it is not
+	 * in the cache.
+	 *
+	 * @param row index of the row
+	 * @param col column: 0 for the id, 1 the state, 2 the type and 3 the summary
+	 * @return the value, or null if the application is no longer in the list
+	 */
+	public Object getValueAt(int row, int col) {
+		Object[] values = rowOf(ids[row]);
+		return values == null ? null : values[col];
+	}
+
+	/**
+	 * Returns the type of the applications shown.
+	 *
+	 * @return the type, or null if every application is shown
+	 */
+	public String getType() {
+		return type;
+	}
+
+	/**
+	 * Shows only the applications of the given type, or all of them if the type
+	 * is null, keeping the sort order.
+	 *
+	 * @param type application type, or null for all applications
+	 */
+	public void setType(String type) {
+		this.type = type;
+		refresh();
+	}
+
+	/**
+	 * Returns the column the rows are sorted by.
+	 *
+	 * @return index of the column
+	 */
+	public int getSortColumn() {
+		return sortColumn;
+	}
+
+	/**
+	 * Returns whether the rows are sorted in ascending order.
+	 *
+	 * @return true if ascending
+	 */
+	public boolean isAscending() {
+		return ascending;
+	}
+
+	/**
+	 * Sorts the rows by the values of a column. Rows with equal values stay in
+	 * ascending id order.
+	 *
+	 * @param column    column to sort by: 0 for the id, 1 the state, 2 the type
+	 *                  and 3 the summary
+	 * @param ascending whether to sort in ascending order
+	 * @throws IllegalArgumentException if column is not a column of the rows
+	 */
+	public void sort(int column, boolean ascending) {
+		if (column < 0 || column > 3) {
+			throw new IllegalArgumentException();
+		}
+		this.sortColumn = column;
+		this.ascending = ascending;
+		refresh();
+	}
+
+	/**
+	 * Reads the ids of the rows again from the AppManager, for use after
+	 * applications were added or removed, or updated in a way that may change
+	 * which rows are shown or their order.
+	 *
+	 * @return true if the rows shown or their order changed
+	 */
+	public boolean refresh() {
+		int[] newIds = order(manager.getIds(type));
+		boolean changed = !Arrays.equals(ids, newIds);
+		if (changed) {
+			ids = newIds;
+			rows = null;
+		}
+		return changed;
+	}
+
+	/**
+	 * Returns whether an update to an application may change which rows are shown
+	 * or their order, in which case refresh() must be called after it.
+	 *
+	 * @return true if the rows are filtered or sorted by anything other than
+	 *         ascending id
+	 */
+	public boolean dependsOnValues() {
+		return type != null || sortColumn != 0 || !ascending;
+	}
+
+	/**
+	 * Drops the cached row of an application, so it is read again the next time
+	 * it is shown.
+	 *
+	 * @param id application id
+	 */
+	public void invalidate(int id) {
+		cache.remove(id);
+	}
+
+	/**
+	 * Drops every cached row.
+	 */
+	public void invalidateAll() {
+		cache.clear();
+	}
+
+	/**
+	 * Returns the number of rows in the cache.
+	 *
+	 * @return the number of cached rows
+	 */
+	int cachedRows() {
+		return cache.size();
+	}
+
+	/**
+	 * Returns the row of an application from the cache, reading it from the
+	 * AppManager and caching it if it is not there.
+	 *
+	 * @param id application id
+	 * @return the row, or null if the application is no longer in the list
+	 */
+	private Object[] rowOf(int id) {
+		Object[] row = cache.get(id);
+		if (row == null) {
+			row = manager.getRow(id);
+			if (row != null) {
+				cache.put(id, row);
+			}
+		}
+		return row;
+	}
+
+	/**
+	 * Puts ids in ascending order into the sort order of the view.
+	 *
+	 * @param sorted ids in ascending order, which may be reordered in place
+	 * @return the ids in the order they are shown
+	 */
+	private int[] order(int[] sorted) {
+		if (sortColumn == 0) {
+			if (!ascending) {
+				for (int i = 0, j = sorted.length - 1; i < j; i++, j--) {
+					int id = sorted[i];
+					sorted[i] = sorted[j];
+					sorted[j] = id;
+				}
+			}
+			return sorted;
+		}
+		// Only the sorted column is read, and nothing is cached, so sorting does not
+		// push the rows on screen out of the cache
+		String[] keys = manager.getColumn(sorted, sortColumn);
+		for (int i = 0; i < keys.length; i++) {
+			if (keys[i] == null) {
+				keys[i] = "";
+			}
+		}
+		// Only the distinct values are sorted, which for the state and type columns
+		// is a handful of strings
+		HashMap<String, Integer> ranks = new HashMap<String, Integer>();
+		for (String key : keys) {
+			ranks.putIfAbsent(key, 0);
+		}
+		String[] distinct = ranks.keySet().toArray(new String[ranks.size()]);
+		Arrays.sort(distinct);
+		for (int i = 0; i < distinct.length; i++) {
+			ranks.put(distinct[i], ascending ? i : distinct.length - i);
+		}
+		// The rank of the key in the high bits and the position in the low bits sort
+		// the ids by key with ties kept in id order
+		long[] order = new long[sorted.length];
+		for (int i = 0; i < sorted.length; i++) {
+			order[i] = ((long) ranks.get(keys[i]) << 32) | i;
+		}
+		Arrays.sort(order);
+		int[] ids = new int[sorted.length];
+		for (int i = 0; i < order.length; i++) {
+			ids[i] = sorted[(int) order[i]];
+		}
+		return ids;
+	}
+}
@@ -0,0 +1,520 @@
+package app_manager.model.manager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import app_manager.model.application.Application;
+
+/**
+ * B+-tree of Applications keyed by their int id. Applications are only held in
+ * the leaves, which are linked in id order, so walking the whole tree or a range
+ * of ids reads consecutive arrays. Inserting and removing an id touches one path
+ * from the root to a leaf, so both are O(log n) with no shifting of the rest of
+ * the Applications.
+ *
+ * @author Christine Weld
+ */
+class AppTree {
+
+	/** Most entries in a leaf and most children of an inner node */
+	static final int MAX_SIZE = 64;
+	/** Fewest entries in a leaf and fewest children of an inner node, except the root */
+	static final int MIN_SIZE = MAX_SIZE / 2;
+
+	/** Root of the tree, a leaf while the tree fits in one */
+	private Node root;
+	/** Number of Applications in the tree */
+	private int size;
+	/** Separator key of the node split off by the last insert into a subtree */
+	private int splitKey;
+
+	/**
+	 * Node of the tree. Arrays have room for one entry over the maximum so a node
+	 * can overflow before it is split.
+	 */
+	private abstract static class Node {
+
+		/** Keys of a leaf, or for an inner node the least key that may be under each child */
+		final int[] keys = new int[MAX_SIZE + 1];
+		/** Number of entries of a leaf or children of an inner node */
+		int size;
+	}
+
+	/**
+	 * Leaf node holding Applications in id order.
+	 */
+	private static final class Leaf extends Node {
+
+		/** Applications of the leaf, at the same positions as their ids */
+		final Application[] values = new Application[MAX_SIZE + 1];
+		/** Next leaf in id order, or null for the last leaf */
+		Leaf next;
+	}
+
+	/**
+	 * Inner node holding child nodes.
+	 */
+	private static final class Inner extends Node {
+
+		/** Children of the node, in id order */
+		final Node[] children = new Node[MAX_SIZE + 1];
+	}
+
+	/**
+	 * Constructs an empty AppTree.
+	 */
+	AppTree() {
+		root = new Leaf();
+	}
+
+	/**
+	 * Builds a tree from Applications in ascending id order with no repeated ids.
+	 * Every node is filled evenly, so the tree is built in linear time.
+	 *
+	 * @param apps  Applications in ascending id order
+	 * @param count number of Applications to take from the start of the array
+	 * @return tree of the Applications
+	 */
+	static AppTree build(Application[] apps, int count) {
+		AppTree tree = new AppTree();
+		if (count == 0) {
+			return tree;
+		}
+		int leafCount = (count + MAX_SIZE - 1) / MAX_SIZE;
+		Node[] level = new Node[leafCount];
+		int[] minKeys = new int[leafCount];
+		Leaf previous = null;
+		int from = 0;
+		for (int i = 0; i < leafCount; i++) {
+			int to = (int) ((long) count * (i + 1) / leafCount);
+			Leaf leaf = new Leaf();
+			for (int j = from; j < to; j++) {
+				leaf.keys[j - from] = apps[j].getAppId();
+				leaf.values[j - from] = apps[j];
+			}
+			leaf.size = to - from;
+			if (previous != null) {
+				previous.next = leaf;
+			}
+			previous = leaf;
+			level[i] = leaf;
+			minKeys[i] = leaf.keys[0];
+			from = to;
+		}
+
+		while (level.length > 1) {
+			int parentCount = (level.length + MAX_SIZE - 1) / MAX_SIZE;
+			Node[] parents = new Node[parentCount];
+			int[] parentKeys = new int[parentCount];
+			from = 0;
+			for (int i = 0; i < parentCount; i++) {
+				int to = (int) ((long) level.length * (i + 1) / parentCount);
+				Inner inner = new Inner();
+				for (int j = from; j < to; j++) {
+					inner.children[j - from] = level[j];
+					inner.keys[j - from] = minKeys[j];
+				}
+				inner.size = to - from;
+				parents[i] = inner;
+				parentKeys[i] = minKeys[from];
+				from = to;
+			}
+			level = parents;
+			minKeys = parentKeys;
+		}
+		tree.root = level[0];
+		tree.size = count;
+		return tree;
+	}
+
+	/**
+	 * Returns the number of Applications in the tree.
+	 *
+	 * @return the number of Applications
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the position of the child of an inner node that may hold the given
+	 * id.
+	 *
+	 * @param node inner node
+	 * @param id   application id
+	 * @return index of the child
+	 */
+	private static int childIndex(Inner node, int id) {
+		int low = 1;
+		int high = node.size - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			if (node.keys[mid] <= id) {
+				low = mid + 1;
+			} else {
+				high = mid - 1;
+			}
+		}
+		return low - 1;
+	}
+
+	/**
+	 * Returns the position of the given id in a leaf, or the position it would be
+	 * inserted at as -(position + 1).
+	 *
+	 * @param leaf leaf to search
+	 * @param id   application id
+	 * @return position of the id, or -(insertion point + 1)
+	 */
+	private static int leafIndex(Leaf leaf, int id) {
+		int low = 0;
+		int high = leaf.size - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			if (leaf.keys[mid] < id) {
+				low = mid + 1;
+			} else if (leaf.keys[mid] > id) {
+				high = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+		return -(low + 1);
+	}
+
+	/**
+	 * Returns the leaf that holds, or would hold, the given id.
+	 *
+	 * @param id application id
+	 * @return leaf for the id
+	 */
+	private Leaf findLeaf(int id) {
+		Node node = root;
+		while (node instanceof Inner) {
+			Inner inner = (Inner) node;
+			node = inner.children[childIndex(inner, id)];
+		}
+		return (Leaf) node;
+	}
+
+	/**
+	 * Returns the Application with the given id.
+	 *
+	 * @param id application id
+	 * @return the Application, or null if there is none
+	 */
+	Application get(int id) {
+		Leaf leaf = findLeaf(id);
+		int index = leafIndex(leaf, id);
+		return index < 0 ? null : leaf.values[index];
+	}
+
+	/**
+	 * Returns the greatest id in the tree.
+	 *
+	 * @return the greatest id
+	 * @throws IllegalStateException if the tree is empty
+	 */
+	int lastId() {
+		if (size == 0) {
+			throw new IllegalStateException();
+		}
+		Node node = root;
+		while (node instanceof Inner) {
+			node = ((Inner) node).children[node.size - 1];
+		}
+		return node.keys[node.size - 1];
+	}
+
+	/**
+	 * Inserts an Application, unless the tree already has one with the same id.
+	 *
+	 * @param app Application to insert
+	 * @return true if the Application was inserted, false if its id was taken
+	 */
+	boolean insert(Application app) {
+		int before = size;
+		Node split = insert(root, app.getAppId(), app);
+		if (split != null) {
+			Inner newRoot = new Inner();
+			newRoot.children[0] = root;
+			newRoot.keys[0] = root.keys[0];
+			newRoot.children[1] = split;
+			newRoot.keys[1] = splitKey;
+			newRoot.size = 2;
+			root = newRoot;
+		}
+		return size > before;
+	}
+
+	/**
+	 * Inserts an Application into a subtree, splitting nodes that overflow.
+	 *
+	 * @param node root of the subtree
+	 * @param id   id of the Application
+	 * @param app  Application to insert
+	 * @return node split off to the right of the subtree's root, with its least
+	 *         key in splitKey, or null if the root did not split
+	 */
+	private Node insert(Node node, int id, Application app) {
+		if (node instanceof Leaf) {
+			Leaf leaf = (Leaf) node;
+			int index = leafIndex(leaf, id);
+			if (index >= 0) {
+				return null;
+			}
+			index = -(index + 1);
+			System.arraycopy(leaf.keys, index, leaf.keys, index + 1, leaf.size - index);
+			System.arraycopy(leaf.values, index, leaf.values, index + 1, leaf.size - index);
+			leaf.keys[index] = id;
+			leaf.values[index] = app;
+			leaf.size++;
+			size++;
+			if (leaf.size <= MAX_SIZE) {
+				return null;
+			}
+
+			Leaf right = new Leaf();
+			int half = leaf.size / 2;
+			right.size = leaf.size - half;
+			System.arraycopy(leaf.keys, half, right.keys, 0, right.size);
+			System.arraycopy(leaf.values, half, right.values, 0, right.size);
+			Arrays.fill(leaf.values, half, leaf.size, null);
+			leaf.size = half;
+			right.next = leaf.next;
+			leaf.next = right;
+			splitKey = right.keys[0];
+			return right;
+		}
+
+		Inner inner = (Inner) node;
+		int index = childIndex(inner, id);
+		Node split = insert(inner.children[index], id, app);
+		if (split == null) {
+			return null;
+		}
+		index++;
+		System.arraycopy(inner.keys, index, inner.keys, index + 1, inner.size - index);
+		System.arraycopy(inner.children, index, inner.children, index + 1, inner.size - index);
+		inner.keys[index] = splitKey;
+		inner.children[index] = split;
+		inner.size++;
+		if (inner.size <= MAX_SIZE) {
+			return null;
+		}
+
+		Inner right = new Inner();
+		int half = inner.size / 2;
+		right.size = inner.size - half;
+		System.arraycopy(inner.keys, half, right.keys, 0, right.size);
+		System.arraycopy(inner.children, half, right.children, 0, right.size);
+		Arrays.fill(inner.children, half, inner.size, null);
+		inner.size = half;
+		splitKey = right.keys[0];
+		return right;
+	}
+
+	/**
+	 * Removes the Application with the given id.
+	 *
+	 * @param id application id
+	 * @return the Application that was removed, or null if there was none
+	 */
+	Application remove(int id) {
+		Application removed = remove(root, id);
+		if (root instanceof Inner && root.size == 1) {
+			root = ((Inner) root).children[0];
+		}
+		return removed;
+	}
+
+	/**
+	 * Removes an id from a subtree, rebalancing children that underflow.
+	 *
+	 * @param node root of the subtree
+	 * @param id   application id
+	 * @return the Application that was removed, or null if there was none
+	 */
+	private Application remove(Node node, int id) {
+		if (node instanceof Leaf) {
+			Leaf leaf = (Leaf) node;
+			int index = leafIndex(leaf, id);
+			if (index < 0) {
+				return null;
+			}
+			Application removed = leaf.values[index];
+			System.arraycopy(leaf.keys, index + 1, leaf.keys, index, leaf.size - index - 1);
+			System.arraycopy(leaf.values, index + 1, leaf.values, index, leaf.size - index - 1);
+			leaf.size--;
+			leaf.values[leaf.size] = null;
+			size--;
+			return removed;
+		}
+
+		Inner inner = (Inner) node;
+		int index = childIndex(inner, id);
+		Node child = inner.children[index];
+		Application removed = remove(child, id);
+		if (removed != null && child.size < MIN_SIZE) {
+			rebalance(inner, index);
+		}
+		return removed;
+	}
+
+	/**
+	 * Refills an underflowing child of an inner node by moving one entry over
+	 * from a sibling, or merges it with a sibling if neither can spare one.
+	 *
+	 * @param parent inner node
+	 * @param index  position of the underflowing child
+	 */
+	private static void rebalance(Inner parent, int index) {
+		Node child = parent.children[index];
+		Node left = index > 0 ? parent.children[index - 1] : null;
+		Node right = index + 1 < parent.size ? parent.children[index + 1] : null;
+
+		if (left != null && left.size > MIN_SIZE) {
+			shiftRight(left, child, parent, index);
+		} else if (right != null && right.size > MIN_SIZE) {
+			shiftLeft(child, right, parent, index + 1);
+		} else if (left != null) {
+			merge(left, child, parent, index);
+		} else if (right != null) {
+			merge(child, right, parent, index + 1);
+		}
+	}
+
+	/**
+	 * Moves the last entry of a node to the front of its right sibling.
+	 *
+	 * @param left   node giving an entry
+	 * @param right  node receiving the entry
+	 * @param parent parent of both nodes
+	 * @param index  position of the right node in the parent
+	 */
+	private static void shiftRight(Node left, Node right, Inner parent, int index) {
+		int last = left.size - 1;
+		System.arraycopy(right.keys, 0, right.keys, 1, right.size);
+		right.keys[0] = left.keys[last];
+		if (right instanceof Leaf) {
+			Leaf l = (Leaf) left;
+			Leaf r = (Leaf) right;
+			System.arraycopy(r.values, 0, r.values, 1, r.size);
+			r.values[0] = l.values[last];
+			l.values[last] = null;
+		} else {
+			Inner l = (Inner) left;
+			Inner r = (Inner) right;
+			// the old separator is the least key of the right node's old first child
+			r.keys[1] = parent.keys[index];
+			System.arraycopy(r.children, 0, r.children, 1, r.size);
+			r.children[0] = l.children[last];
+			l.children[last] = null;
+		}
+		left.size--;
+		right.size++;
+		parent.keys[index] = right.keys[0];
+	}
+
+	/**
+	 * Moves the first entry of a node to the end of its left sibling.
+	 *
+	 * @param left   node receiving the entry
+	 * @param right  node giving an entry
+	 * @param parent parent of both nodes
+	 * @param index  position of the right node in the parent
+	 */
+	private static void shiftLeft(Node left, Node right, Inner parent, int index) {
+		if (right instanceof Leaf) {
+			Leaf l = (Leaf) left;
+			Leaf r = (Leaf) right;
+			l.keys[l.size] = r.keys[0];
+			l.values[l.size] = r.values[0];
+			System.arraycopy(r.values, 1, r.values, 0, r.size - 1);
+			r.values[r.size - 1] = null;
+		} else {
+			Inner l = (Inner) left;
+			Inner r = (Inner) right;
+			l.keys[l.size] = parent.keys[index];
+			l.children[l.size] = r.children[0];
+			System.arraycopy(r.children, 1, r.children, 0, r.size - 1);
+			r.children[r.size - 1] = null;
+		}
+		System.arraycopy(right.keys, 1, right.keys, 0, right.size - 1);
+		left.size++;
+		right.size--;
+		parent.keys[index] = right.keys[0];
+	}
+
+	/**
+	 * Moves every entry of a node into its left sibling and removes the node from
+	 * the parent.
+	 *
+	 * @param left   node receiving the entries
+	 * @param right  node to remove
+	 * @param parent parent of both nodes
+	 * @param index  position of the right node in the parent
+	 */
+	private static void merge(Node left, Node right, Inner parent, int index) {
+		System.arraycopy(right.keys, 0, left.keys, left.size, right.size);
+		if (left instanceof Leaf) {
+			Leaf l = (Leaf) left;
+			Leaf r = (Leaf) right;
+			System.arraycopy(r.values, 0, l.values, l.size, r.size);
+			l.next = r.next;
+		} else {
+			Inner l = (Inner) left;
+			Inner r = (Inner) right;
+			l.keys[l.size] = parent.keys[index];
+			System.arraycopy(r.children, 0, l.children, l.size, r.size);
+		}
+		left.size += right.size;
+
+		System.arraycopy(parent.keys, index + 1, parent.keys, index, parent.size - index - 1);
+		System.arraycopy(parent.children, index + 1, parent.children, index, parent.size - index - 1);
+		parent.size--;
+		parent.children[parent.size] = null;
+	}
+
+	/**
+	 * Appends every Application to a list in id order.
+	 *
+	 * @param list list to append to
+	 */
+	void appendTo(ArrayList<Application> list) {
+		Node node = root;
+		while (node instanceof Inner) {
+			node = ((Inner) node).children[0];
+		}
+		for (Leaf leaf = (Leaf) node; leaf != null; leaf = leaf.next) {
+			for (int i = 0; i < leaf.size; i++) {
+				list.add(leaf.values[i]);
+			}
+		}
+	}
+
+	/**
+	 * Appends the Applications with ids from fromId, inclusive, to toId, exclusive,
+	 * to a list in id order.
+	 *
+	 * @param fromId least id to append
+	 * @param toId   id after the greatest id to append
+	 * @param list   list to append to
+	 */
+	void appendRange(int fromId, int toId, ArrayList<Application> list) {
+		if (fromId >= toId) {
+			return;
+		}
+		Leaf leaf = findLeaf(fromId);
+		int index = leafIndex(leaf, fromId);
+		index = index < 0 ? -(index + 1) : index;
+		for (; leaf != null; leaf = leaf.next, index = 0) {
+			for (; index < leaf.size; index++) {
+				if (leaf.keys[index] >= toId) {
+					return;
+				}
+				list.add(leaf.values[index]);
+			}
+		}
+	}
+}
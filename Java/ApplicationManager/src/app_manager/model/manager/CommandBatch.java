@@ -0,0 +1,97 @@
+package app_manager.model.manager;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import app_manager.model.command.Command;
+
+/**
+ * Commands for many applications, at most one per application id, to be run
+ * together by AppList.executeCommands(). The commands are held in ascending id
+ * order, so the applications are looked up in one pass over the list.
+ *
+ * @author Christine Weld
+ */
+public class CommandBatch {
+
+	/**
+	 * Outcome of the command for one application of a batch.
+	 */
+	public enum Outcome {
+		/** the command was applied */
+		UPDATED,
+		/** the command is not a valid action for the state of the application */
+		INVALID,
+		/** the list has no application with the id */
+		NOT_FOUND
+	}
+
+	/** Application ids, in ascending order */
+	private final int[] ids;
+	/** Commands, in the same order as ids */
+	private final Command[] commands;
+
+	/**
+	 * Constructs a CommandBatch from commands keyed by application id.
+	 *
+	 * @param commands command for each application id
+	 * @throws IllegalArgumentException "Invalid information." if commands is null
+	 *                                  or holds a null id or command
+	 */
+	public CommandBatch(Map<Integer, Command> commands) {
+		if (commands == null) {
+			throw new IllegalArgumentException("Invalid information.");
+		}
+		int count = commands.size();
+		int[] unsortedIds = new int[count];
+		Command[] unsortedCommands = new Command[count];
+		// The id in the high bits and the position in the low bits sort by id
+		long[] order = new long[count];
+		int i = 0;
+		for (Map.Entry<Integer, Command> entry : commands.entrySet()) {
+			if (entry.getKey() == null || entry.getValue() == null) {
+				throw new IllegalArgumentException("Invalid information.");
+			}
+			unsortedIds[i] = entry.getKey();
+			unsortedCommands[i] = entry.getValue();
+			order[i] = ((long) unsortedIds[i] << 32) | i;
+			i++;
+		}
+		Arrays.sort(order);
+		this.ids = new int[count];
+		this.commands = new Command[count];
+		for (i = 0; i < count; i++) {
+			ids[i] = unsortedIds[(int) order[i]];
+			this.commands[i] = unsortedCommands[(int) order[i]];
+		}
+	}
+
+	/**
+	 * Returns the number of commands.
+	 *
+	 * @return the number of commands
+	 */
+	public int size() {
+		return ids.length;
+	}
+
+	/**
+	 * Returns the application id of a command.
+	 *
+	 * @param index position of the command in id order
+	 * @return the application id
+	 */
+	public int getIdAt(int index) {
+		return ids[index];
+	}
+
+	/**
+	 * Returns a command.
+	 *
+	 * @param index position of the command in id order
+	 * @return the command
+	 */
+	public Command getCommandAt(int index) {
+		return commands[index];
+	}
+}
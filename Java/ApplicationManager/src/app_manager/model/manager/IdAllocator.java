@@ -0,0 +1,78 @@
+package app_manager.model.manager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out application ids. Ids are allocated in increasing order from a
+ * single atomic counter, so allocation is one atomic increment, is safe from
+ * any thread, and never returns an id twice. The counter only moves forward:
+ * deleting an Application does not give its id back, and ids loaded from a
+ * file are reserved so they are not handed out again.
+ *
+ * @author Christine Weld
+ */
+class IdAllocator {
+
+	/** Id the next allocation returns, or Integer.MAX_VALUE once ids run out */
+	private final AtomicInteger next;
+
+	/**
+	 * Constructs an IdAllocator that starts at id 1.
+	 */
+	IdAllocator() {
+		next = new AtomicInteger(1);
+	}
+
+	/**
+	 * Returns a new id, greater than every id allocated or reserved before.
+	 *
+	 * @return the new id
+	 * @throws IllegalStateException if every positive int has been used
+	 */
+	int allocate() {
+		int id = next.getAndUpdate(n -> n == Integer.MAX_VALUE ? n : n + 1);
+		if (id == Integer.MAX_VALUE) {
+			throw new IllegalStateException();
+		}
+		return id;
+	}
+
+	/**
+	 * Makes sure no id up to the given one is allocated from now on.
+	 *
+	 * @param id greatest id in use
+	 */
+	void reserve(int id) {
+		if (id > 0) {
+			next.accumulateAndGet(id == Integer.MAX_VALUE ? id : id + 1, Math::max);
+		}
+	}
+
+	/**
+	 * Starts allocating again after the given id, for use when the ids in use are
+	 * replaced as a whole.
+	 *
+	 * @param id greatest id in use, or 0 for none
+	 */
+	void reset(int id) {
+		next.set(id <= 0 ? 1 : id == Integer.MAX_VALUE ? id : id + 1);
+	}
+
+	/**
+	 * Returns the id the next allocation will return.
+	 *
+	 * @return the next id
+	 */
+	int peek() {
+		return next.get();
+	}
+
+	/**
+	 * Returns the greatest id allocated or reserved so far.
+	 *
+	 * @return the high-water mark, or 0 if no id has been used
+	 */
+	int highWaterMark() {
+		return next.get() - 1;
+	}
+}
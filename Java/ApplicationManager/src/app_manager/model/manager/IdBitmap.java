@@ -0,0 +1,625 @@
+package app_manager.model.manager;
+
+import java.util.Arrays;
+
+/**
+ * Compressed set of application ids, split the same way as a Roaring bitmap.
+ * Ids are grouped by their high 16 bits, and each group keeps its low 16 bits in
+ * a container: a sorted array while the group holds at most 4096 ids, and a
+ * 65536-bit bitmap once it holds more. Sparse sets stay small, and dense sets
+ * are combined a 64-bit word at a time.
+ *
+ * @author Christine Weld
+ */
+class IdBitmap {
+
+	/** Most ids an array container holds before it becomes a bitmap container */
+	static final int ARRAY_MAX = 4096;
+	/** Number of 64-bit words in a bitmap container */
+	private static final int WORDS = 1024;
+
+	/** High 16 bits of the ids in each container, in ascending order */
+	private char[] keys;
+	/** Containers of the low 16 bits, at the same positions as their keys */
+	private Container[] containers;
+	/** Number of containers */
+	private int size;
+
+	/**
+	 * Constructs an empty IdBitmap.
+	 */
+	IdBitmap() {
+		keys = new char[4];
+		containers = new Container[4];
+	}
+
+	/**
+	 * Constructs an IdBitmap holding the given ids.
+	 *
+	 * @param ids ids to add
+	 * @return bitmap of the ids
+	 */
+	static IdBitmap of(int... ids) {
+		IdBitmap bitmap = new IdBitmap();
+		for (int id : ids) {
+			bitmap.add(id);
+		}
+		return bitmap;
+	}
+
+	/**
+	 * Adds an id to the set.
+	 *
+	 * @param id id to add
+	 */
+	void add(int id) {
+		char key = (char) (id >>> 16);
+		int index = indexOf(key);
+		if (index < 0) {
+			index = -(index + 1);
+			insert(index, key, new ArrayContainer());
+		}
+		containers[index] = containers[index].add((char) id);
+	}
+
+	/**
+	 * Removes an id from the set.
+	 *
+	 * @param id id to remove
+	 */
+	void remove(int id) {
+		int index = indexOf((char) (id >>> 16));
+		if (index >= 0) {
+			Container container = containers[index].remove((char) id);
+			if (container.cardinality() == 0) {
+				System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+				System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+				size--;
+				containers[size] = null;
+			} else {
+				containers[index] = container;
+			}
+		}
+	}
+
+	/**
+	 * Returns true if the set holds the given id.
+	 *
+	 * @param id id to look for
+	 * @return true if the id is in the set
+	 */
+	boolean contains(int id) {
+		int index = indexOf((char) (id >>> 16));
+		return index >= 0 && containers[index].contains((char) id);
+	}
+
+	/**
+	 * Returns the number of ids in the set.
+	 *
+	 * @return the number of ids
+	 */
+	int cardinality() {
+		int cardinality = 0;
+		for (int i = 0; i < size; i++) {
+			cardinality += containers[i].cardinality();
+		}
+		return cardinality;
+	}
+
+	/**
+	 * Returns true if the set holds no ids.
+	 *
+	 * @return true if the set is empty
+	 */
+	boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Returns the ids of the set in ascending order.
+	 *
+	 * @return array of ids
+	 */
+	int[] toArray() {
+		int[] ids = new int[cardinality()];
+		int pos = 0;
+		for (int i = 0; i < size; i++) {
+			pos = containers[i].fill(keys[i] << 16, ids, pos);
+		}
+		return ids;
+	}
+
+	/**
+	 * Returns the ids that are in both this set and the given one.
+	 *
+	 * @param other set to intersect with
+	 * @return new set of the common ids
+	 */
+	IdBitmap and(IdBitmap other) {
+		IdBitmap result = new IdBitmap();
+		int i = 0;
+		int j = 0;
+		while (i < size && j < other.size) {
+			if (keys[i] < other.keys[j]) {
+				i++;
+			} else if (keys[i] > other.keys[j]) {
+				j++;
+			} else {
+				result.append(keys[i], and(containers[i], other.containers[j]));
+				i++;
+				j++;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the ids that are in this set, the given one, or both.
+	 *
+	 * @param other set to unite with
+	 * @return new set of the ids in either set
+	 */
+	IdBitmap or(IdBitmap other) {
+		IdBitmap result = new IdBitmap();
+		int i = 0;
+		int j = 0;
+		while (i < size || j < other.size) {
+			if (j == other.size || (i < size && keys[i] < other.keys[j])) {
+				result.append(keys[i], containers[i].copy());
+				i++;
+			} else if (i == size || keys[i] > other.keys[j]) {
+				result.append(other.keys[j], other.containers[j].copy());
+				j++;
+			} else {
+				result.append(keys[i], or(containers[i], other.containers[j]));
+				i++;
+				j++;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the ids that are in this set but not in the given one.
+	 *
+	 * @param other set of ids to leave out
+	 * @return new set of the remaining ids
+	 */
+	IdBitmap andNot(IdBitmap other) {
+		IdBitmap result = new IdBitmap();
+		int j = 0;
+		for (int i = 0; i < size; i++) {
+			while (j < other.size && other.keys[j] < keys[i]) {
+				j++;
+			}
+			if (j < other.size && other.keys[j] == keys[i]) {
+				result.append(keys[i], andNot(containers[i], other.containers[j]));
+			} else {
+				result.append(keys[i], containers[i].copy());
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the ids of the set in the form "{1, 2, 3}".
+	 *
+	 * @return String form of the set
+	 */
+	@Override
+	public String toString() {
+		return Arrays.toString(toArray()).replace('[', '{').replace(']', '}');
+	}
+
+	/**
+	 * Returns the position of a key, or the position it would be inserted at as
+	 * -(position + 1).
+	 *
+	 * @param key high 16 bits of an id
+	 * @return position of the key, or -(insertion point + 1)
+	 */
+	private int indexOf(char key) {
+		return Arrays.binarySearch(keys, 0, size, key);
+	}
+
+	/**
+	 * Inserts a container at the given position.
+	 *
+	 * @param index     position to insert at
+	 * @param key       high 16 bits of the container's ids
+	 * @param container container to insert
+	 */
+	private void insert(int index, char key, Container container) {
+		if (size == keys.length) {
+			keys = Arrays.copyOf(keys, size * 2);
+			containers = Arrays.copyOf(containers, size * 2);
+		}
+		System.arraycopy(keys, index, keys, index + 1, size - index);
+		System.arraycopy(containers, index, containers, index + 1, size - index);
+		keys[index] = key;
+		containers[index] = container;
+		size++;
+	}
+
+	/**
+	 * Adds a container after all the others, unless it is empty.
+	 *
+	 * @param key       high 16 bits of the container's ids, greater than any key
+	 *                  so far
+	 * @param container container to add
+	 */
+	private void append(char key, Container container) {
+		if (container.cardinality() > 0) {
+			insert(size, key, container);
+		}
+	}
+
+	/**
+	 * Intersects two containers.
+	 *
+	 * @param a first container
+	 * @param b second container
+	 * @return new container of the common values
+	 */
+	private static Container and(Container a, Container b) {
+		if (a instanceof BitmapContainer && b instanceof BitmapContainer) {
+			BitmapContainer result = new BitmapContainer();
+			long[] x = ((BitmapContainer) a).words;
+			long[] y = ((BitmapContainer) b).words;
+			for (int i = 0; i < WORDS; i++) {
+				result.words[i] = x[i] & y[i];
+			}
+			return result.recount().shrink();
+		}
+		ArrayContainer array = (ArrayContainer) (a instanceof ArrayContainer ? a : b);
+		Container other = array == a ? b : a;
+		ArrayContainer result = new ArrayContainer(array.size);
+		for (int i = 0; i < array.size; i++) {
+			if (other.contains(array.values[i])) {
+				result.values[result.size++] = array.values[i];
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Unites two containers.
+	 *
+	 * @param a first container
+	 * @param b second container
+	 * @return new container of the values in either container
+	 */
+	private static Container or(Container a, Container b) {
+		if (a instanceof ArrayContainer && b instanceof ArrayContainer
+				&& a.cardinality() + b.cardinality() <= ARRAY_MAX) {
+			ArrayContainer x = (ArrayContainer) a;
+			ArrayContainer y = (ArrayContainer) b;
+			ArrayContainer result = new ArrayContainer(x.size + y.size);
+			int i = 0;
+			int j = 0;
+			while (i < x.size || j < y.size) {
+				if (j == y.size || (i < x.size && x.values[i] < y.values[j])) {
+					result.values[result.size++] = x.values[i++];
+				} else if (i == x.size || x.values[i] > y.values[j]) {
+					result.values[result.size++] = y.values[j++];
+				} else {
+					result.values[result.size++] = x.values[i++];
+					j++;
+				}
+			}
+			return result;
+		}
+		BitmapContainer result = a.toBitmap();
+		if (b instanceof BitmapContainer) {
+			long[] y = ((BitmapContainer) b).words;
+			for (int i = 0; i < WORDS; i++) {
+				result.words[i] |= y[i];
+			}
+		} else {
+			ArrayContainer y = (ArrayContainer) b;
+			for (int i = 0; i < y.size; i++) {
+				result.words[y.values[i] >>> 6] |= 1L << y.values[i];
+			}
+		}
+		return result.recount().shrink();
+	}
+
+	/**
+	 * Subtracts one container from another.
+	 *
+	 * @param a container to subtract from
+	 * @param b container of values to leave out
+	 * @return new container of the values of a that are not in b
+	 */
+	private static Container andNot(Container a, Container b) {
+		if (a instanceof ArrayContainer) {
+			ArrayContainer x = (ArrayContainer) a;
+			ArrayContainer result = new ArrayContainer(x.size);
+			for (int i = 0; i < x.size; i++) {
+				if (!b.contains(x.values[i])) {
+					result.values[result.size++] = x.values[i];
+				}
+			}
+			return result;
+		}
+		BitmapContainer result = a.toBitmap();
+		if (b instanceof BitmapContainer) {
+			long[] y = ((BitmapContainer) b).words;
+			for (int i = 0; i < WORDS; i++) {
+				result.words[i] &= ~y[i];
+			}
+		} else {
+			ArrayContainer y = (ArrayContainer) b;
+			for (int i = 0; i < y.size; i++) {
+				result.words[y.values[i] >>> 6] &= ~(1L << y.values[i]);
+			}
+		}
+		return result.recount().shrink();
+	}
+
+	/**
+	 * Set of the low 16 bits of the ids with the same high 16 bits.
+	 */
+	private abstract static class Container {
+
+		/**
+		 * Returns the number of values in the container.
+		 *
+		 * @return the number of values
+		 */
+		abstract int cardinality();
+
+		/**
+		 * Returns true if the container holds the given value.
+		 *
+		 * @param value low 16 bits of an id
+		 * @return true if the value is in the container
+		 */
+		abstract boolean contains(char value);
+
+		/**
+		 * Adds a value, converting the container if it grows too large.
+		 *
+		 * @param value low 16 bits of an id
+		 * @return the container holding the values, this one or a converted one
+		 */
+		abstract Container add(char value);
+
+		/**
+		 * Removes a value, converting the container if it shrinks enough.
+		 *
+		 * @param value low 16 bits of an id
+		 * @return the container holding the values, this one or a converted one
+		 */
+		abstract Container remove(char value);
+
+		/**
+		 * Returns a copy of the container.
+		 *
+		 * @return the copy
+		 */
+		abstract Container copy();
+
+		/**
+		 * Returns a new bitmap container with the same values.
+		 *
+		 * @return the bitmap container
+		 */
+		abstract BitmapContainer toBitmap();
+
+		/**
+		 * Writes the ids of the container to an array.
+		 *
+		 * @param high high 16 bits of the ids, already shifted
+		 * @param ids  array to write to
+		 * @param pos  position to write the first id at
+		 * @return position after the last id written
+		 */
+		abstract int fill(int high, int[] ids, int pos);
+	}
+
+	/**
+	 * Container holding its values in a sorted array.
+	 */
+	private static final class ArrayContainer extends Container {
+
+		/** Values in ascending order */
+		char[] values;
+		/** Number of values */
+		int size;
+
+		/**
+		 * Constructs an empty ArrayContainer.
+		 */
+		ArrayContainer() {
+			this(4);
+		}
+
+		/**
+		 * Constructs an empty ArrayContainer with room for the given number of
+		 * values.
+		 *
+		 * @param capacity number of values to make room for
+		 */
+		ArrayContainer(int capacity) {
+			values = new char[Math.max(capacity, 1)];
+		}
+
+		@Override
+		int cardinality() {
+			return size;
+		}
+
+		@Override
+		boolean contains(char value) {
+			return Arrays.binarySearch(values, 0, size, value) >= 0;
+		}
+
+		@Override
+		Container add(char value) {
+			int index = Arrays.binarySearch(values, 0, size, value);
+			if (index >= 0) {
+				return this;
+			}
+			if (size == ARRAY_MAX) {
+				return toBitmap().add(value);
+			}
+			index = -(index + 1);
+			if (size == values.length) {
+				values = Arrays.copyOf(values, Math.min(size * 2, ARRAY_MAX));
+			}
+			System.arraycopy(values, index, values, index + 1, size - index);
+			values[index] = value;
+			size++;
+			return this;
+		}
+
+		@Override
+		Container remove(char value) {
+			int index = Arrays.binarySearch(values, 0, size, value);
+			if (index >= 0) {
+				System.arraycopy(values, index + 1, values, index, size - index - 1);
+				size--;
+			}
+			return this;
+		}
+
+		@Override
+		Container copy() {
+			ArrayContainer copy = new ArrayContainer(size);
+			System.arraycopy(values, 0, copy.values, 0, size);
+			copy.size = size;
+			return copy;
+		}
+
+		@Override
+		BitmapContainer toBitmap() {
+			BitmapContainer bitmap = new BitmapContainer();
+			for (int i = 0; i < size; i++) {
+				bitmap.words[values[i] >>> 6] |= 1L << values[i];
+			}
+			bitmap.cardinality = size;
+			return bitmap;
+		}
+
+		@Override
+		int fill(int high, int[] ids, int pos) {
+			for (int i = 0; i < size; i++) {
+				ids[pos++] = high | values[i];
+			}
+			return pos;
+		}
+	}
+
+	/**
+	 * Container holding its values as bits of 65536-bit bitmap.
+	 */
+	private static final class BitmapContainer extends Container {
+
+		/** Bits of the values, 64 to a word */
+		final long[] words = new long[WORDS];
+		/** Number of bits set */
+		int cardinality;
+
+		@Override
+		int cardinality() {
+			return cardinality;
+		}
+
+		@Override
+		boolean contains(char value) {
+			return (words[value >>> 6] & (1L << value)) != 0;
+		}
+
+		@Override
+		Container add(char value) {
+			long before = words[value >>> 6];
+			words[value >>> 6] = before | (1L << value);
+			if (words[value >>> 6] != before) {
+				cardinality++;
+			}
+			return this;
+		}
+
+		@Override
+		Container remove(char value) {
+			long before = words[value >>> 6];
+			words[value >>> 6] = before & ~(1L << value);
+			if (words[value >>> 6] != before) {
+				cardinality--;
+			}
+			return shrink();
+		}
+
+		@Override
+		Container copy() {
+			BitmapContainer copy = new BitmapContainer();
+			System.arraycopy(words, 0, copy.words, 0, WORDS);
+			copy.cardinality = cardinality;
+			return copy;
+		}
+
+		@Override
+		BitmapContainer toBitmap() {
+			return (BitmapContainer) copy();
+		}
+
+		/**
+		 * Counts the bits set after the words were changed directly.
+		 *
+		 * @return this container
+		 */
+		BitmapContainer recount() {
+			cardinality = 0;
+			for (int i = 0; i < WORDS; i++) {
+				cardinality += Long.bitCount(words[i]);
+			}
+			return this;
+		}
+
+		/**
+		 * Returns an array container with the same values if there are few enough
+		 * of them, or this container otherwise.
+		 *
+		 * @return the container holding the values
+		 */
+		Container shrink() {
+			if (cardinality > ARRAY_MAX) {
+				return this;
+			}
+			ArrayContainer array = new ArrayContainer(cardinality);
+			array.size = toValues(array.values);
+			return array;
+		}
+
+		@Override
+		int fill(int high, int[] ids, int pos) {
+			for (int i = 0; i < WORDS; i++) {
+				long word = words[i];
+				while (word != 0) {
+					ids[pos++] = high | (i << 6) | Long.numberOfTrailingZeros(word);
+					word &= word - 1;
+				}
+			}
+			return pos;
+		}
+
+		/**
+		 * Writes the values of the container to a char array in ascending order.
+		 *
+		 * @param values array to write to
+		 * @return number of values written
+		 */
+		private int toValues(char[] values) {
+			int pos = 0;
+			for (int i = 0; i < WORDS; i++) {
+				long word = words[i];
+				while (word != 0) {
+					values[pos++] = (char) ((i << 6) | Long.numberOfTrailingZeros(word));
+					word &= word - 1;
+				}
+			}
+			return pos;
+		}
+	}
+}
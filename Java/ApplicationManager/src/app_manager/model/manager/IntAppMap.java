@@ -0,0 +1,203 @@
+package app_manager.model.manager;
+
+import app_manager.model.application.Application;
+
+/**
+ * Hash map from application id to Application, with the ids kept as primitive
+ * ints. Entries are stored in two parallel arrays using open addressing with
+ * linear probing, so a lookup is a multiply, a mask and usually a single array
+ * read. An empty slot is one with no Application, so every int is a valid key.
+ *
+ * @author Christine Weld
+ */
+class IntAppMap {
+
+	/** Capacity of a new map, a power of two */
+	private static final int INITIAL_CAPACITY = 16;
+
+	/** Ids of the entries, by slot */
+	private int[] keys;
+	/** Applications of the entries, by slot, or null for an empty slot */
+	private Application[] values;
+	/** Number of entries in the map */
+	private int size;
+	/** Slot index mask, one less than the capacity */
+	private int mask;
+
+	/**
+	 * Constructs an empty IntAppMap.
+	 */
+	IntAppMap() {
+		this(0);
+	}
+
+	/**
+	 * Constructs an empty IntAppMap with room for the given number of entries
+	 * before it has to grow.
+	 *
+	 * @param expectedSize number of entries the map should hold without growing
+	 */
+	IntAppMap(int expectedSize) {
+		int capacity = INITIAL_CAPACITY;
+		while (capacity < expectedSize * 2) {
+			capacity <<= 1;
+		}
+		allocate(capacity);
+	}
+
+	/**
+	 * Replaces the arrays with empty ones of the given capacity.
+	 *
+	 * @param capacity new capacity, a power of two
+	 */
+	private void allocate(int capacity) {
+		keys = new int[capacity];
+		values = new Application[capacity];
+		mask = capacity - 1;
+	}
+
+	/**
+	 * Returns the home slot of an id. Ids are mostly consecutive, so they are
+	 * spread over the table with a multiplicative hash.
+	 *
+	 * @param id application id
+	 * @return home slot of the id
+	 */
+	private int slot(int id) {
+		return slot(id, mask);
+	}
+
+	/**
+	 * Returns the home slot of an id in a table with the given mask.
+	 *
+	 * @param id   application id
+	 * @param mask slot index mask of the table
+	 * @return home slot of the id
+	 */
+	private static int slot(int id, int mask) {
+		int h = id * 0x9E3779B9;
+		return (h ^ (h >>> 16)) & mask;
+	}
+
+	/**
+	 * Returns the number of entries in the map.
+	 *
+	 * @return the number of entries
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the Application with the given id. The table is read through local
+	 * copies of its arrays, so a reader racing with a writer that grows the table
+	 * probes a single table, which always has an empty slot, and cannot loop. Such
+	 * a reader may still see a wrong entry and must check for changes itself.
+	 *
+	 * @param id application id
+	 * @return the Application, or null if there is none
+	 */
+	Application get(int id) {
+		Application[] vals = values;
+		int[] ks = keys;
+		int m = vals.length - 1;
+		for (int i = slot(id, m);; i = (i + 1) & m) {
+			Application value = vals[i];
+			if (value == null || ks[i] == id) {
+				return value;
+			}
+		}
+	}
+
+	/**
+	 * Maps the given id to the given Application.
+	 *
+	 * @param id  application id
+	 * @param app Application to map the id to
+	 * @return the Application the id was mapped to before, or null if there was
+	 *         none
+	 * @throws NullPointerException if the Application is null
+	 */
+	Application put(int id, Application app) {
+		if (app == null) {
+			throw new NullPointerException();
+		}
+		int i = slot(id);
+		for (; values[i] != null; i = (i + 1) & mask) {
+			if (keys[i] == id) {
+				Application previous = values[i];
+				values[i] = app;
+				return previous;
+			}
+		}
+		keys[i] = id;
+		values[i] = app;
+		if (++size * 2 > values.length) {
+			grow();
+		}
+		return null;
+	}
+
+	/**
+	 * Removes the entry with the given id. Later entries of the probe sequence
+	 * are shifted back over the freed slot, so lookups never have to skip over
+	 * deleted slots.
+	 *
+	 * @param id application id
+	 * @return the Application that was removed, or null if there was none
+	 */
+	Application remove(int id) {
+		int i = slot(id);
+		for (; values[i] != null; i = (i + 1) & mask) {
+			if (keys[i] == id) {
+				break;
+			}
+		}
+		Application removed = values[i];
+		if (removed == null) {
+			return null;
+		}
+
+		int free = i;
+		for (int j = (i + 1) & mask; values[j] != null; j = (j + 1) & mask) {
+			int home = slot(keys[j]);
+			// The entry at j may move to the free slot if its home slot is not in
+			// the cyclic range (free, j]
+			if (((j - home) & mask) >= ((j - free) & mask)) {
+				keys[free] = keys[j];
+				values[free] = values[j];
+				free = j;
+			}
+		}
+		values[free] = null;
+		size--;
+		return removed;
+	}
+
+	/**
+	 * Removes every entry.
+	 */
+	void clear() {
+		allocate(INITIAL_CAPACITY);
+		size = 0;
+	}
+
+	/**
+	 * Doubles the capacity and rehashes every entry.
+	 */
+	private void grow() {
+		int[] oldKeys = keys;
+		Application[] oldValues = values;
+		allocate(oldValues.length * 2);
+		for (int i = 0; i < oldValues.length; i++) {
+			if (oldValues[i] != null) {
+				int j = slot(oldKeys[i]);
+				while (values[j] != null) {
+					j = (j + 1) & mask;
+				}
+				keys[j] = oldKeys[i];
+				values[j] = oldValues[i];
+			}
+		}
+	}
+}
@@ -0,0 +1,99 @@
+package app_manager.model.manager;
+
+import java.util.ArrayList;
+
+import app_manager.model.application.Application;
+
+/**
+ * Result of running an AppQuery on an AppList: the ids of the matching
+ * applications in id order, the applications themselves, and how long the
+ * query took.
+ * 
+ * @author Christine Weld
+ */
+public class QueryResult {
+
+	/** Query that was run */
+	private final AppQuery query;
+	/** Ids of the matching applications in id order */
+	private final int[] ids;
+	/** Matching applications in id order */
+	private final ArrayList<Application> apps;
+	/** Nanoseconds spent evaluating the query on the indexes */
+	private final long evaluateNanos;
+	/** Nanoseconds spent looking up the matching applications */
+	private final long fetchNanos;
+
+	/**
+	 * Constructs a QueryResult.
+	 * 
+	 * @param query         query that was run
+	 * @param ids           ids of the matching applications in id order
+	 * @param apps          matching applications in id order
+	 * @param evaluateNanos nanoseconds spent evaluating the query
+	 * @param fetchNanos    nanoseconds spent looking up the applications
+	 */
+	QueryResult(AppQuery query, int[] ids, ArrayList<Application> apps, long evaluateNanos, long fetchNanos) {
+		this.query = query;
+		this.ids = ids;
+		this.apps = apps;
+		this.evaluateNanos = evaluateNanos;
+		this.fetchNanos = fetchNanos;
+	}
+
+	/**
+	 * Returns the ids of the matching applications.
+	 * 
+	 * @return array of ids in id order
+	 */
+	public int[] getIds() {
+		return ids.clone();
+	}
+
+	/**
+	 * Returns the matching applications.
+	 * 
+	 * @return list of applications in id order
+	 */
+	public ArrayList<Application> getApps() {
+		return apps;
+	}
+
+	/**
+	 * Returns the number of matching applications.
+	 * 
+	 * @return the number of matches
+	 */
+	public int size() {
+		return ids.length;
+	}
+
+	/**
+	 * Returns the nanoseconds spent evaluating the query on the indexes.
+	 * 
+	 * @return evaluation time in nanoseconds
+	 */
+	public long getEvaluateNanos() {
+		return evaluateNanos;
+	}
+
+	/**
+	 * Returns the nanoseconds spent looking up the matching applications.
+	 * 
+	 * @return lookup time in nanoseconds
+	 */
+	public long getFetchNanos() {
+		return fetchNanos;
+	}
+
+	/**
+	 * Returns the query, the number of matches and the timing.
+	 * 
+	 * @return String form of the result
+	 */
+	@Override
+	public String toString() {
+		return query + ": " + ids.length + " matches, evaluated in " + evaluateNanos / 1000 + " us, fetched in "
+				+ fetchNanos / 1000 + " us";
+	}
+}
@@ -9,7 +9,11 @@ import java.awt.GridBagLayout;
 import java.awt.GridLayout;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
 import java.io.File;
+import java.util.Arrays;
+import java.util.HashSet;
 
 import javax.swing.BorderFactory;
 import javax.swing.JButton;
@@ -27,6 +31,7 @@ import javax.swing.JTable;
 import javax.swing.JTextArea;
 import javax.swing.JTextField;
 import javax.swing.ListSelectionModel;
+import javax.swing.SwingUtilities;
 import javax.swing.border.Border;
 import javax.swing.border.EtchedBorder;
 import javax.swing.border.TitledBorder;
@@ -36,7 +41,10 @@ import app_manager.model.application.Application;
 import app_manager.model.application.Application.AppType;
 import app_manager.model.command.Command;
 import app_manager.model.command.Command.Resolution;
+import app_manager.model.manager.AppChangeEvent;
+import app_manager.model.manager.AppListener;
 import app_manager.model.manager.AppManager;
+import app_manager.model.manager.AppTableView;
 
 /**
  * Container for the ApplicationManager that has the menu options for new application 
@@ -213,7 +221,7 @@ public class AppManagerGUI extends JFrame implements ActionListener {
 		} else if (e.getSource() == itemSaveAppList) {
 			//Save current application list
 			try {
-				model.saveAppsToFile(getFileName(false));
+				model.saveChangesToFile(getFileName(false));
 			} catch (IllegalArgumentException exp) {
 				JOptionPane.showMessageDialog(this, exp.getMessage());
 			} catch (IllegalStateException exp) {
@@ -222,7 +230,7 @@ public class AppManagerGUI extends JFrame implements ActionListener {
 		} else if (e.getSource() == itemQuit) {
 			//Quit the program
 			try {
-				model.saveAppsToFile(getFileName(false));
+				model.saveChangesToFile(getFileName(false));
 				System.exit(0);  //Ignore SpotBugs warning here - this is the only place to quit the program!
 			} catch (IllegalArgumentException exp) {
 				JOptionPane.showMessageDialog(this, exp.getMessage());
@@ -328,6 +336,16 @@ public class AppManagerGUI extends JFrame implements ActionListener {
 			appsTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
 			appsTable.setPreferredScrollableViewportSize(new Dimension(500, 500));
 			appsTable.setFillsViewportHeight(true);
+			//Sort by a column when its header is clicked
+			appsTable.getTableHeader().addMouseListener(new MouseAdapter() {
+				@Override
+				public void mouseClicked(MouseEvent e) {
+					int col = appsTable.columnAtPoint(e.getPoint());
+					if (col != -1) {
+						appTableModel.sortBy(appsTable.convertColumnIndexToModel(col));
+					}
+				}
+			});
 			
 			JScrollPane listScrollPane = new JScrollPane(appsTable);
 			
@@ -407,35 +425,54 @@ public class AppManagerGUI extends JFrame implements ActionListener {
 			AppManagerGUI.this.validate();
 		}
 		
+		/**
+		 * Shows the applications of the given type in the table, or all of them if
+		 * the type is null. Changes to the applications are shown by the table model
+		 * as they happen, so nothing is rebuilt if the table already shows the type.
+		 * There is no Hired filter, so the table is left as it is for that type.
+		 * @param applicationType type of application to show, or null for all.
+		 */
 		public void updateTable(AppType applicationType) {
 			if (applicationType == null) {
-				appTableModel.updateAppData();
-			} else {
-				appTableModel.updateAppDataByType(applicationType);
+				appTableModel.showType(null);
+			} else if (applicationType == AppType.NEW) {
+				appTableModel.showType(Application.A_NEW);
+			} else if (applicationType == AppType.OLD) {
+				appTableModel.showType(Application.A_OLD);
 			}
 		}
 		
 		/**
 		 * ApplicationTableModel is the object underlying the JTable object that displays
-		 * the list of Applications to the user.
+		 * the list of Applications to the user. Rows are read through an AppTableView,
+		 * which only reads the rows the table shows. It listens to the ApplicationManager
+		 * and collects the changes made until the event dispatch thread next gets to it,
+		 * then tells the table which rows changed.
 		 * @author Dr. Sarah Heckman (sarah_heckman@ncsu.edu)
 		 * @author Dr. Chandrika Satyavolu (jsatyav@ncsu.edu)
 		 */
-		private class AppTableModel extends AbstractTableModel {
+		private class AppTableModel extends AbstractTableModel implements AppListener {
 			
 			/** ID number used for object serialization. */
 			private static final long serialVersionUID = 1L;
 			/** Column names for the table */
 			private String [] columnNames = {"Application ID", "Application State", "Application Type", "Application Summary"};
-			/** Data stored in the table */
-			private Object [][] data;
+			/** View of the rows shown in the table */
+			private AppTableView view;
+			/** Ids of the applications updated since the table was refreshed */
+			private final HashSet<Integer> updatedIds = new HashSet<Integer>();
+			/** Whether applications were added or removed since the table was refreshed */
+			private boolean rowsChanged;
+			/** Whether a refresh is waiting on the event dispatch thread */
+			private boolean refreshQueued;
 			
 			/**
 			 * Constructs the ApplicationTableModel by requesting the latest information
 			 * from the ApplicationTableModel.
 			 */
 			public AppTableModel() {
-				updateAppData();
+				view = new AppTableView(AppManager.getInstance());
+				AppManager.getInstance().addListener(this);
 			}
 
 			/**
@@ -451,9 +488,7 @@ public class AppManagerGUI extends JFrame implements ActionListener {
 			 * @return the number of rows in the table.
 			 */
 			public int getRowCount() {
-				if (data == null) 
-					return 0;
-				return data.length;
+				return view.size();
 			}
 			
 			/**
@@ -472,45 +507,101 @@ public class AppManagerGUI extends JFrame implements ActionListener {
 			 * @return the data at the given location.
 			 */
 			public Object getValueAt(int row, int col) {
-				if (data == null)
-					return null;
-				return data[row][col];
+				return view.getValueAt(row, col);
 			}
 			
 			/**
-			 * Sets the given value to the given {row, col} location.
-			 * @param value Object to modify in the data.
-			 * @param row location to modify the data.
-			 * @param col location to modify the data.
+			 * Shows the applications of the given type. Does nothing if the type is
+			 * already shown, since the rows are kept current by appChanged().
+			 * @param appType application type to show, or null for all applications.
 			 */
-			public void setValueAt(Object value, int row, int col) {
-				data[row][col] = value;
-				fireTableCellUpdated(row, col);
+			private void showType(String appType) {
+				String type = view.getType();
+				if (appType == null ? type == null : appType.equals(type)) {
+					return;
+				}
+				view.setType(appType);
+				fireTableDataChanged();
 			}
 			
 			/**
-			 * Updates the given model with Application information from the ApplicationManager.
+			 * Sorts the rows by the given column, in ascending order unless the rows are
+			 * already sorted by it in ascending order.
+			 * @param col index of column
 			 */
-			private void updateAppData() {
-				AppManager m = AppManager.getInstance();
-				data = m.getAppListAsArray();
+			private void sortBy(int col) {
+				view.sort(col, view.getSortColumn() != col || !view.isAscending());
+				fireTableDataChanged();
 			}
 			
 			/**
-			 * Updates the given model with Application information for the 
-			 * given application type from the applicationManager.
-			 * @param appType application type to search for.
+			 * Records a change to the application list and makes sure a refresh is
+			 * waiting on the event dispatch thread. May be called from any thread.
+			 * @param event the change made to the list.
 			 */
-			private void updateAppDataByType(AppType appType) {
-				try {
-					AppManager m = AppManager.getInstance();
-					if (appType == AppType.NEW) {
-						data = m.getAppListAsArrayByAppType("New");
-					} else if(appType == AppType.OLD) {
-						data = m.getAppListAsArrayByAppType("Old");
+			public void appChanged(AppChangeEvent event) {
+				synchronized (updatedIds) {
+					if (event.getType() == AppChangeEvent.Type.UPDATED) {
+						for (int id : event.getAppIds()) {
+							updatedIds.add(id);
+						}
+					} else {
+						rowsChanged = true;
+					}
+					if (!refreshQueued) {
+						refreshQueued = true;
+						SwingUtilities.invokeLater(this::refresh);
+					}
+				}
+			}
+			
+			/**
+			 * Shows every change recorded since the last refresh. If only applications
+			 * were updated and the rows shown and their order did not change, the table
+			 * is told of just their rows, and otherwise the whole table is redrawn.
+			 */
+			private void refresh() {
+				int[] ids;
+				boolean structural;
+				synchronized (updatedIds) {
+					ids = new int[updatedIds.size()];
+					int i = 0;
+					for (int id : updatedIds) {
+						ids[i++] = id;
+					}
+					structural = rowsChanged;
+					updatedIds.clear();
+					rowsChanged = false;
+					refreshQueued = false;
+				}
+				if (structural) {
+					view.invalidateAll();
+					view.refresh();
+					fireTableDataChanged();
+					return;
+				}
+				for (int id : ids) {
+					view.invalidate(id);
+				}
+				if (view.dependsOnValues() && view.refresh()) {
+					fireTableDataChanged();
+					return;
+				}
+				int count = 0;
+				for (int id : ids) {
+					int row = view.indexOf(id);
+					if (row >= 0) {
+						ids[count++] = row;
+					}
+				}
+				Arrays.sort(ids, 0, count);
+				//Tell the table of each run of adjacent rows at once
+				int start = 0;
+				for (int i = 1; i <= count; i++) {
+					if (i == count || ids[i] != ids[i - 1] + 1) {
+						fireTableRowsUpdated(ids[start], ids[i - 1]);
+						start = i;
 					}
-				} catch (IllegalArgumentException e) {
-					JOptionPane.showMessageDialog(AppManagerGUI.this, e.getMessage());
 				}
 			}
 		}
@@ -2,12 +2,17 @@ package app_manager.model.application;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 
 import org.junit.jupiter.api.Test;
 
 import app_manager.model.application.Application.AppType;
+import app_manager.model.application.Application.UpdateResult;
 import app_manager.model.command.Command;
 import app_manager.model.command.Command.CommandValue;
 import app_manager.model.command.Command.Resolution;
@@ -89,6 +94,8 @@ public class ApplicationTest {
 		assertEquals("reviewerTest", app.getReviewer());
 		assertEquals(false, app.isProcessed());
 		assertEquals("-noteTest\n", app.getNotesString());
+		app.getNotes().add("changed");
+		assertEquals(1, app.getNotes().size());
 
 		// invalid state
 		Exception e1 = assertThrows(IllegalArgumentException.class,
@@ -127,6 +134,104 @@ public class ApplicationTest {
 		assertEquals("*1,Review,New,summaryTest,reviewerTest,false,\n-noteTest\n", app.toString());
 	}
 
+	/**
+	 * Tests Application.appendTo() and that the encoded record is kept until the
+	 * Application is updated
+	 * 
+	 * @throws IOException if the record cannot be appended
+	 */
+	@Test
+	public void testAppendToAndGetEncoded() throws IOException {
+		Application app = new Application(APP_ID, AppType.NEW, "Café", NOTE);
+		StringBuilder record = new StringBuilder("prefix:");
+		app.appendTo(record);
+		assertEquals("prefix:*1,Review,New,Café,null,false,\n-[Review] noteTest\n", record.toString());
+
+		ByteBuffer encoded = app.getEncoded();
+		assertTrue(encoded.isReadOnly());
+		assertEquals(app.toString(), StandardCharsets.UTF_8.decode(encoded).toString());
+
+		// A rejected Command keeps the encoding, an applied one replaces it
+		app.tryUpdate(new Command(CommandValue.REOPEN, null, null, "note"));
+		assertEquals(app.getEncoded(), app.getEncoded());
+		assertEquals(app.toString(), StandardCharsets.UTF_8.decode(app.getEncoded()).toString());
+		app.update(new Command(CommandValue.ACCEPT, "reviewer", null, "accepted"));
+		assertEquals("*1,Interview,Old,Café,reviewer,false,\n-[Review] noteTest\n-[Interview] accepted\n",
+				StandardCharsets.UTF_8.decode(app.getEncoded()).toString());
+	}
+
+	/**
+	 * Tests that a copy of an Application keeps its fields while the Application
+	 * is updated, and shares its encoded record
+	 */
+	@Test
+	public void testCopy() {
+		Application app = new Application(APP_ID, AppType.NEW, SUMMARY, NOTE);
+		app.update(new Command(CommandValue.ACCEPT, "reviewer", null, "accepted"));
+		Application copy = app.copy();
+		assertEquals(app.toString(), copy.toString());
+		assertEquals(app.getVersion(), copy.getVersion());
+
+		// A record encoded from the copy is kept by the Application too
+		ByteBuffer encoded = copy.getEncoded();
+		assertEquals(encoded, app.getEncoded());
+
+		String before = copy.toString();
+		app.update(new Command(CommandValue.ACCEPT, "reviewer", null, "interviewed"));
+		assertEquals(before, copy.toString());
+		assertEquals("RefCheck", app.getStateName());
+		assertEquals(3, app.getNotes().size());
+
+		// An updated copy goes its own way
+		copy.update(new Command(CommandValue.REJECT, "reviewer", Resolution.INTCOMPLETED, "rejected"));
+		assertEquals("Closed", copy.getStateName());
+		assertEquals("[Closed] rejected", copy.getNotes().get(2));
+		assertEquals("[RefCheck] interviewed", app.getNotes().get(2));
+		assertEquals(app.toString(), StandardCharsets.UTF_8.decode(app.getEncoded()).toString());
+	}
+
+	/**
+	 * Tests that the version changes with every update, and not with a rejected
+	 * Command, which changes nothing
+	 */
+	@Test
+	public void testGetVersion() {
+		Application app = new Application(APP_ID, APP_TYPE, SUMMARY, NOTE);
+		assertEquals(0, app.getVersion());
+		app.update(new Command(CommandValue.ACCEPT, "reviewer", null, "note"));
+		assertEquals(1, app.getVersion());
+		assertThrows(UnsupportedOperationException.class,
+				() -> app.update(new Command(CommandValue.REOPEN, null, null, "note")));
+		assertEquals(1, app.getVersion());
+	}
+
+	/**
+	 * Tests that Application.tryUpdate() reports rejected Commands without
+	 * changing the Application
+	 */
+	@Test
+	public void testTryUpdate() {
+		Application app = new Application(APP_ID, AppType.OLD, SUMMARY, NOTE);
+		String before = app.toString();
+		assertEquals(UpdateResult.INVALID, app.tryUpdate(new Command(CommandValue.REOPEN, null, null, "note")));
+		assertEquals(UpdateResult.INVALID,
+				app.tryUpdate(new Command(CommandValue.STANDBY, "reviewer", Resolution.REVCOMPLETED, "note")));
+		assertEquals(before, app.toString());
+		assertEquals(0, app.getVersion());
+
+		assertEquals(UpdateResult.UPDATED,
+				app.tryUpdate(new Command(CommandValue.REJECT, "reviewer", Resolution.REVCOMPLETED, "rejected")));
+		assertEquals("Closed", app.getStateName());
+		assertEquals("ReviewCompleted", app.getResolution());
+
+		// An old application reopened after it is closed keeps its state and gets the note
+		assertEquals(UpdateResult.UPDATED, app.tryUpdate(new Command(CommandValue.REOPEN, null, null, "reopened")));
+		assertEquals("Closed", app.getStateName());
+		assertEquals("[Closed] reopened", app.getNotes().get(2));
+		assertEquals(UpdateResult.INVALID,
+				app.tryUpdate(new Command(CommandValue.ACCEPT, "reviewer", null, "accepted")));
+	}
+
 	/**
 	 * Tests Application.update() transitions through ReviewA, InterviewA,
 	 * RefCheckA, OfferA on FSM diagram
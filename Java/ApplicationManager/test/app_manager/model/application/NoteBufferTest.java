@@ -0,0 +1,102 @@
+package app_manager.model.application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the NoteBuffer class.
+ * 
+ * @author Christine Weld
+ */
+public class NoteBufferTest {
+
+	/** Prefixes of the tags */
+	private static final String[] PREFIXES = { "[Review] ", "[Closed] " };
+
+	/**
+	 * Tests adding notes with and without a prefix and reading them back
+	 */
+	@Test
+	public void testAdd() {
+		NoteBuffer notes = new NoteBuffer(PREFIXES);
+		assertEquals(0, notes.toList().size());
+		assertEquals("", notes.render());
+
+		StringBuilder longNote = new StringBuilder();
+		for (int i = 0; i < 300; i++) {
+			longNote.append((char) ('a' + i % 26));
+		}
+		notes.add(0, "First");
+		notes.add(1, "Café – naïve");
+		notes.add(NoteBuffer.RAW, "No prefix");
+		notes.add(1, longNote.toString());
+		notes.add(0, "");
+
+		ArrayList<String> list = notes.toList();
+		assertEquals(5, list.size());
+		assertEquals("[Review] First", list.get(0));
+		assertEquals("[Closed] Café – naïve", list.get(1));
+		assertEquals("No prefix", list.get(2));
+		assertEquals("[Closed] " + longNote, list.get(3));
+		assertEquals("[Review] ", list.get(4));
+		assertEquals("-[Review] First\n-[Closed] Café – naïve\n-No prefix\n-[Closed] " + longNote + "\n-[Review] \n",
+				notes.render());
+	}
+
+	/**
+	 * Tests that rendered notes keep their prefix, or are stored whole without one
+	 */
+	@Test
+	public void testAddRendered() {
+		NoteBuffer notes = new NoteBuffer(PREFIXES);
+		notes.addRendered("[Closed] Rejected");
+		notes.addRendered("[Offer] Unknown state");
+		notes.addRendered("[Review]no space");
+		assertEquals("-[Closed] Rejected\n-[Offer] Unknown state\n-[Review]no space\n", notes.render());
+	}
+
+	/**
+	 * Tests that the rendered notes are kept until a note is added
+	 */
+	@Test
+	public void testRenderCache() {
+		NoteBuffer notes = new NoteBuffer(PREFIXES);
+		notes.add(0, "First");
+		String rendered = notes.render();
+		assertSame(rendered, notes.render());
+
+		notes.add(1, "Second");
+		String updated = notes.render();
+		assertNotSame(rendered, updated);
+		assertEquals("-[Review] First\n-[Closed] Second\n", updated);
+		assertSame(updated, notes.render());
+	}
+
+	/**
+	 * Tests that a copy keeps the notes added before it was made, and that notes
+	 * added to either afterwards do not show in the other
+	 */
+	@Test
+	public void testCopy() {
+		NoteBuffer notes = new NoteBuffer(PREFIXES);
+		notes.add(0, "First");
+		notes.add(1, "Second");
+		String rendered = notes.render();
+
+		NoteBuffer copy = notes.copy();
+		assertSame(rendered, copy.render());
+		notes.add(0, "Original");
+		copy.add(1, "Copy");
+		copy.add(1, "Copy again");
+		assertEquals("-[Review] First\n-[Closed] Second\n-[Review] Original\n", notes.render());
+		assertEquals("-[Review] First\n-[Closed] Second\n-[Closed] Copy\n-[Closed] Copy again\n", copy.render());
+		notes.add(0, "Original again");
+		assertEquals(4, notes.toList().size());
+		assertEquals("[Closed] Copy again", copy.toList().get(3));
+	}
+}
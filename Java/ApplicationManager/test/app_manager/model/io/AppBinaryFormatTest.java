@@ -0,0 +1,129 @@
+package app_manager.model.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import app_manager.model.application.Application;
+import app_manager.model.application.Application.AppType;
+
+/**
+ * Tests the AppBinaryFormat class.
+ * 
+ * @author Christine Weld
+ */
+public class AppBinaryFormatTest {
+
+	/**
+	 * Tests that writing and reading a binary file gives back the same
+	 * Applications
+	 * 
+	 * @throws IOException if the temporary directory cannot be created
+	 */
+	@Test
+	public void testRoundTrip() throws IOException {
+		ArrayList<Application> apps = AppReader.readAppsFromFile("test-files/app2.txt");
+		apps.add(new Application(40, AppType.NEW, "Application’s summary", "Note 1\nsecond line"));
+		String fileName = Files.createTempDirectory("appbinary").resolve("apps" + AppBinaryFormat.EXTENSION)
+				.toString();
+
+		AppWriter.writeAppsToFile(fileName, apps);
+		assertTrue(AppBinaryFormat.isBinaryFile(fileName));
+		assertFalse(AppBinaryFormat.isBinaryFile("test-files/app1.txt"));
+		assertFalse(AppBinaryFormat.isBinaryFile("test-files/app7.txt"));
+
+		ArrayList<Application> read = AppReader.readAppsFromFile(fileName);
+		assertEquals(apps.size(), read.size());
+		for (int i = 0; i < apps.size(); i++) {
+			assertEquals(apps.get(i).toString(), read.get(i).toString());
+		}
+		// a missing reviewer stays missing instead of becoming "null"
+		assertNull(read.get(read.size() - 1).getReviewer());
+	}
+
+	/**
+	 * Tests that a text file replaced through AppWriter keeps its format, and a
+	 * binary file keeps its format under any name
+	 * 
+	 * @throws IOException if the temporary directory cannot be created
+	 */
+	@Test
+	public void testKeepsFormat() throws IOException {
+		ArrayList<Application> apps = AppReader.readAppsFromFile("test-files/app1.txt");
+		Path dir = Files.createTempDirectory("appbinary");
+		String binary = dir.resolve("apps" + AppBinaryFormat.EXTENSION).toString();
+		String renamed = dir.resolve("apps.dat").toString();
+
+		AppBinaryFormat.writeAppsToFile(binary, apps);
+		Files.move(Path.of(binary), Path.of(renamed));
+		AppWriter.writeAppsToFile(renamed, apps);
+		assertTrue(AppBinaryFormat.isBinaryFile(renamed));
+		assertEquals(6, AppReader.readAppsFromFile(renamed).size());
+	}
+
+	/**
+	 * Tests that the high-water mark is saved, and that version 1 files without
+	 * one are still read
+	 * 
+	 * @throws IOException if the temporary files cannot be written
+	 */
+	@Test
+	public void testHighWaterMark() throws IOException {
+		ArrayList<Application> apps = AppReader.readAppsFromFile("test-files/app1.txt");
+		Path dir = Files.createTempDirectory("appbinary");
+		String fileName = dir.resolve("apps" + AppBinaryFormat.EXTENSION).toString();
+
+		AppBinaryFormat.writeAppsToFile(fileName, apps, 40);
+		assertEquals(40, AppBinaryFormat.readHighWaterMark(fileName));
+		// the mark is never below the greatest id in the file
+		AppBinaryFormat.writeAppsToFile(fileName, apps, 3);
+		assertEquals(16, AppBinaryFormat.readHighWaterMark(fileName));
+
+		// a version 1 file has the same layout without the mark in its trailer
+		AppBinaryFormat.writeAppsToFile(fileName, apps, 40);
+		byte[] bytes = Files.readAllBytes(Path.of(fileName));
+		byte[] version1 = new byte[bytes.length - 4];
+		System.arraycopy(bytes, 0, version1, 0, version1.length - 4);
+		System.arraycopy(bytes, bytes.length - 4, version1, version1.length - 4, 4);
+		version1[4] = AppBinaryFormat.VERSION_1;
+		String oldFile = dir.resolve("old" + AppBinaryFormat.EXTENSION).toString();
+		Files.write(Path.of(oldFile), version1);
+
+		assertEquals(16, AppBinaryFormat.readHighWaterMark(oldFile));
+		ArrayList<Application> read = AppReader.readAppsFromFile(oldFile);
+		assertEquals(apps.size(), read.size());
+		for (int i = 0; i < apps.size(); i++) {
+			assertEquals(apps.get(i).toString(), read.get(i).toString());
+		}
+		assertThrows(IllegalArgumentException.class,
+				() -> AppBinaryFormat.readHighWaterMark("test-files/app1.txt"));
+	}
+
+	/**
+	 * Tests reading a truncated binary file
+	 * 
+	 * @throws IOException if the temporary file cannot be written
+	 */
+	@Test
+	public void testReadTruncated() throws IOException {
+		Path file = Files.createTempDirectory("appbinary").resolve("apps" + AppBinaryFormat.EXTENSION);
+		AppWriter.writeAppsToFile(file.toString(), AppReader.readAppsFromFile("test-files/app1.txt"));
+		byte[] bytes = Files.readAllBytes(file);
+		Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+
+		Exception e = assertThrows(IllegalArgumentException.class,
+				() -> AppBinaryFormat.readAppsFromFile(file.toString()));
+		assertEquals("Unable to load file.", e.getMessage());
+	}
+
+}
@@ -0,0 +1,107 @@
+package app_manager.model.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+import app_manager.model.application.Application;
+
+/**
+ * Tests the AppCompression class.
+ * 
+ * @author Christine Weld
+ */
+public class AppCompressionTest {
+
+	/**
+	 * Asserts that two lists hold the same Applications.
+	 * 
+	 * @param expected expected Applications
+	 * @param actual   actual Applications
+	 */
+	private static void assertSameApps(ArrayList<Application> expected, ArrayList<Application> actual) {
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.get(i).toString(), actual.get(i).toString());
+		}
+	}
+
+	/**
+	 * Tests that a compressed file is written for the compressed extension and
+	 * read back through every AppReader method
+	 * 
+	 * @throws IOException if the temporary directory cannot be created
+	 */
+	@Test
+	public void testRoundTrip() throws IOException {
+		ArrayList<Application> apps = AppReader.readAppsFromFile("test-files/app2.txt");
+		String fileName = Files.createTempDirectory("appcompression").resolve("apps.txt" + AppCompression.EXTENSION)
+				.toString();
+
+		AppWriter.writeAppsToFile(fileName, apps);
+		assertTrue(AppCompression.isCompressedFile(fileName));
+		assertFalse(AppCompression.isCompressedFile("test-files/app2.txt"));
+		assertFalse(AppCompression.isCompressedFile("test-files/missing.txt"));
+
+		assertSameApps(apps, AppReader.readAppsFromFile(fileName));
+		assertSameApps(apps, AppReader.readAppsFromFileParallel(fileName));
+		try (Stream<Application> stream = AppReader.streamAppsFromFile(fileName)) {
+			assertEquals(apps.size(), stream.count());
+		}
+	}
+
+	/**
+	 * Tests that a compressed file is recognized and keeps being compressed under
+	 * any name, at any level
+	 * 
+	 * @throws IOException if the temporary directory cannot be created
+	 */
+	@Test
+	public void testKeepsFormat() throws IOException {
+		ArrayList<Application> apps = AppReader.readAppsFromFile("test-files/app1.txt");
+		Path dir = Files.createTempDirectory("appcompression");
+		String stored = dir.resolve("stored.txt").toString();
+		String smallest = dir.resolve("smallest.txt").toString();
+
+		AppWriter.writeCompressedAppsToFile(stored, apps, 0, 512);
+		AppWriter.writeCompressedAppsToFile(smallest, apps, 9, 512);
+		assertTrue(Files.size(Path.of(smallest)) < Files.size(Path.of(stored)));
+		assertSameApps(apps, AppReader.readAppsFromFile(stored));
+		assertSameApps(apps, AppReader.readAppsFromFile(smallest));
+
+		AppWriter.writeAppsToFile(stored, apps);
+		assertTrue(AppCompression.isCompressedFile(stored));
+		assertSameApps(apps, AppReader.readAppsFromFile(stored));
+	}
+
+	/**
+	 * Tests invalid levels and buffer sizes, and a truncated compressed file
+	 * 
+	 * @throws IOException if the temporary file cannot be written
+	 */
+	@Test
+	public void testInvalid() throws IOException {
+		ArrayList<Application> apps = AppReader.readAppsFromFile("test-files/app1.txt");
+		String fileName = Files.createTempDirectory("appcompression").resolve("apps.gz").toString();
+
+		assertThrows(IllegalArgumentException.class, () -> AppWriter.writeCompressedAppsToFile(fileName, apps, 10, 512));
+		assertThrows(IllegalArgumentException.class, () -> AppWriter.writeCompressedAppsToFile(fileName, apps, -2, 512));
+		assertThrows(IllegalArgumentException.class, () -> AppWriter.writeCompressedAppsToFile(fileName, apps, 1, 0));
+
+		AppWriter.writeAppsToFile(fileName, apps);
+		byte[] bytes = Files.readAllBytes(Path.of(fileName));
+		Files.write(Path.of(fileName), Arrays.copyOf(bytes, bytes.length / 2));
+		Exception e = assertThrows(IllegalArgumentException.class, () -> AppReader.readAppsFromFile(fileName));
+		assertEquals("Unable to load file.", e.getMessage());
+	}
+}
@@ -0,0 +1,48 @@
+package app_manager.model.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.NoSuchElementException;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the AppIterator class.
+ * 
+ * @author Christine Weld
+ */
+public class AppIteratorTest {
+
+	/**
+	 * Tests AppIterator.next() reads every record and then stops
+	 */
+	@Test
+	public void testNext() {
+		try (AppIterator it = AppReader.iterateAppsFromFile("test-files/app1.txt")) {
+			int count = 0;
+			while (it.hasNext()) {
+				it.next();
+				count++;
+			}
+			assertEquals(6, count);
+			assertFalse(it.hasNext());
+			assertThrows(NoSuchElementException.class, () -> it.next());
+		}
+	}
+
+	/**
+	 * Tests AppIterator.close() stops the iterator before the end of the file
+	 */
+	@Test
+	public void testClose() {
+		AppIterator it = AppReader.iterateAppsFromFile("test-files/app1.txt");
+		assertTrue(it.hasNext());
+		assertEquals(1, it.next().getAppId());
+		it.close();
+		assertFalse(it.hasNext());
+	}
+
+}
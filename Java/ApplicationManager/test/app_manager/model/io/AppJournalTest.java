@@ -0,0 +1,164 @@
+package app_manager.model.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import app_manager.model.application.Application;
+import app_manager.model.application.Application.AppType;
+import app_manager.model.command.Command;
+import app_manager.model.command.Command.CommandValue;
+
+/**
+ * Tests the AppJournal class.
+ * 
+ * @author Christine Weld
+ */
+public class AppJournalTest {
+
+	/** Copy of app1.txt the journal belongs to */
+	private String fileName;
+
+	/**
+	 * Copies app1.txt into a temporary directory.
+	 * 
+	 * @throws IOException if the file cannot be copied
+	 */
+	@BeforeEach
+	public void setUp() throws IOException {
+		Path dir = Files.createTempDirectory("appjournal");
+		Path file = dir.resolve("app1.txt");
+		Files.copy(Path.of("test-files/app1.txt"), file, StandardCopyOption.REPLACE_EXISTING);
+		fileName = file.toString();
+	}
+
+	/**
+	 * Tests AppJournal.append() and AppJournal.load() replay updates, additions and
+	 * deletions on top of the file
+	 */
+	@Test
+	public void testAppendAndLoad() {
+		AppJournal journal = new AppJournal(fileName);
+		assertTrue(journal.isEmpty());
+
+		ArrayList<Application> apps = journal.load();
+		Application app = apps.get(0);
+		app.update(new Command(CommandValue.ACCEPT, "reviewer", null, "Accepted"));
+		journal.append(Arrays.asList(app), Arrays.asList(3));
+		journal.append(Arrays.asList(new Application(20, AppType.NEW, "summary", "Note 1")),
+				Collections.emptyList());
+		assertFalse(journal.isEmpty());
+
+		ArrayList<Application> loaded = journal.load();
+		assertEquals(6, loaded.size());
+		assertEquals(1, loaded.get(0).getAppId());
+		assertEquals(Application.INTERVIEW_NAME, loaded.get(0).getStateName());
+		assertEquals(7, loaded.get(1).getAppId());
+		assertEquals(20, loaded.get(5).getAppId());
+	}
+
+	/**
+	 * Tests that compaction rewrites the file and removes the journal once it
+	 * passes the threshold
+	 */
+	@Test
+	public void testCompaction() {
+		AppJournal journal = new AppJournal(fileName, 1);
+		journal.append(Collections.emptyList(), Arrays.asList(1, 14));
+		journal.awaitCompaction();
+
+		assertTrue(journal.isEmpty());
+		ArrayList<Application> apps = AppReader.readAppsFromFile(fileName);
+		assertEquals(4, apps.size());
+		assertEquals(3, apps.get(0).getAppId());
+	}
+
+	/**
+	 * Tests AppJournal.writeAll() replaces the file and discards the journal
+	 */
+	@Test
+	public void testWriteAll() {
+		AppJournal journal = new AppJournal(fileName);
+		journal.append(Collections.emptyList(), Arrays.asList(1));
+		journal.writeAll(Arrays.asList(new Application(2, AppType.OLD, "summary", "Note 1")));
+
+		assertTrue(journal.isEmpty());
+		ArrayList<Application> apps = journal.load();
+		assertEquals(1, apps.size());
+		assertEquals(2, apps.get(0).getAppId());
+	}
+
+	/**
+	 * Tests that the deletion line of a journal and the high-water mark line of a
+	 * text file are not taken for each other
+	 * 
+	 * @throws IOException if the files cannot be written
+	 */
+	@Test
+	public void testDeletionAndHighWaterMarkLines() throws IOException {
+		Path file = Path.of(fileName);
+		Path journal = Path.of(fileName + AppJournal.JOURNAL_EXTENSION);
+		AppJournal appJournal = new AppJournal(fileName);
+		ArrayList<Application> apps = AppReader.readAppsFromFile(fileName);
+
+		// A high-water mark in a file reserves the id without deleting it
+		AppWriter.writeAppsToFile(fileName, apps, 20);
+		assertTrue(Files.readString(file).endsWith("*#20\n"));
+		assertEquals(6, appJournal.load().size());
+		assertEquals(20, appJournal.getHighWaterMark());
+
+		// A deletion in a journal deletes the id
+		appJournal.append(Collections.emptyList(), Arrays.asList(16));
+		assertTrue(Files.readString(journal).startsWith("*~16\n"));
+		assertEquals(5, appJournal.load().size());
+
+		// Each line is invalid where the other belongs
+		Files.writeString(journal, "*#16\n");
+		assertThrows(IllegalArgumentException.class, () -> appJournal.load());
+		Files.delete(journal);
+		Files.writeString(file, Files.readString(file).replace("*#20", "*~16"));
+		assertThrows(IllegalArgumentException.class, () -> AppReader.readAppsFromFile(fileName));
+		ImportReport report = AppReader.importAppsFromFile(fileName);
+		assertEquals(6, report.getApps().size());
+		assertEquals(1, report.getErrors().size());
+		assertEquals(16, report.getHighWaterMark());
+	}
+
+	/**
+	 * Tests that a full save through a second journal of the same file waits for
+	 * a compaction started by the first, so the compaction cannot overwrite it
+	 */
+	@Test
+	public void testWriteAllWhileOtherJournalCompacts() {
+		AppJournal first = new AppJournal(fileName);
+		ArrayList<Application> added = new ArrayList<Application>();
+		for (int id = 100; id < 20100; id++) {
+			added.add(new Application(id, AppType.NEW, "summary", "Note 1"));
+		}
+		first.append(added, Collections.emptyList());
+
+		// The second journal names the same file another way
+		Path file = Path.of(fileName);
+		AppJournal second = new AppJournal(file.getParent().resolve(".").resolve(file.getFileName()).toString());
+		first.compactAsync();
+		second.writeAll(Arrays.asList(new Application(2, AppType.OLD, "summary", "Note 1")));
+		first.awaitCompaction();
+
+		assertTrue(second.isEmpty());
+		ArrayList<Application> apps = AppReader.readAppsFromFile(fileName);
+		assertEquals(1, apps.size());
+		assertEquals(2, apps.get(0).getAppId());
+	}
+}
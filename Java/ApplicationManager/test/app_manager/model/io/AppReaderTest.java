@@ -1,9 +1,15 @@
 package app_manager.model.io;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -32,6 +38,21 @@ public class AppReaderTest {
 		assertEquals(6, apps.size());
 	}
 
+	/**
+	 * Tests AppReader.readAppsFromFile() keeps multi-line notes of each record
+	 */
+	@Test
+	public void testReadValidFileApp1Notes() {
+		ArrayList<Application> apps = AppReader.readAppsFromFile(validFileApp1);
+		assertEquals(1, apps.get(0).getAppId());
+		assertEquals("-[Review] Note 1\n", apps.get(0).getNotesString());
+		assertEquals(3, apps.get(1).getAppId());
+		assertEquals("-[Review] Note 1\n-[Interview] Note 2\nthat goes on a new line\n",
+				apps.get(1).getNotesString());
+		assertEquals(16, apps.get(4).getAppId());
+		assertEquals(4, apps.get(4).getNotes().size());
+	}
+
 	/**
 	 * Tests AppReader.readAppsFromFile() with valid file App2
 	 */
@@ -41,6 +62,79 @@ public class AppReaderTest {
 		assertEquals(7, apps.size());
 	}
 
+	/**
+	 * Tests AppReader.iterateAppsFromFile() returns records lazily in file order
+	 */
+	@Test
+	public void testIterateAppsFromFile() {
+		try (AppIterator it = AppReader.iterateAppsFromFile(validFileApp2)) {
+			assertTrue(it.hasNext());
+			assertEquals(15, it.next().getAppId());
+			assertEquals(7, it.next().getAppId());
+		}
+
+		Exception e = assertThrows(IllegalArgumentException.class,
+				() -> AppReader.iterateAppsFromFile("test-files/app7.txt"));
+		assertEquals("Unable to load file.", e.getMessage());
+	}
+
+	/**
+	 * Tests AppReader.streamAppsFromFile() with filtering and short-circuiting
+	 */
+	@Test
+	public void testStreamAppsFromFile() {
+		try (Stream<Application> apps = AppReader.streamAppsFromFile(validFileApp1)) {
+			assertEquals(1, apps.filter(a -> Application.WAITLIST_NAME.equals(a.getStateName())).count());
+		}
+		try (Stream<Application> apps = AppReader.streamAppsFromFile(validFileApp2)) {
+			assertEquals(7, apps.filter(a -> a.getAppId() < 10).findFirst().get().getAppId());
+		}
+		// an invalid record is only reported once the stream reaches it
+		try (Stream<Application> apps = AppReader.streamAppsFromFile("test-files/app3.txt")) {
+			Exception e = assertThrows(IllegalArgumentException.class, () -> apps.count());
+			assertEquals("Unable to load file.", e.getMessage());
+		}
+	}
+
+	/**
+	 * Tests AppReader.importAppsFromFile() skips invalid records and reports
+	 * where they start
+	 * 
+	 * @throws IOException if the temporary file cannot be written
+	 */
+	@Test
+	public void testImportAppsFromFile() throws IOException {
+		Path file = Files.createTempDirectory("appreader").resolve("import.txt");
+		Files.writeString(file, "stray text\n" + "*1,Review,New,Summary,,false,\n-[Review] Note 1\n"
+				+ "*x,Review,New,Summary,,false,\n-[Review] Note\n" + "*3,Review,New\n"
+				+ "*4,Review,New,Summary,,false,,extra\n" + "*5,Interview,Old,Summary,,false,\n"
+				+ "*6,Review,Old,Summary,,false,\n-[Review] Note 6\n");
+
+		ImportReport report = AppReader.importAppsFromFile(file.toString());
+		assertEquals(2, report.getApps().size());
+		assertEquals(1, report.getApps().get(0).getAppId());
+		assertEquals(6, report.getApps().get(1).getAppId());
+		assertTrue(report.hasErrors());
+
+		ArrayList<ImportReport.RecordError> errors = report.getErrors();
+		assertEquals(5, errors.size());
+		assertEquals("line 1 (offset 0): Text before the first record", errors.get(0).toString());
+		assertEquals(4, errors.get(1).getLineNumber());
+		assertEquals(58, errors.get(1).getOffset());
+		assertEquals("Invalid id", errors.get(1).getReason());
+		assertEquals("Missing summary", errors.get(2).getReason());
+		assertEquals("Too many fields", errors.get(3).getReason());
+		assertEquals(8, errors.get(4).getLineNumber());
+		assertEquals("Application cannot be created.", errors.get(4).getReason());
+
+		report = AppReader.importAppsFromFile(validFileApp1);
+		assertEquals(6, report.getApps().size());
+		assertFalse(report.hasErrors());
+		Exception e = assertThrows(IllegalArgumentException.class,
+				() -> AppReader.importAppsFromFile("test-files/app7.txt"));
+		assertEquals("Unable to load file.", e.getMessage());
+	}
+
 	/**
 	 * Tests AppReader.readAppsFromFile() with invalid files
 	 * 
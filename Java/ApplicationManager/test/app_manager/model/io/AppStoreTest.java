@@ -0,0 +1,121 @@
+package app_manager.model.io;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+
+import app_manager.model.application.Application;
+import app_manager.model.application.Application.AppType;
+import app_manager.model.command.Command;
+import app_manager.model.command.Command.CommandValue;
+import app_manager.model.command.Command.Resolution;
+
+/**
+ * Tests the AppStore class.
+ * 
+ * @author Christine Weld
+ */
+public class AppStoreTest {
+
+	/**
+	 * Writes the given Applications to a new binary file.
+	 * 
+	 * @param apps Applications to write
+	 * @return name of the binary file
+	 * @throws IOException if the temporary directory cannot be created
+	 */
+	private static String writeBinary(ArrayList<Application> apps) throws IOException {
+		String fileName = Files.createTempDirectory("appstore").resolve("apps" + AppBinaryFormat.EXTENSION).toString();
+		AppBinaryFormat.writeAppsToFile(fileName, apps);
+		return fileName;
+	}
+
+	/**
+	 * Tests reading rows and Applications from a store
+	 * 
+	 * @throws IOException if the temporary file cannot be written
+	 */
+	@Test
+	public void testRead() throws IOException {
+		ArrayList<Application> apps = AppReader.readAppsFromFile("test-files/app1.txt");
+		try (AppStore store = AppStore.open(writeBinary(apps))) {
+			apps.sort((a, b) -> Integer.compare(a.getAppId(), b.getAppId()));
+			assertEquals(6, store.size());
+			for (int i = 0; i < apps.size(); i++) {
+				Application app = apps.get(i);
+				assertEquals(app.getAppId(), store.getIdAt(i));
+				assertEquals(i, store.indexOf(app.getAppId()));
+				assertArrayEquals(new Object[] { app.getAppId(), app.getStateName(), app.getAppType(), app.getSummary() },
+						store.getRow(i));
+				assertEquals(app.getAppType(), store.getTypeAt(i));
+				assertEquals(app.toString(), store.getAppById(app.getAppId()).toString());
+			}
+			assertEquals(-1, store.indexOf(100));
+			assertNull(store.getAppById(100));
+			assertEquals(16, store.getHighWaterMark());
+		}
+	}
+
+	/**
+	 * Tests that an Application is built once and its changes are seen by the
+	 * rows and by readAll()
+	 * 
+	 * @throws IOException if the temporary file cannot be written
+	 */
+	@Test
+	public void testSameInstance() throws IOException {
+		ArrayList<Application> apps = AppReader.readAppsFromFile("test-files/app1.txt");
+		try (AppStore store = AppStore.open(writeBinary(apps))) {
+			Application app = store.getAppById(1);
+			assertSame(app, store.getAppById(1));
+			app.update(new Command(CommandValue.ACCEPT, "Smith", Resolution.REVCOMPLETED, "Interview note"));
+			assertEquals(Application.INTERVIEW_NAME, store.getRow(0)[1]);
+			assertEquals(Application.A_OLD, store.getTypeAt(0));
+
+			ArrayList<Application> all = store.readAll();
+			assertEquals(6, all.size());
+			assertSame(app, all.get(0));
+		}
+	}
+
+	/**
+	 * Tests that a file with records out of id order is read in id order, keeping
+	 * the first record of a repeated id
+	 * 
+	 * @throws IOException if the temporary file cannot be written
+	 */
+	@Test
+	public void testUnsorted() throws IOException {
+		ArrayList<Application> apps = new ArrayList<Application>();
+		apps.add(new Application(3, AppType.NEW, "Third", "Note"));
+		apps.add(new Application(1, AppType.OLD, "First", "Note"));
+		apps.add(new Application(3, AppType.HIRED, "Repeated", "Note"));
+		apps.add(new Application(2, AppType.NEW, "Second", "Note"));
+		try (AppStore store = AppStore.open(writeBinary(apps))) {
+			assertEquals(3, store.size());
+			assertEquals("First", store.getRow(0)[3]);
+			assertEquals("Second", store.getRow(1)[3]);
+			assertEquals("Third", store.getRow(2)[3]);
+			assertEquals("Third", store.getAppById(3).getSummary());
+		}
+	}
+
+	/**
+	 * Tests opening files that are not binary application files
+	 */
+	@Test
+	public void testOpenInvalid() {
+		Exception e = assertThrows(IllegalArgumentException.class, () -> AppStore.open("test-files/app1.txt"));
+		assertEquals("Unable to load file.", e.getMessage());
+		e = assertThrows(IllegalArgumentException.class, () -> AppStore.open("test-files/missing.appb"));
+		assertEquals("Unable to load file.", e.getMessage());
+	}
+}
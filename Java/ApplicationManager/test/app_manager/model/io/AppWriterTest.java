@@ -1,13 +1,22 @@
 package app_manager.model.io;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.fail;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermissions;
 import java.util.ArrayList;
 import java.util.Scanner;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.Test;
 
@@ -99,6 +108,155 @@ public class AppWriterTest {
 		checkFiles("test-files/exp_app_closed.txt", "test-files/act_app_closed.txt");
 	}
 
+	/**
+	 * Tests AppWriter.writeAppsToFile() writes the same text as
+	 * Application.toString() and leaves no temporary files behind
+	 * 
+	 * @throws IOException if the files cannot be read
+	 */
+	@Test
+	public void testWriteAppsMatchesToString() throws IOException {
+		ArrayList<Application> apps = AppReader.readAppsFromFile("test-files/app1.txt");
+		Path dir = Files.createTempDirectory("appwriter");
+		Path file = dir.resolve("apps.txt");
+
+		AppWriter.writeAppsToFile(file.toString(), apps);
+		StringBuilder expected = new StringBuilder();
+		for (Application app : apps) {
+			expected.append(app.toString());
+		}
+		assertEquals(expected.toString(), new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+		try (Stream<Path> files = Files.list(dir)) {
+			assertEquals(1, files.count());
+		}
+	}
+
+	/**
+	 * Tests AppWriter.writeAppsToFile() with a record larger than the write buffer
+	 * between two small ones
+	 * 
+	 * @throws IOException if the files cannot be read
+	 */
+	@Test
+	public void testWriteLargeRecord() throws IOException {
+		StringBuilder note = new StringBuilder();
+		while (note.length() <= AppWriter.BUFFER_SIZE) {
+			note.append("Long note é ");
+		}
+		ArrayList<Application> apps = new ArrayList<Application>();
+		apps.add(new Application(1, AppType.NEW, "First", "Note 1"));
+		apps.add(new Application(2, AppType.OLD, "Large", note.toString()));
+		apps.add(new Application(3, AppType.HIRED, "Last", "Note 3"));
+		Path dir = Files.createTempDirectory("appwriter");
+		Path file = dir.resolve("apps.txt");
+
+		AppWriter.writeAppsToFile(file.toString(), apps);
+		assertEquals(apps.get(0).toString() + apps.get(1).toString() + apps.get(2).toString(),
+				new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+		Files.delete(file);
+		Files.delete(dir);
+	}
+
+	/**
+	 * Tests AppWriter.writeAppsToFile() keeps the previous file when a save fails
+	 * part way through
+	 * 
+	 * @throws IOException if the files cannot be read
+	 */
+	@Test
+	public void testWriteAppsFailureKeepsFile() throws IOException {
+		Path dir = Files.createTempDirectory("appwriter");
+		Path file = dir.resolve("apps.txt");
+		ArrayList<Application> apps = new ArrayList<Application>();
+		apps.add(new Application(1, AppType.NEW, "Application summary", "Note 1"));
+		AppWriter.writeAppsToFile(file.toString(), apps);
+		byte[] saved = Files.readAllBytes(file);
+
+		apps.add(null);
+		Exception e = assertThrows(IllegalArgumentException.class,
+				() -> AppWriter.writeAppsToFile(file.toString(), apps));
+		assertEquals("Unable to save file.", e.getMessage());
+		assertArrayEquals(saved, Files.readAllBytes(file));
+		try (Stream<Path> files = Files.list(dir)) {
+			assertEquals(1, files.count());
+		}
+	}
+
+	/**
+	 * Tests AppWriter.writeAppsToFile() keeps the permissions of the file it
+	 * replaces
+	 * 
+	 * @throws IOException if the files cannot be read
+	 */
+	@Test
+	public void testWriteAppsKeepsPermissions() throws IOException {
+		Path dir = Files.createTempDirectory("appwriter");
+		assumeTrue(Files.getFileStore(dir).supportsFileAttributeView(PosixFileAttributeView.class));
+		Path file = dir.resolve("apps.txt");
+		ArrayList<Application> apps = new ArrayList<Application>();
+		apps.add(new Application(1, AppType.NEW, "Application summary", "Note 1"));
+
+		for (String mode : new String[] { "rw-r--r--", "rw-r-----" }) {
+			AppWriter.writeAppsToFile(file.toString(), apps);
+			Files.setPosixFilePermissions(file, PosixFilePermissions.fromString(mode));
+			AppWriter.writeAppsToFile(file.toString(), apps);
+			assertEquals(mode, PosixFilePermissions.toString(Files.getPosixFilePermissions(file)));
+			AppWriter.writeCompressedAppsToFile(file.toString(), apps, 6, 1024);
+			assertEquals(mode, PosixFilePermissions.toString(Files.getPosixFilePermissions(file)));
+		}
+		try (Stream<Path> files = Files.list(dir)) {
+			assertEquals(1, files.count());
+		}
+		Files.delete(file);
+		Files.delete(dir);
+	}
+
+	/**
+	 * Tests AppWriter.writeAppsToFile() ends a text file with the high-water mark
+	 * when it is greater than every id written, and that every reader takes it as
+	 * the mark of the file rather than as an application
+	 * 
+	 * @throws IOException if the files cannot be read
+	 */
+	@Test
+	public void testWriteHighWaterMark() throws IOException {
+		ArrayList<Application> apps = new ArrayList<Application>();
+		apps.add(new Application(1, AppType.NEW, "First", "Note 1"));
+		apps.add(new Application(2, AppType.OLD, "Second", "Note 2"));
+		Path dir = Files.createTempDirectory("appwriter");
+		Path file = dir.resolve("apps.txt");
+
+		AppWriter.writeAppsToFile(file.toString(), apps, 2);
+		assertEquals(apps.get(0).toString() + apps.get(1).toString(),
+				new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+
+		AppWriter.writeAppsToFile(file.toString(), apps, 5);
+		assertEquals(apps.get(0).toString() + apps.get(1).toString() + "*#5\n",
+				new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+		assertEquals(2, AppReader.readAppsFromFile(file.toString()).size());
+		assertEquals(2, AppReader.readAppsFromFileParallel(file.toString()).size());
+		ImportReport report = AppReader.importAppsFromFile(file.toString());
+		assertEquals(2, report.getApps().size());
+		assertEquals(0, report.getErrors().size());
+		assertEquals(5, report.getHighWaterMark());
+		try (AppIterator it = AppReader.iterateAppsFromFile(file.toString())) {
+			while (it.hasNext()) {
+				it.next();
+			}
+			assertEquals(5, it.getHighWaterMark());
+		}
+
+		Path compressed = dir.resolve("apps" + AppCompression.EXTENSION);
+		AppWriter.writeAppsToFile(compressed.toString(), apps, 7);
+		report = AppReader.importAppsFromFile(compressed.toString());
+		assertEquals(2, report.getApps().size());
+		assertEquals(7, report.getHighWaterMark());
+
+		Files.delete(file);
+		Files.delete(compressed);
+		Files.delete(dir);
+	}
+
 	/**
 	 * Helper method to compare two files for the same contents
 	 * 
@@ -0,0 +1,144 @@
+package app_manager.model.io;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+
+import app_manager.model.application.Application;
+import app_manager.model.command.Command;
+
+/**
+ * Compares splitting Application header lines with HeaderTokenizer against the
+ * Scanner with a "," delimiter that AppReader.processApp() used before. The
+ * header lines of the valid application files in test-files are parsed many
+ * times with each, in alternating rounds, and the time per header is printed.
+ * Run from the project directory; this is not a unit test.
+ *
+ * @author Christine Weld
+ */
+public class HeaderTokenizerBenchmark {
+
+	/** Number of timed rounds of each parser */
+	private static final int ROUNDS = 5;
+	/** Number of headers parsed by each parser in a round */
+	private static final int HEADERS_PER_ROUND = 2_000_000;
+
+	/** Names of the application states, as written in the file */
+	private static final String[] STATE_NAMES = { Application.REVIEW_NAME, Application.INTERVIEW_NAME,
+			Application.REFCHK_NAME, Application.OFFER_NAME, Application.WAITLIST_NAME, Application.CLOSED_NAME };
+	/** Names of the application resolutions, as written in the file */
+	private static final String[] RESOLUTION_NAMES = { Command.R_REVCOMPLETED, Command.R_INTCOMPLETED,
+			Command.R_REFCHKCOMPLETED, Command.R_OFFERCOMPLETED };
+
+	/** Result of the parsed fields, kept so the parsing is not optimized away */
+	private static long sink;
+
+	/**
+	 * Runs the comparison.
+	 *
+	 * @param args directory of the application files, test-files by default
+	 * @throws IOException if the files cannot be read
+	 */
+	public static void main(String[] args) throws IOException {
+		String[] headers = readHeaders(Paths.get(args.length > 0 ? args[0] : "test-files"));
+		System.out.println(headers.length + " header lines");
+
+		for (int round = 0; round < ROUNDS; round++) {
+			long scanner = time(headers, false);
+			long tokenizer = time(headers, true);
+			System.out.printf("round %d: Scanner %.1f ns/header, HeaderTokenizer %.1f ns/header (%.1fx)%n", round,
+					(double) scanner / HEADERS_PER_ROUND, (double) tokenizer / HEADERS_PER_ROUND,
+					(double) scanner / tokenizer);
+		}
+		System.out.println("checksum " + sink);
+	}
+
+	/**
+	 * Reads the header lines of every application file of a directory that
+	 * AppReader accepts.
+	 *
+	 * @param dir directory of application files
+	 * @return header lines without their leading '*'
+	 * @throws IOException if the directory cannot be read
+	 */
+	private static String[] readHeaders(Path dir) throws IOException {
+		List<String> headers = new ArrayList<String>();
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "app*.txt")) {
+			for (Path file : files) {
+				try {
+					AppReader.readAppsFromFile(file.toString());
+				} catch (IllegalArgumentException e) {
+					continue;
+				}
+				for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+					if (line.startsWith("*")) {
+						headers.add(line.substring(1));
+					}
+				}
+			}
+		}
+		return headers.toArray(new String[headers.size()]);
+	}
+
+	/**
+	 * Parses HEADERS_PER_ROUND headers, cycling through the given ones.
+	 *
+	 * @param headers   header lines to parse
+	 * @param tokenizer true to parse with HeaderTokenizer, false with Scanner
+	 * @return elapsed nanoseconds
+	 */
+	private static long time(String[] headers, boolean tokenizer) {
+		long start = System.nanoTime();
+		for (int i = 0; i < HEADERS_PER_ROUND; i++) {
+			String header = headers[i % headers.length];
+			sink += tokenizer ? parseWithTokenizer(header) : parseWithScanner(header);
+		}
+		return System.nanoTime() - start;
+	}
+
+	/**
+	 * Splits a header the way AppReader.processApp() did before HeaderTokenizer.
+	 *
+	 * @param header header line
+	 * @return a value derived from the fields
+	 */
+	private static int parseWithScanner(String header) {
+		Scanner tokenScanner = new Scanner(header);
+		tokenScanner.useDelimiter(",");
+		int id = Integer.parseInt(tokenScanner.next());
+		String state = tokenScanner.next();
+		String appType = tokenScanner.next();
+		String summary = tokenScanner.next();
+		String reviewer = tokenScanner.next();
+		boolean processPaperwork = Boolean.parseBoolean(tokenScanner.next());
+		String resolution = tokenScanner.hasNext() ? tokenScanner.next() : "";
+		tokenScanner.close();
+		return id + state.length() + appType.length() + summary.length() + reviewer.length()
+				+ (processPaperwork ? 1 : 0) + resolution.length();
+	}
+
+	/**
+	 * Splits a header the way AppReader.processApp() does now.
+	 *
+	 * @param header header line
+	 * @return a value derived from the fields
+	 */
+	private static int parseWithTokenizer(String header) {
+		HeaderTokenizer tokenizer = new HeaderTokenizer(header);
+		int id = tokenizer.nextInt();
+		String state = tokenizer.next(STATE_NAMES);
+		String appType = tokenizer.next(Application.A_NEW, Application.A_OLD, Application.A_HIRED);
+		String summary = tokenizer.next();
+		String reviewer = tokenizer.next();
+		boolean processPaperwork = tokenizer.nextBoolean();
+		String resolution = tokenizer.hasNext() ? tokenizer.next(RESOLUTION_NAMES) : "";
+		return id + state.length() + appType.length() + summary.length() + reviewer.length()
+				+ (processPaperwork ? 1 : 0) + resolution.length();
+	}
+}
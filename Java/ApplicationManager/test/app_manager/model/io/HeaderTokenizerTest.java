@@ -0,0 +1,64 @@
+package app_manager.model.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import app_manager.model.application.Application;
+
+/**
+ * Tests the HeaderTokenizer class.
+ * 
+ * @author Christine Weld
+ */
+public class HeaderTokenizerTest {
+
+	/**
+	 * Tests splitting a full header line with an empty reviewer and a trailing
+	 * comma
+	 */
+	@Test
+	public void testHeader() {
+		HeaderTokenizer tokenizer = new HeaderTokenizer("14,Waitlist,New,Application summary,,FALSE,");
+		assertEquals(14, tokenizer.nextInt());
+		assertSame(Application.WAITLIST_NAME, tokenizer.next(Application.REVIEW_NAME, Application.WAITLIST_NAME));
+		assertSame(Application.A_NEW, tokenizer.next(Application.A_NEW));
+		assertEquals("Application summary", tokenizer.next());
+		assertEquals("", tokenizer.next());
+		assertFalse(tokenizer.nextBoolean());
+		assertFalse(tokenizer.hasNext());
+		assertThrows(IllegalArgumentException.class, () -> tokenizer.next());
+	}
+
+	/**
+	 * Tests that an empty field before a trailing comma is still returned
+	 */
+	@Test
+	public void testEmptyLastField() {
+		HeaderTokenizer tokenizer = new HeaderTokenizer("true,,");
+		assertTrue(tokenizer.nextBoolean());
+		assertTrue(tokenizer.hasNext());
+		assertEquals("", tokenizer.next());
+		assertFalse(tokenizer.hasNext());
+	}
+
+	/**
+	 * Tests HeaderTokenizer.nextInt() with valid and invalid numbers
+	 */
+	@Test
+	public void testNextInt() {
+		assertEquals(-7, new HeaderTokenizer("-7").nextInt());
+		assertEquals(Integer.MAX_VALUE, new HeaderTokenizer("+2147483647,x").nextInt());
+		assertEquals(Integer.MIN_VALUE, new HeaderTokenizer("-2147483648").nextInt());
+		assertThrows(NumberFormatException.class, () -> new HeaderTokenizer("2147483648").nextInt());
+		assertThrows(NumberFormatException.class, () -> new HeaderTokenizer(",Review").nextInt());
+		assertThrows(NumberFormatException.class, () -> new HeaderTokenizer("1a,Review").nextInt());
+		assertThrows(NumberFormatException.class, () -> new HeaderTokenizer("-").nextInt());
+		assertThrows(IllegalArgumentException.class, () -> new HeaderTokenizer("").nextInt());
+	}
+
+}
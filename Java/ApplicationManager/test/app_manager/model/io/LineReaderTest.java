@@ -0,0 +1,91 @@
+package app_manager.model.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the LineReader class.
+ *
+ * @author Christine Weld
+ */
+public class LineReaderTest {
+
+	/**
+	 * Returns a LineReader over the given text.
+	 *
+	 * @param text       text to read
+	 * @param bufferSize initial buffer size of the reader
+	 * @return LineReader over the text
+	 */
+	private LineReader reader(String text, int bufferSize) {
+		return new LineReader(
+				Channels.newChannel(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8))), bufferSize);
+	}
+
+	/**
+	 * Tests LineReader.nextLine() with mixed line terminators and no trailing
+	 * terminator.
+	 *
+	 * @throws IOException if the text cannot be read
+	 */
+	@Test
+	public void testNextLine() throws IOException {
+		try (LineReader reader = reader("*1,Review\r\n-[Review] Note 1\n\nlast", LineReader.DEFAULT_BUFFER_SIZE)) {
+			assertTrue(reader.nextLine());
+			assertTrue(reader.startsWith('*'));
+			assertEquals("1,Review", reader.lineString(1));
+			assertEquals(1, reader.lineNumber());
+			assertEquals(0, reader.lineOffset());
+
+			assertTrue(reader.nextLine());
+			assertFalse(reader.startsWith('*'));
+			assertEquals("-[Review] Note 1", reader.lineString(0));
+			assertEquals(11, reader.lineOffset());
+
+			assertTrue(reader.nextLine());
+			assertTrue(reader.isBlank());
+			assertEquals("", reader.lineString(0));
+
+			assertTrue(reader.nextLine());
+			assertEquals("last", reader.lineString(0));
+			assertEquals(4, reader.lineNumber());
+			assertFalse(reader.nextLine());
+		}
+	}
+
+	/**
+	 * Tests LineReader.nextLine() with lines longer than the buffer and multi-byte
+	 * characters.
+	 *
+	 * @throws IOException if the text cannot be read
+	 */
+	@Test
+	public void testNextLineSmallBuffer() throws IOException {
+		try (LineReader reader = reader("Application’s summary\nsecond line\n", 4)) {
+			assertTrue(reader.nextLine());
+			assertEquals("Application’s summary", reader.lineString(0));
+			assertTrue(reader.nextLine());
+			assertEquals("second line", reader.lineString(0));
+			assertEquals(24, reader.lineOffset());
+			assertFalse(reader.nextLine());
+		}
+	}
+
+	/**
+	 * Tests LineReader constructor with an invalid buffer size.
+	 */
+	@Test
+	public void testLineReaderInvalid() {
+		assertThrows(IllegalArgumentException.class, () -> reader("", 0));
+	}
+
+}
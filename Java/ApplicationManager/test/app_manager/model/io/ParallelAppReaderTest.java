@@ -0,0 +1,91 @@
+package app_manager.model.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+
+import app_manager.model.application.Application;
+
+/**
+ * Tests the ParallelAppReader class.
+ * 
+ * @author Christine Weld
+ */
+public class ParallelAppReaderTest {
+
+	/**
+	 * Tests ParallelAppReader.read() returns the same list as the sequential reader
+	 * when the file is split into many small chunks
+	 * 
+	 * @throws IOException if the file cannot be read
+	 */
+	@Test
+	public void testReadSmallChunks() throws IOException {
+		for (String file : new String[] { "test-files/app1.txt", "test-files/app2.txt" }) {
+			ArrayList<Application> expected = AppReader.readAppsFromFile(file);
+			for (int chunkSize = 1; chunkSize < 200; chunkSize += 17) {
+				try (FileChannel channel = FileChannel.open(Paths.get(file))) {
+					assertSameApps(expected, ParallelAppReader.read(channel, chunkSize));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Tests ParallelAppReader.findChunkBounds() only splits at record starts
+	 * 
+	 * @throws IOException if the file cannot be read
+	 */
+	@Test
+	public void testFindChunkBounds() throws IOException {
+		Path path = Paths.get("test-files/app1.txt");
+		byte[] bytes = Files.readAllBytes(path);
+		try (FileChannel channel = FileChannel.open(path)) {
+			long[] bounds = ParallelAppReader.findChunkBounds(channel, 100);
+			assertEquals(0, bounds[0]);
+			assertEquals(bytes.length, bounds[bounds.length - 1]);
+			for (int i = 1; i < bounds.length - 1; i++) {
+				assertEquals('*', bytes[(int) bounds[i]]);
+				assertEquals('\n', bytes[(int) bounds[i] - 1]);
+			}
+		}
+	}
+
+	/**
+	 * Tests AppReader.readAppsFromFileParallel() with valid and invalid files
+	 */
+	@Test
+	public void testReadAppsFromFileParallel() {
+		assertSameApps(AppReader.readAppsFromFile("test-files/app2.txt"),
+				AppReader.readAppsFromFileParallel("test-files/app2.txt"));
+
+		Exception e1 = assertThrows(IllegalArgumentException.class,
+				() -> AppReader.readAppsFromFileParallel("test-files/app3.txt"));
+		assertEquals("Unable to load file.", e1.getMessage());
+		Exception e2 = assertThrows(IllegalArgumentException.class,
+				() -> AppReader.readAppsFromFileParallel("test-files/app7.txt"));
+		assertEquals("Unable to load file.", e2.getMessage());
+	}
+
+	/**
+	 * Asserts that two lists hold the same Applications in the same order
+	 * 
+	 * @param expected expected list of Applications
+	 * @param actual   actual list of Applications
+	 */
+	private void assertSameApps(ArrayList<Application> expected, ArrayList<Application> actual) {
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.get(i).toString(), actual.get(i).toString());
+		}
+	}
+
+}
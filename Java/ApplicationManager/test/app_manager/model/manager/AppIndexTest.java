@@ -0,0 +1,102 @@
+package app_manager.model.manager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+
+import app_manager.model.application.Application;
+import app_manager.model.application.Application.AppType;
+import app_manager.model.command.Command;
+import app_manager.model.command.Command.CommandValue;
+
+/**
+ * Tests the AppIndex class.
+ * 
+ * @author Christine Weld
+ */
+public class AppIndexTest {
+
+	/**
+	 * Tests adding and removing Applications
+	 */
+	@Test
+	public void testAddRemove() {
+		AppIndex index = new AppIndex();
+		ArrayList<String> notes = new ArrayList<String>();
+		notes.add("[Review] Note");
+		Application a1 = new Application(1, "Review", "New", "Summary", null, false, "", notes);
+		Application a2 = new Application(70, "Interview", "Old", "Summary", "jdoe", false, "", notes);
+		index.add(a1);
+		index.add(a2);
+
+		assertEquals("{1}", index.idsByType("New").toString());
+		assertEquals("{70}", index.idsByState("Interview").toString());
+		assertEquals("{70}", index.idsByReviewer("jdoe").toString());
+		assertEquals("{1}", index.idsByReviewer(null).toString());
+		assertTrue(index.idsByType("Hired").isEmpty());
+
+		index.remove(a2);
+		assertTrue(index.idsByState("Interview").isEmpty());
+		assertTrue(index.idsByReviewer("jdoe").isEmpty());
+		assertEquals("{1}", index.idsByState("Review").toString());
+	}
+
+	/**
+	 * Tests moving an Application from the values in a Key to its current ones
+	 */
+	@Test
+	public void testRemoveKey() {
+		AppIndex index = new AppIndex();
+		Application app = new Application(4, AppType.NEW, "Summary", "Note");
+		index.add(app);
+
+		AppIndex.Key key = new AppIndex.Key(app);
+		app.update(new Command(CommandValue.ACCEPT, "jdoe", null, "Accepted"));
+		index.remove(key);
+		index.add(app);
+
+		assertTrue(index.idsByType("New").isEmpty());
+		assertTrue(index.idsByState("Review").isEmpty());
+		assertTrue(index.idsByReviewer(null).isEmpty());
+		assertEquals("{4}", index.idsByType("Old").toString());
+		assertEquals("{4}", index.idsByState("Interview").toString());
+		assertEquals("{4}", index.idsByReviewer("jdoe").toString());
+		assertEquals("{4}", index.allIds().toString());
+	}
+
+	/**
+	 * Tests that ids near Integer.MAX_VALUE are indexed without storage sized by
+	 * the greatest id, and are found and removed like small ones
+	 */
+	@Test
+	public void testLargeIds() {
+		AppIndex index = new AppIndex();
+		ArrayList<String> notes = new ArrayList<String>();
+		notes.add("[Review] Note");
+		AppList list = new AppList();
+		ArrayList<Application> apps = new ArrayList<Application>();
+		for (int i = 0; i < 1000; i++) {
+			int id = Integer.MAX_VALUE - 1 - i * 1_000_003;
+			Application app = new Application(id, "Interview", "Old", "Summary", "jdoe", false, "", notes);
+			index.add(app);
+			apps.add(app);
+		}
+		Application small = new Application(1, "Review", "New", "Summary", null, false, "", notes);
+		index.add(small);
+		apps.add(small);
+
+		assertEquals(1000, index.idsByState("Interview").cardinality());
+		assertTrue(index.idsByState("Interview").contains(Integer.MAX_VALUE - 1));
+		assertEquals("{1}", index.idsByType("New").toString());
+		assertEquals(1001, index.allIds().cardinality());
+		index.remove(apps.get(0));
+		assertEquals(999, index.idsByReviewer("jdoe").cardinality());
+
+		list.addApps(apps);
+		assertEquals(1000, list.getAppsByState("Interview").size());
+		assertEquals(Integer.MAX_VALUE - 1, list.getAppById(Integer.MAX_VALUE - 1).getAppId());
+	}
+}
@@ -1,11 +1,18 @@
 package app_manager.model.manager;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Scanner;
 
 import org.junit.jupiter.api.Test;
@@ -123,6 +130,90 @@ public class AppListTest {
 		checkFiles("test-files/exp_app2_sorted.txt", "test-files/act_app2_sorted.txt");
 	}
 
+	/**
+	 * Tests AppList.addApps() keeps the first application of a repeated id and
+	 * replaces the previous contents of the list
+	 */
+	@Test
+	public void testAddAppsDuplicates() {
+		ArrayList<Application> apps = new ArrayList<Application>();
+		apps.add(new Application(5, AppType.NEW, "First 5", "Note"));
+		apps.add(new Application(2, AppType.OLD, "First 2", "Note"));
+		apps.add(new Application(5, AppType.HIRED, "Second 5", "Note"));
+		apps.add(new Application(2, AppType.NEW, "Second 2", "Note"));
+		apps.add(new Application(3, AppType.NEW, "Only 3", "Note"));
+
+		AppList appList = new AppList();
+		appList.addApp(AppType.NEW, "summary", "Note 1");
+		appList.addApps(apps);
+		assertEquals(3, appList.getApps().size());
+		assertEquals("First 2", appList.getApps().get(0).getSummary());
+		assertEquals("Only 3", appList.getApps().get(1).getSummary());
+		assertEquals("First 5", appList.getApps().get(2).getSummary());
+		assertEquals("First 5", appList.getAppById(5).getSummary());
+		assertEquals(null, appList.getAppById(1));
+		assertEquals(7, appList.addApp(AppType.NEW, "summary", "Note 1"));
+	}
+
+	/**
+	 * Tests AppList.getApps() with a range of ids, and that the list returned by
+	 * getApps() follows changes to the AppList
+	 */
+	@Test
+	public void testGetAppsRange() {
+		AppList appList = new AppList();
+		appList.addApps(AppReader.readAppsFromFile(validFileApp1));
+
+		ArrayList<Application> range = appList.getApps(3, 15);
+		assertEquals(3, range.size());
+		assertEquals(3, range.get(0).getAppId());
+		assertEquals(14, range.get(2).getAppId());
+		assertEquals(0, appList.getApps(20, 30).size());
+
+		assertEquals(6, appList.getApps().size());
+		appList.deleteAppById(3);
+		assertEquals(5, appList.getApps().size());
+		assertEquals(2, appList.getApps(3, 15).size());
+
+		// Changing a returned list leaves the AppList and later lists as they were
+		ArrayList<Application> apps = appList.getApps();
+		apps.clear();
+		assertEquals(5, appList.getApps().size());
+		assertEquals(5, appList.snapshot().size());
+		assertEquals(1, appList.getAppById(1).getAppId());
+	}
+
+	/**
+	 * Tests AppList.getAppsByState() and getAppsByReviewer() follow commands,
+	 * deletions and additions
+	 */
+	@Test
+	public void testGetAppsByStateAndReviewer() {
+		AppList appList = new AppList();
+		appList.addApps(AppReader.readAppsFromFile(validFileApp1));
+
+		assertEquals(1, appList.getAppsByState("Review").size());
+		assertEquals(4, appList.getAppsByReviewer("reviewer").size());
+		assertEquals(2, appList.getAppsByReviewer(null).size());
+		assertEquals(0, appList.getAppsByReviewer("nobody").size());
+		assertThrows(IllegalArgumentException.class, () -> appList.getAppsByState(null));
+
+		appList.executeCommand(1, new Command(CommandValue.ACCEPT, "reviewer", Resolution.REVCOMPLETED, "note"));
+		assertEquals(0, appList.getAppsByState("Review").size());
+		assertEquals(2, appList.getAppsByState("Interview").size());
+		assertEquals(5, appList.getAppsByReviewer("reviewer").size());
+		assertEquals(1, appList.getAppsByReviewer(null).size());
+		assertEquals(5, appList.getAppsByType("Old").size());
+
+		appList.addApp(AppType.NEW, "summary", "Note 1");
+		assertEquals(1, appList.getAppsByState("Review").size());
+		assertEquals(2, appList.getAppsByType("New").size());
+
+		appList.deleteAppById(3);
+		assertEquals(1, appList.getAppsByState("Interview").size());
+		assertEquals(1, appList.getAppsByState("Interview").get(0).getAppId());
+	}
+
 	/**
 	 * Tests AppList.getAppByType() by type = new from file app1.txt
 	 */
@@ -171,6 +262,22 @@ public class AppListTest {
 		appList.addApps(apps);
 		assertEquals(appList.getApps().get(3), appList.getAppById(14));
 	}
+
+	/**
+	 * Tests AppList.getIds() and AppList.getRow()
+	 */
+	@Test
+	public void testGetIdsAndRow() {
+		AppList appList = new AppList();
+		assertArrayEquals(new int[0], appList.getIds(null));
+		assertEquals(null, appList.getRow(1));
+
+		appList.addApps(AppReader.readAppsFromFile(validFileApp1));
+		assertArrayEquals(new int[] { 1, 3, 7, 14, 15, 16 }, appList.getIds(null));
+		assertArrayEquals(new int[] { 1, 14 }, appList.getIds("New"));
+		assertArrayEquals(new int[0], appList.getIds("Hired"));
+		assertArrayEquals(new Object[] { 7, "RefCheck", "Old", "Application summary" }, appList.getRow(7));
+	}
 	
 	/**
 	 * Tests AppList.deleteAppById() with empty list
@@ -203,6 +310,71 @@ public class AppListTest {
 		assertEquals(14, appList.getApps().get(2).getAppId());
 	}
 
+	/**
+	 * Tests that ids of deleted applications are not used again, and that a
+	 * saved high-water mark is kept
+	 */
+	@Test
+	public void testIdsNotReused() {
+		AppList appList = new AppList();
+		appList.addApp(AppType.NEW, "summary", "Note 1");
+		appList.addApp(AppType.NEW, "summary", "Note 2");
+		assertEquals(4, appList.addApp(AppType.NEW, "summary", "Note 3"));
+
+		appList.deleteAppById(3);
+		appList.deleteAppById(100);
+		appList.deleteAppById(1);
+		assertEquals(5, appList.addApp(AppType.NEW, "summary", "Note 4"));
+		assertEquals(2, appList.getApps().size());
+		assertEquals(4, appList.getApps().get(1).getAppId());
+		assertEquals(4, appList.getHighWaterMark());
+
+		appList.addApps(AppReader.readAppsFromFile(validFileApp1));
+		assertEquals(16, appList.getHighWaterMark());
+		appList.reserveIds(30);
+		appList.reserveIds(20);
+		appList.addApp(AppType.NEW, "summary", "Note 5");
+		assertEquals(31, appList.getApps().get(6).getAppId());
+	}
+
+	/**
+	 * Tests that a snapshot is reused while nothing changes, and that a new one
+	 * only rebuilds the rows of changed applications
+	 */
+	@Test
+	public void testSnapshot() {
+		AppList appList = new AppList();
+		assertEquals(0, appList.snapshot().size());
+		appList.addApps(AppReader.readAppsFromFile(validFileApp1));
+
+		AppSnapshot first = appList.snapshot();
+		assertSame(first, appList.snapshot());
+		assertEquals(6, first.size());
+		assertArrayEquals(new Object[] { 1, "Review", "New", "Application summary" }, first.getRow(0));
+
+		appList.executeCommand(3, new Command(CommandValue.ACCEPT, "jdoe", null, "note"));
+		AppSnapshot second = appList.snapshot();
+		assertNotSame(first, second);
+		assertTrue(second.getVersion() > first.getVersion());
+		assertEquals("Interview", first.getValueAt(1, 1));
+		assertEquals("RefCheck", second.getValueAt(1, 1));
+		assertNotSame(first.rowAt(1), second.rowAt(1));
+		for (int i = 0; i < first.size(); i++) {
+			if (i != 1) {
+				assertSame(first.rowAt(i), second.rowAt(i));
+			}
+		}
+
+		appList.deleteAppById(1);
+		appList.addApp(AppType.OLD, "added", "note");
+		AppSnapshot third = appList.snapshot();
+		assertEquals(6, third.size());
+		assertEquals(3, third.getIdAt(0));
+		assertSame(second.rowAt(1), third.rowAt(0));
+		assertEquals(17, third.getIdAt(5));
+		assertEquals(6, first.size());
+	}
+
 	/**
 	 * Tests AppList.executeCommand()
 	 */
@@ -240,7 +412,93 @@ public class AppListTest {
 		assertEquals("reviewer refcheck test", app.getReviewer());
 	}
 
+	/**
+	 * Tests that AppList records added, updated and deleted applications
+	 */
+	@Test
+	public void testChanges() {
+		AppList appList = new AppList();
+		appList.addApps(AppReader.readAppsFromFile(validFileApp1));
+		assertEquals(0, appList.getChangedApps().size());
+
+		appList.addApp(AppType.NEW, "summary", "Note 1");
+		appList.executeCommand(1, new Command(CommandValue.ACCEPT, "reviewer", null, "Accepted"));
+		appList.deleteAppById(7);
+		appList.deleteAppById(17);
+
+		ArrayList<Application> changed = appList.getChangedApps();
+		assertEquals(1, changed.size());
+		assertEquals(1, changed.get(0).getAppId());
+		assertEquals(2, appList.getDeletedIds().size());
+		assertEquals(7, appList.getDeletedIds().get(0));
+
+		appList.clearChanges();
+		assertEquals(0, appList.getChangedApps().size());
+		assertEquals(0, appList.getDeletedIds().size());
+	}
 	
+	/**
+	 * Tests AppList.executeCommands() with valid, invalid and unknown ids
+	 */
+	@Test
+	public void testExecuteCommands() {
+		AppList appList = new AppList();
+		appList.addApps(AppReader.readAppsFromFile(validFileApp1));
+		appList.clearChanges();
+		ArrayList<String> events = new ArrayList<String>();
+		appList.addListener(e -> events.add(e.toString()));
+
+		HashMap<Integer, Command> commands = new HashMap<Integer, Command>();
+		commands.put(14, new Command(CommandValue.REOPEN, null, null, "Reopened"));
+		commands.put(99, new Command(CommandValue.REOPEN, null, null, "Reopened"));
+		commands.put(3, new Command(CommandValue.REOPEN, null, null, "Reopened"));
+		commands.put(1, new Command(CommandValue.ACCEPT, "reviewer", null, "Accepted"));
+		Map<Integer, CommandBatch.Outcome> outcomes = appList.executeCommands(commands);
+
+		assertEquals("{1=UPDATED, 3=INVALID, 14=UPDATED, 99=NOT_FOUND}", outcomes.toString());
+		assertEquals("Interview", appList.getAppById(1).getStateName());
+		assertEquals("Review", appList.getAppById(14).getStateName());
+		assertEquals("Interview", appList.getAppById(3).getStateName());
+		assertEquals(2, appList.getAppsByState("Interview").size());
+		assertEquals(1, appList.getAppsByState("Review").size());
+		assertEquals(2, appList.getChangedApps().size());
+		assertEquals("[UPDATED 1,14]", events.toString());
+
+		assertEquals(0, appList.executeCommands(new HashMap<Integer, Command>()).size());
+		assertEquals(1, events.size());
+		assertThrows(IllegalArgumentException.class, () -> appList.executeCommands((CommandBatch) null));
+	}
+
+	/**
+	 * Tests that listeners are told of each change once the list is unlocked
+	 */
+	@Test
+	public void testListeners() {
+		AppList appList = new AppList();
+		ArrayList<String> events = new ArrayList<String>();
+		AppListener listener = e -> events.add(e + " " + appList.getApps().size());
+		appList.addListener(listener);
+		assertThrows(IllegalArgumentException.class, () -> appList.addListener(null));
+
+		appList.addApps(AppReader.readAppsFromFile(validFileApp1));
+		appList.addApp(AppType.NEW, "summary", "Note 1");
+		appList.executeCommand(17, new Command(CommandValue.ACCEPT, "reviewer", null, "Accepted"));
+		appList.executeCommand(99, new Command(CommandValue.ACCEPT, "reviewer", null, "Accepted"));
+		appList.deleteAppById(7);
+		appList.deleteAppById(7);
+		try {
+			appList.executeCommand(17, new Command(CommandValue.REOPEN, "reviewer", null, "Reopened"));
+			fail();
+		} catch (UnsupportedOperationException e) {
+			// An invalid command changes nothing and sends no event
+		}
+		assertEquals("[REPLACED 0 6, ADDED 17 7, UPDATED 17 7, REMOVED 7 6]", events.toString());
+
+		appList.removeListener(listener);
+		appList.deleteAppById(1);
+		assertEquals(4, events.size());
+	}
+
 	/**
 	 * Helper method to compare two files for the same contents
 	 * 
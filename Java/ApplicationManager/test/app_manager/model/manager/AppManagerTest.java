@@ -1,12 +1,27 @@
 package app_manager.model.manager;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Scanner;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,6 +31,10 @@ import app_manager.model.application.Application.AppType;
 import app_manager.model.command.Command;
 import app_manager.model.command.Command.CommandValue;
 import app_manager.model.command.Command.Resolution;
+import app_manager.model.io.AppBinaryFormat;
+import app_manager.model.io.AppJournal;
+import app_manager.model.io.AppReader;
+import app_manager.model.io.ImportReport;
 
 /**
  * Tests the AppManager class. Individual tests for getters and setters are
@@ -88,6 +107,104 @@ public class AppManagerTest {
 		assertEquals("Unable to save file.", e.getMessage());
 	}
 
+	/**
+	 * Tests AppManager.saveChangesToFile() only journals changed applications and
+	 * that the journal is replayed on load
+	 * 
+	 * @throws IOException if the test file cannot be copied
+	 */
+	@Test
+	public void testSaveChangesToFile() throws IOException {
+		Path file = Files.createTempDirectory("appmanager").resolve("apps.txt");
+		Files.copy(Paths.get(validFileApp1), file);
+		String fileName = file.toString();
+
+		manager.loadAppsFromFile(fileName);
+		manager.executeCommand(1, new Command(CommandValue.REJECT, "reviewer", Resolution.REVCOMPLETED, "Rejected"));
+		manager.deleteAppById(3);
+		manager.saveChangesToFile(fileName);
+
+		// the file itself is untouched, the changes are in the journal
+		assertEquals(6, AppReader.readAppsFromFile(fileName).size());
+		assertTrue(Files.exists(Paths.get(fileName + AppJournal.JOURNAL_EXTENSION)));
+
+		manager.createNewAppList();
+		manager.loadAppsFromFile(fileName);
+		assertEquals(5, manager.getAppList().getApps().size());
+		assertEquals("Closed", manager.getAppById(1).getStateName());
+		assertEquals(null, manager.getAppById(3));
+
+		// a full save folds the journal back into the file
+		manager.saveAppsToFile(fileName);
+		assertFalse(Files.exists(Paths.get(fileName + AppJournal.JOURNAL_EXTENSION)));
+		assertEquals(5, AppReader.readAppsFromFile(fileName).size());
+	}
+
+	/**
+	 * Tests that AppManager loads and saves binary files by their header
+	 * 
+	 * @throws IOException if the temporary directory cannot be created
+	 */
+	@Test
+	public void testBinaryFile() throws IOException {
+		String fileName = Files.createTempDirectory("appmanager").resolve("apps" + AppBinaryFormat.EXTENSION)
+				.toString();
+		manager.loadAppsFromFile(validFileApp1);
+		manager.saveAppsToFile(fileName);
+		assertTrue(AppBinaryFormat.isBinaryFile(fileName));
+
+		manager.createNewAppList();
+		manager.loadAppsFromFile(fileName);
+		assertEquals(6, manager.getAppList().getApps().size());
+		assertEquals("-[Review] Note 1\n", manager.getAppById(1).getNotesString());
+	}
+
+	/**
+	 * Tests that a binary file is read on demand until the list is changed
+	 * 
+	 * @throws IOException if the temporary directory cannot be created
+	 */
+	@Test
+	public void testBinaryFileOnDemand() throws IOException {
+		String fileName = Files.createTempDirectory("appmanager").resolve("apps" + AppBinaryFormat.EXTENSION)
+				.toString();
+		manager.loadAppsFromFile(validFileApp1);
+		Object[][] expected = manager.getAppListAsArray();
+		Object[][] expectedNew = manager.getAppListAsArrayByAppType(Application.A_NEW);
+		manager.saveAppsToFile(fileName);
+
+		manager.createNewAppList();
+		manager.loadAppsFromFile(fileName);
+		assertArrayEquals(expected, manager.getAppListAsArray());
+		assertArrayEquals(expectedNew, manager.getAppListAsArrayByAppType(Application.A_NEW));
+		Application app = manager.getAppById(1);
+		assertEquals("-[Review] Note 1\n", app.getNotesString());
+
+		manager.deleteAppById(3);
+		assertSame(app, manager.getAppById(1));
+		assertEquals(5, manager.getAppListAsArray().length);
+		assertEquals(5, manager.getAppList().getApps().size());
+	}
+
+	/**
+	 * Tests AppManager.importAppsFromFile() loads the valid applications of a file
+	 * with invalid records
+	 * 
+	 * @throws IOException if the temporary file cannot be written
+	 */
+	@Test
+	public void testImportAppsFromFile() throws IOException {
+		Path file = Files.createTempDirectory("appmanager").resolve("import.txt");
+		Files.writeString(file, "*1,Review,New,Summary,,false,\n-[Review] Note 1\n*2,Review\n"
+				+ "*3,Review,Old,Summary,,false,\n-[Review] Note 3\n");
+
+		ImportReport report = manager.importAppsFromFile(file.toString());
+		assertEquals(1, report.getErrors().size());
+		assertEquals(3, report.getErrors().get(0).getLineNumber());
+		assertEquals(2, manager.getAppList().getApps().size());
+		assertEquals(3, manager.getAppById(3).getAppId());
+	}
+
 	/**
 	 * Tests AppManager.createNewAppList()
 	 */
@@ -97,6 +214,180 @@ public class AppManagerTest {
 		assertEquals(0, manager.getAppList().getApps().size());
 	}
 
+	/**
+	 * Tests that listeners of AppManager follow the list as it is replaced
+	 */
+	@Test
+	public void testListeners() {
+		ArrayList<String> events = new ArrayList<String>();
+		AppListener listener = e -> events.add(e.toString());
+		manager.addListener(listener);
+		try {
+			manager.loadAppsFromFile(validFileApp1);
+			AppList loaded = manager.getAppList();
+			manager.addAppToList(AppType.NEW, "summary", "note");
+			manager.createNewAppList();
+			loaded.deleteAppById(1);
+			manager.addAppToList(AppType.NEW, "summary", "note");
+			manager.setAppList(loaded);
+			manager.deleteAppById(3);
+			assertEquals("[REPLACED 0, ADDED 17, REPLACED 0, ADDED 1, REPLACED 0, REMOVED 3]", events.toString());
+		} finally {
+			manager.removeListener(listener);
+		}
+		manager.createNewAppList();
+		assertEquals(6, events.size());
+	}
+
+	/**
+	 * Tests that files saved while commands run on the applications load back,
+	 * in the text, binary and journal formats
+	 * 
+	 * @throws Exception if a thread fails or a file cannot be written
+	 */
+	@Test
+	public void testSaveWhileCommandsRun() throws Exception {
+		final int apps = 50;
+		final int rounds = 40;
+		for (int i = 0; i < apps; i++) {
+			manager.addAppToList(AppType.NEW, "summary", "Note");
+		}
+		Path dir = Files.createTempDirectory("appmanager");
+		String text = dir.resolve("apps.txt").toString();
+		String binary = dir.resolve("apps" + AppBinaryFormat.EXTENSION).toString();
+
+		ExecutorService pool = Executors.newSingleThreadExecutor();
+		Future<?> worker = pool.submit(() -> {
+			// Walks new applications from review to hired, through every state that
+			// sets more than one field, and deletes them to keep the list small
+			for (int round = 0; round < rounds; round++) {
+				ArrayList<Integer> ids = new ArrayList<Integer>();
+				for (int i = 0; i < apps; i++) {
+					manager.addAppToList(AppType.NEW, "summary", "Note");
+					ids.add(manager.getAppList().getHighWaterMark());
+				}
+				for (int step = 0; step < 4; step++) {
+					for (int id : ids) {
+						manager.executeCommand(id, new Command(CommandValue.ACCEPT, "jdoe", null, "Step " + step));
+					}
+				}
+				for (int id : ids) {
+					manager.deleteAppById(id);
+				}
+			}
+			return null;
+		});
+		try {
+			int saves = 0;
+			while (!worker.isDone() || saves < 3) {
+				manager.saveAppsToFile(text);
+				assertTrue(AppReader.readAppsFromFile(text).size() >= apps);
+				manager.saveChangesToFile(text);
+				assertTrue(new AppJournal(text).load().size() >= apps);
+				manager.saveAppsToFile(binary);
+				assertTrue(AppReader.readAppsFromFile(binary).size() >= apps);
+				saves++;
+			}
+		} finally {
+			worker.get();
+			pool.shutdown();
+		}
+		manager.saveAppsToFile(text);
+		assertEquals(apps, AppReader.readAppsFromFile(text).size());
+	}
+
+	/**
+	 * Tests AppManager.executeCommands() with a batch large enough to run in
+	 * parallel
+	 */
+	@Test
+	public void testExecuteCommands() {
+		final int apps = 1000;
+		for (int i = 0; i < apps; i++) {
+			manager.addAppToList(AppType.NEW, "summary", "Note");
+		}
+		ArrayList<AppChangeEvent> events = new ArrayList<AppChangeEvent>();
+		AppListener listener = e -> events.add(e);
+		manager.addListener(listener);
+		try {
+			HashMap<Integer, Command> commands = new HashMap<Integer, Command>();
+			for (int id = apps; id >= 1; id--) {
+				commands.put(id, new Command(CommandValue.REJECT, "jdoe", Resolution.REVCOMPLETED, "Reject " + id));
+			}
+			commands.put(apps + 10, new Command(CommandValue.REJECT, "jdoe", Resolution.REVCOMPLETED, "Reject"));
+
+			Map<Integer, CommandBatch.Outcome> outcomes = manager.executeCommands(commands);
+			assertEquals(apps + 1, outcomes.size());
+			int expectedId = 1;
+			for (Map.Entry<Integer, CommandBatch.Outcome> outcome : outcomes.entrySet()) {
+				assertEquals(expectedId, outcome.getKey());
+				assertEquals(expectedId <= apps ? CommandBatch.Outcome.UPDATED : CommandBatch.Outcome.NOT_FOUND,
+						outcome.getValue());
+				expectedId = expectedId == apps ? apps + 10 : expectedId + 1;
+			}
+			assertEquals(apps, manager.getAppList().query(AppQuery.state(Application.CLOSED_NAME)).size());
+			assertEquals("[Closed] Reject 500", manager.getAppById(500).getNotes().get(1));
+			assertEquals(1, events.size());
+			assertEquals(apps, events.get(0).getAppIds().length);
+
+			// Closed applications cannot be rejected again
+			outcomes = manager.executeCommands(commands);
+			assertEquals(CommandBatch.Outcome.INVALID, outcomes.get(1));
+			assertEquals(1, events.size());
+		} finally {
+			manager.removeListener(listener);
+		}
+		assertThrows(IllegalArgumentException.class, () -> manager.executeCommands((Map<Integer, Command>) null));
+	}
+
+	/**
+	 * Tests that batches of commands run at the same time on the same
+	 * applications are each applied once
+	 * 
+	 * @throws Exception if a thread fails
+	 */
+	@Test
+	public void testConcurrentBatches() throws Exception {
+		final int apps = 300;
+		final int threads = 4;
+		final int rounds = 50;
+		for (int i = 0; i < apps; i++) {
+			manager.addAppToList(AppType.OLD, "summary", "Note");
+			manager.executeCommand(i + 1, new Command(CommandValue.REJECT, "jdoe", Resolution.REVCOMPLETED, "Reject"));
+		}
+
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		ArrayList<Future<?>> futures = new ArrayList<Future<?>>();
+		CountDownLatch start = new CountDownLatch(threads);
+		for (int t = 0; t < threads; t++) {
+			final int thread = t;
+			futures.add(pool.submit(() -> {
+				start.countDown();
+				start.await();
+				for (int r = 0; r < rounds; r++) {
+					// Reopening a closed Old application only adds a note
+					HashMap<Integer, Command> commands = new HashMap<Integer, Command>();
+					for (int id = 1; id <= apps; id++) {
+						commands.put(id, new Command(CommandValue.REOPEN, null, null, thread + "-" + r));
+					}
+					for (CommandBatch.Outcome outcome : manager.executeCommands(commands).values()) {
+						assertEquals(CommandBatch.Outcome.UPDATED, outcome);
+					}
+				}
+				return null;
+			}));
+		}
+		for (Future<?> future : futures) {
+			future.get();
+		}
+		pool.shutdown();
+
+		for (int id = 1; id <= apps; id++) {
+			HashSet<String> notes = new HashSet<String>(manager.getAppById(id).getNotes());
+			assertEquals(2 + threads * rounds, notes.size());
+		}
+	}
+
 	/**
 	 * Tests AppManager.getAppListAsArray()
 	 */
@@ -218,6 +509,119 @@ public class AppManagerTest {
 		assertEquals(1, manager.getAppList().getApps().size());
 	}
 
+	/**
+	 * Tests that ids of applications deleted before saving are not used again
+	 * after loading, with the high-water mark saved in a binary file, in the
+	 * journal of a text file, in a text file the journal was compacted into and
+	 * in a text file saved whole
+	 * 
+	 * @throws IOException if the temporary directory cannot be created
+	 */
+	@Test
+	public void testIdsNotReusedAfterLoad() throws IOException {
+		Path dir = Files.createTempDirectory("appmanager");
+		String binary = dir.resolve("apps" + AppBinaryFormat.EXTENSION).toString();
+		manager.loadAppsFromFile(validFileApp1);
+		manager.deleteAppById(16);
+		manager.saveAppsToFile(binary);
+
+		manager.loadAppsFromFile(binary);
+		manager.addAppToList(AppType.NEW, "summary", "Note 1");
+		assertEquals(17, manager.getAppList().getApps().get(5).getAppId());
+
+		String text = dir.resolve("apps.txt").toString();
+		manager.loadAppsFromFile(validFileApp1);
+		manager.saveAppsToFile(text);
+		manager.deleteAppById(16);
+		manager.saveChangesToFile(text);
+
+		manager.loadAppsFromFile(text);
+		manager.addAppToList(AppType.NEW, "summary", "Note 1");
+		assertEquals(17, manager.getAppList().getApps().get(5).getAppId());
+
+		AppJournal journal = new AppJournal(text);
+		journal.compactAsync();
+		journal.awaitCompaction();
+		assertTrue(journal.isEmpty());
+		manager.loadAppsFromFile(text);
+		manager.addAppToList(AppType.NEW, "summary", "Note 1");
+		assertEquals(17, manager.getAppList().getApps().get(5).getAppId());
+
+		manager.loadAppsFromFile(validFileApp1);
+		manager.deleteAppById(16);
+		manager.saveAppsToFile(text);
+		manager.loadAppsFromFile(text);
+		manager.addAppToList(AppType.NEW, "summary", "Note 1");
+		assertEquals(17, manager.getAppList().getApps().get(5).getAppId());
+	}
+
+	/**
+	 * Stress tests AppManager with several threads updating, adding and reading
+	 * Applications at once, and checks every update was applied exactly once
+	 * 
+	 * @throws Exception if a thread failed
+	 */
+	@Test
+	public void testConcurrentUpdates() throws Exception {
+		final int apps = 8;
+		final int threads = 8;
+		final int commands = 5000;
+		for (int i = 0; i < apps; i++) {
+			manager.addAppToList(AppType.OLD, "summary", "Note");
+			manager.executeCommand(i + 1, new Command(CommandValue.REJECT, "jdoe", Resolution.REVCOMPLETED, "Reject"));
+		}
+
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		ArrayList<Future<?>> futures = new ArrayList<Future<?>>();
+		CountDownLatch start = new CountDownLatch(threads);
+		for (int t = 0; t < threads; t++) {
+			final int thread = t;
+			futures.add(pool.submit(() -> {
+				start.countDown();
+				start.await();
+				for (int i = 0; i < commands; i++) {
+					// Reopening a closed Old application only adds a note
+					int id = i % apps + 1;
+					manager.executeCommand(id, new Command(CommandValue.REOPEN, null, null, thread + "-" + i));
+					if (i % 50 == 0) {
+						manager.addAppToList(AppType.NEW, "added", "Note");
+						assertTrue(manager.getAppListAsArray().length > apps);
+						assertEquals(id, manager.getAppById(id).getAppId());
+						assertEquals(apps, manager.getAppList().query(AppQuery.state(Application.CLOSED_NAME)).size());
+					}
+				}
+				return null;
+			}));
+		}
+		for (Future<?> future : futures) {
+			future.get();
+		}
+		pool.shutdown();
+
+		HashSet<String> notes = new HashSet<String>();
+		for (int id = 1; id <= apps; id++) {
+			ArrayList<String> appNotes = manager.getAppById(id).getNotes();
+			for (int i = 2; i < appNotes.size(); i++) {
+				assertTrue(notes.add(appNotes.get(i)));
+			}
+		}
+		assertEquals(threads * commands, notes.size());
+		for (int t = 0; t < threads; t++) {
+			for (int i = 0; i < commands; i++) {
+				assertTrue(notes.contains("[Closed] " + t + "-" + i));
+			}
+		}
+
+		int added = threads * commands / 50;
+		ArrayList<Application> list = manager.getAppList().getApps();
+		assertEquals(apps + added, list.size());
+		for (int i = 0; i < list.size(); i++) {
+			assertEquals(i + 1, list.get(i).getAppId());
+		}
+		assertEquals(added, manager.getAppList().getAppsByType(Application.A_NEW).size());
+		assertEquals(apps + added, manager.getAppList().getChangedApps().size());
+	}
+
 	/**
 	 * Helper method to compare two files for the same contents
 	 * 
@@ -0,0 +1,86 @@
+package app_manager.model.manager;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import app_manager.model.application.Application;
+import app_manager.model.command.Command;
+import app_manager.model.command.Command.CommandValue;
+import app_manager.model.command.Command.Resolution;
+import app_manager.model.io.AppReader;
+
+/**
+ * Tests the AppQuery class.
+ * 
+ * @author Christine Weld
+ */
+public class AppQueryTest {
+
+	/** List of the applications in app1.txt */
+	private AppList appList;
+
+	/**
+	 * Loads the applications in app1.txt before each test.
+	 */
+	@BeforeEach
+	public void setUp() {
+		appList = new AppList();
+		appList.addApps(AppReader.readAppsFromFile("test-files/app1.txt"));
+	}
+
+	/**
+	 * Tests single conditions
+	 */
+	@Test
+	public void testConditions() {
+		assertArrayEquals(new int[] { 1, 3, 7, 14, 15, 16 }, appList.query(AppQuery.all()).getIds());
+		assertArrayEquals(new int[] { 1, 14 }, appList.query(AppQuery.type(Application.A_NEW)).getIds());
+		assertArrayEquals(new int[] { 7 }, appList.query(AppQuery.state(Application.REFCHK_NAME)).getIds());
+		assertArrayEquals(new int[] { 1, 14 }, appList.query(AppQuery.reviewer(null)).getIds());
+		assertArrayEquals(new int[] { 7, 15, 16 }, appList.query(AppQuery.processed(true)).getIds());
+		assertArrayEquals(new int[] { 1, 3, 14 }, appList.query(AppQuery.processed(false)).getIds());
+		assertEquals(0, appList.query(AppQuery.type(Application.A_HIRED)).size());
+		assertThrows(IllegalArgumentException.class, () -> AppQuery.type(null));
+		assertThrows(IllegalArgumentException.class, () -> AppQuery.state(null));
+	}
+
+	/**
+	 * Tests combining conditions with and(), or() and not()
+	 */
+	@Test
+	public void testCombined() {
+		AppQuery query = AppQuery.type(Application.A_OLD).and(AppQuery.processed(false))
+				.and(AppQuery.reviewer("reviewer").or(AppQuery.reviewer("other")));
+		QueryResult result = appList.query(query);
+		assertArrayEquals(new int[] { 3 }, result.getIds());
+		assertEquals(3, result.getApps().get(0).getAppId());
+		assertTrue(result.getEvaluateNanos() >= 0);
+		assertTrue(result.getFetchNanos() >= 0);
+		assertTrue(result.toString().startsWith(
+				"((type=Old AND processed=false) AND (reviewer=reviewer OR reviewer=other)): 1 matches"));
+
+		query = AppQuery.state(Application.CLOSED_NAME).or(AppQuery.state(Application.OFFER_NAME)).not();
+		assertArrayEquals(new int[] { 1, 3, 7, 14 }, appList.query(query).getIds());
+	}
+
+	/**
+	 * Tests that queries see commands and deletions
+	 */
+	@Test
+	public void testAfterChanges() {
+		AppQuery query = AppQuery.state(Application.INTERVIEW_NAME).and(AppQuery.reviewer("jdoe"));
+		assertEquals(0, appList.query(query).size());
+
+		appList.executeCommand(1, new Command(CommandValue.ACCEPT, "jdoe", Resolution.REVCOMPLETED, "note"));
+		assertArrayEquals(new int[] { 1 }, appList.query(query).getIds());
+
+		appList.deleteAppById(1);
+		assertEquals(0, appList.query(query).size());
+		assertArrayEquals(new int[] { 3, 7, 14, 15, 16 }, appList.query(AppQuery.all()).getIds());
+	}
+}
@@ -0,0 +1,58 @@
+package app_manager.model.manager;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+import app_manager.model.io.AppReader;
+
+/**
+ * Tests the AppSnapshot class.
+ * 
+ * @author Christine Weld
+ */
+public class AppSnapshotTest {
+
+	/**
+	 * Tests reading rows and filtering a snapshot by type
+	 */
+	@Test
+	public void testRows() {
+		AppList appList = new AppList();
+		appList.addApps(AppReader.readAppsFromFile("test-files/app1.txt"));
+		AppSnapshot snapshot = appList.snapshot();
+
+		assertEquals(2, snapshot.indexOf(7));
+		assertEquals(-1, snapshot.indexOf(8));
+		assertEquals("RefCheck", snapshot.getValueAt(2, 1));
+		Object[] row = snapshot.getRow(2);
+		row[1] = "changed";
+		assertEquals("RefCheck", snapshot.getValueAt(2, 1));
+
+		AppSnapshot newApps = snapshot.filterByType("New");
+		assertEquals(2, newApps.size());
+		assertEquals(1, newApps.getIdAt(0));
+		assertEquals(14, newApps.getIdAt(1));
+		assertSame(snapshot.rowAt(3), newApps.rowAt(1));
+		assertEquals(snapshot.getVersion(), newApps.getVersion());
+		assertEquals(0, snapshot.filterByType("Hired").size());
+		assertThrows(IllegalArgumentException.class, () -> snapshot.filterByType(null));
+	}
+
+	/**
+	 * Tests a snapshot of rows that were not built from Applications
+	 */
+	@Test
+	public void testOfRows() {
+		Object[][] rows = { { 2, "Review", "New", "A" }, { 5, "Closed", "Old", "B" } };
+		AppSnapshot snapshot = AppSnapshot.ofRows(rows);
+		assertEquals(1, snapshot.indexOf(5));
+		assertNull(snapshot.getAppAt(0));
+		assertArrayEquals(rows, snapshot.toArray());
+		assertEquals(1, snapshot.filterByType("Old").size());
+	}
+}
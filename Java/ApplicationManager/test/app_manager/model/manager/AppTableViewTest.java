@@ -0,0 +1,153 @@
+package app_manager.model.manager;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import app_manager.model.command.Command;
+import app_manager.model.command.Command.CommandValue;
+import app_manager.model.io.AppBinaryFormat;
+
+/**
+ * Tests the AppTableView class.
+ * 
+ * @author Christine Weld
+ */
+public class AppTableViewTest {
+
+	/** AppManager the views read from */
+	private AppManager manager;
+
+	/**
+	 * Sets up an AppManager with the applications of app1.txt.
+	 */
+	@BeforeEach
+	public void setUp() {
+		manager = new AppManager();
+		manager.loadAppsFromFile("test-files/app1.txt");
+	}
+
+	/**
+	 * Tests reading rows through the cache
+	 */
+	@Test
+	public void testRows() {
+		AppTableView view = new AppTableView(manager, 2);
+		assertEquals(6, view.size());
+		assertArrayEquals(new int[] { 1, 3, 7, 14, 15, 16 }, idsOf(view));
+		assertEquals(0, view.cachedRows());
+
+		assertEquals("RefCheck", view.getValueAt(2, 1));
+		assertEquals(7, view.getValueAt(2, 0));
+		assertEquals(1, view.cachedRows());
+		view.getValueAt(0, 1);
+		view.getValueAt(1, 1);
+		assertEquals(2, view.cachedRows());
+		assertEquals(2, view.indexOf(7));
+		assertEquals(-1, view.indexOf(8));
+
+		assertThrows(IllegalArgumentException.class, () -> new AppTableView(null));
+		assertThrows(IllegalArgumentException.class, () -> new AppTableView(manager, 0));
+	}
+
+	/**
+	 * Tests filtering and sorting the rows
+	 */
+	@Test
+	public void testFilterAndSort() {
+		AppTableView view = new AppTableView(manager);
+		view.setType("New");
+		assertArrayEquals(new int[] { 1, 14 }, idsOf(view));
+		view.setType(null);
+
+		view.sort(1, true);
+		assertArrayEquals(new int[] { 15, 3, 16, 7, 1, 14 }, idsOf(view));
+		view.sort(2, true);
+		assertArrayEquals(new int[] { 1, 14, 3, 7, 15, 16 }, idsOf(view));
+		view.sort(2, false);
+		assertArrayEquals(new int[] { 3, 7, 15, 16, 1, 14 }, idsOf(view));
+		assertEquals(2, view.indexOf(15));
+		view.setType("Old");
+		assertArrayEquals(new int[] { 3, 7, 15, 16 }, idsOf(view));
+		view.sort(0, false);
+		assertArrayEquals(new int[] { 16, 15, 7, 3 }, idsOf(view));
+		assertEquals(1, view.indexOf(15));
+		assertEquals(-1, view.indexOf(1));
+		assertEquals(0, view.getSortColumn());
+		assertFalse(view.isAscending());
+
+		assertThrows(IllegalArgumentException.class, () -> view.sort(4, true));
+	}
+
+	/**
+	 * Tests that changes are shown once rows are invalidated and the view is
+	 * refreshed
+	 */
+	@Test
+	public void testRefresh() {
+		AppTableView view = new AppTableView(manager);
+		assertFalse(view.dependsOnValues());
+		view.setType("New");
+		assertTrue(view.dependsOnValues());
+		assertEquals("Review", view.getValueAt(0, 1));
+
+		manager.executeCommand(1, new Command(CommandValue.ACCEPT, "reviewer", null, "Accepted"));
+		assertEquals("Review", view.getValueAt(0, 1));
+		view.invalidate(1);
+		assertEquals("Interview", view.getValueAt(0, 1));
+		assertTrue(view.refresh());
+		assertArrayEquals(new int[] { 14 }, idsOf(view));
+		assertEquals(0, view.indexOf(14));
+		assertEquals(-1, view.indexOf(1));
+		assertFalse(view.refresh());
+
+		manager.deleteAppById(14);
+		assertTrue(view.refresh());
+		assertEquals(0, view.size());
+		assertEquals(-1, view.indexOf(14));
+		view.invalidateAll();
+		assertEquals(0, view.cachedRows());
+	}
+
+	/**
+	 * Tests a view of a list read on demand from a binary file
+	 * 
+	 * @throws IOException if the temporary file cannot be written
+	 */
+	@Test
+	public void testBinaryFile() throws IOException {
+		String fileName = Files.createTempDirectory("appmanager").resolve("apps" + AppBinaryFormat.EXTENSION)
+				.toString();
+		manager.saveAppsToFile(fileName);
+		manager.loadAppsFromFile(fileName);
+
+		AppTableView view = new AppTableView(manager);
+		view.setType("Old");
+		assertArrayEquals(new int[] { 3, 7, 15, 16 }, idsOf(view));
+		assertEquals("Offer", view.getValueAt(3, 1));
+		view.sort(1, false);
+		assertArrayEquals(new int[] { 7, 16, 3, 15 }, idsOf(view));
+	}
+
+	/**
+	 * Returns the ids of the rows of a view.
+	 * 
+	 * @param view view to read
+	 * @return ids in the order shown
+	 */
+	private static int[] idsOf(AppTableView view) {
+		int[] ids = new int[view.size()];
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = view.getIdAt(i);
+		}
+		return ids;
+	}
+}
@@ -0,0 +1,162 @@
+package app_manager.model.manager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+import app_manager.model.application.Application;
+import app_manager.model.application.Application.AppType;
+
+/**
+ * Tests the AppTree class.
+ * 
+ * @author Christine Weld
+ */
+public class AppTreeTest {
+
+	/** Number of different ids used by the tests */
+	private static final int IDS = 5000;
+
+	/** One Application for every id used by the tests */
+	private final Application[] apps = new Application[IDS + 1];
+
+	/**
+	 * Returns the Application with the given id, creating it the first time.
+	 * 
+	 * @param id application id
+	 * @return the Application
+	 */
+	private Application app(int id) {
+		if (apps[id] == null) {
+			apps[id] = new Application(id, AppType.NEW, "Summary " + id, "Note");
+		}
+		return apps[id];
+	}
+
+	/**
+	 * Asserts that the tree holds exactly the entries of the map, in order.
+	 * 
+	 * @param expected expected entries
+	 * @param tree     tree to check
+	 */
+	private static void assertSameEntries(TreeMap<Integer, Application> expected, AppTree tree) {
+		ArrayList<Application> list = new ArrayList<Application>();
+		tree.appendTo(list);
+		assertEquals(new ArrayList<Application>(expected.values()), list);
+		assertEquals(expected.size(), tree.size());
+		if (!expected.isEmpty()) {
+			assertEquals(expected.lastKey(), tree.lastId());
+		}
+	}
+
+	/**
+	 * Tests inserting, finding and removing a few Applications
+	 */
+	@Test
+	public void testInsertRemove() {
+		AppTree tree = new AppTree();
+		assertThrows(IllegalStateException.class, () -> tree.lastId());
+		assertTrue(tree.insert(app(3)));
+		assertTrue(tree.insert(app(1)));
+		assertFalse(tree.insert(new Application(3, AppType.OLD, "Other", "Note")));
+		assertSame(app(3), tree.get(3));
+		assertNull(tree.get(2));
+		assertEquals(3, tree.lastId());
+
+		assertSame(app(1), tree.remove(1));
+		assertNull(tree.remove(1));
+		assertEquals(1, tree.size());
+	}
+
+	/**
+	 * Tests the tree against a TreeMap over many random inserts and removes, so
+	 * that splits, borrows and merges are covered at several levels
+	 */
+	@Test
+	public void testAgainstTreeMap() {
+		AppTree tree = new AppTree();
+		TreeMap<Integer, Application> expected = new TreeMap<Integer, Application>();
+		Random random = new Random(13);
+		for (int n = 0; n < 60000; n++) {
+			int id = 1 + random.nextInt(IDS);
+			// grow the tree for the first half, then shrink it
+			if (random.nextInt(10) < (n < 30000 ? 3 : 7)) {
+				assertSame(expected.remove(id), tree.remove(id));
+			} else {
+				assertEquals(!expected.containsKey(id), tree.insert(app(id)));
+				expected.putIfAbsent(id, app(id));
+			}
+			if (n % 5000 == 0) {
+				assertSameEntries(expected, tree);
+			}
+		}
+		assertSameEntries(expected, tree);
+		for (int id = 0; id <= IDS; id++) {
+			assertSame(expected.get(id), tree.get(id));
+		}
+	}
+
+	/**
+	 * Tests building a tree from a sorted array and then changing it
+	 */
+	@Test
+	public void testBuild() {
+		for (int count : new int[] { 0, 1, 64, 65, 4097, IDS }) {
+			Application[] sorted = new Application[count + 1];
+			TreeMap<Integer, Application> expected = new TreeMap<Integer, Application>();
+			for (int i = 0; i < count; i++) {
+				sorted[i] = app(i + 1);
+				expected.put(i + 1, sorted[i]);
+			}
+			AppTree tree = AppTree.build(sorted, count);
+			assertSameEntries(expected, tree);
+
+			for (int id = 1; id <= count; id += 2) {
+				assertSame(expected.remove(id), tree.remove(id));
+			}
+			assertSameEntries(expected, tree);
+			for (int id = 1; id <= count; id += 4) {
+				assertTrue(tree.insert(app(id)));
+				expected.put(id, app(id));
+			}
+			assertSameEntries(expected, tree);
+		}
+	}
+
+	/**
+	 * Tests appending ranges of ids
+	 */
+	@Test
+	public void testAppendRange() {
+		AppTree tree = new AppTree();
+		for (int id = 2; id <= IDS; id += 2) {
+			tree.insert(app(id));
+		}
+		ArrayList<Application> range = new ArrayList<Application>();
+		tree.appendRange(101, 111, range);
+		assertEquals(5, range.size());
+		assertSame(app(102), range.get(0));
+		assertSame(app(110), range.get(4));
+
+		range.clear();
+		tree.appendRange(0, 5, range);
+		assertEquals(2, range.size());
+		range.clear();
+		tree.appendRange(IDS - 3, Integer.MAX_VALUE, range);
+		assertEquals(2, range.size());
+		range.clear();
+		tree.appendRange(10, 10, range);
+		assertEquals(0, range.size());
+		tree.appendRange(1, Integer.MAX_VALUE, range);
+		assertEquals(IDS / 2, range.size());
+	}
+}
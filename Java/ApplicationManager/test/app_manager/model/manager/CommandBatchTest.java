@@ -0,0 +1,59 @@
+package app_manager.model.manager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+
+import org.junit.jupiter.api.Test;
+
+import app_manager.model.command.Command;
+import app_manager.model.command.Command.CommandValue;
+
+/**
+ * Tests the CommandBatch class.
+ * 
+ * @author Christine Weld
+ */
+public class CommandBatchTest {
+
+	/**
+	 * Tests that the commands are held in ascending id order
+	 */
+	@Test
+	public void testCommandBatch() {
+		Command first = new Command(CommandValue.REOPEN, null, null, "First");
+		Command second = new Command(CommandValue.REOPEN, null, null, "Second");
+		Command third = new Command(CommandValue.REOPEN, null, null, "Third");
+		LinkedHashMap<Integer, Command> commands = new LinkedHashMap<Integer, Command>();
+		commands.put(70, first);
+		commands.put(-2, second);
+		commands.put(5, third);
+
+		CommandBatch batch = new CommandBatch(commands);
+		assertEquals(3, batch.size());
+		assertEquals(-2, batch.getIdAt(0));
+		assertEquals(5, batch.getIdAt(1));
+		assertEquals(70, batch.getIdAt(2));
+		assertSame(second, batch.getCommandAt(0));
+		assertSame(first, batch.getCommandAt(2));
+		assertEquals(0, new CommandBatch(new HashMap<Integer, Command>()).size());
+	}
+
+	/**
+	 * Tests that null commands or ids are rejected
+	 */
+	@Test
+	public void testInvalid() {
+		Exception e = assertThrows(IllegalArgumentException.class, () -> new CommandBatch(null));
+		assertEquals("Invalid information.", e.getMessage());
+		HashMap<Integer, Command> commands = new HashMap<Integer, Command>();
+		commands.put(1, null);
+		assertThrows(IllegalArgumentException.class, () -> new CommandBatch(commands));
+		commands.clear();
+		commands.put(null, new Command(CommandValue.REOPEN, null, null, "Note"));
+		assertThrows(IllegalArgumentException.class, () -> new CommandBatch(commands));
+	}
+}
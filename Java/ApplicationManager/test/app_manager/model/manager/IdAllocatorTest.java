@@ -0,0 +1,81 @@
+package app_manager.model.manager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the IdAllocator class.
+ * 
+ * @author Christine Weld
+ */
+public class IdAllocatorTest {
+
+	/**
+	 * Tests allocating, reserving and resetting ids
+	 */
+	@Test
+	public void testAllocate() {
+		IdAllocator ids = new IdAllocator();
+		assertEquals(0, ids.highWaterMark());
+		assertEquals(1, ids.allocate());
+		assertEquals(2, ids.allocate());
+		assertEquals(3, ids.peek());
+
+		ids.reserve(10);
+		assertEquals(11, ids.allocate());
+		// reserving never moves the allocator back
+		ids.reserve(5);
+		ids.reserve(0);
+		assertEquals(12, ids.allocate());
+		assertEquals(12, ids.highWaterMark());
+
+		ids.reset(4);
+		assertEquals(5, ids.allocate());
+		ids.reset(0);
+		assertEquals(1, ids.allocate());
+
+		ids.reset(Integer.MAX_VALUE - 2);
+		assertEquals(Integer.MAX_VALUE - 1, ids.allocate());
+		assertThrows(IllegalStateException.class, () -> ids.allocate());
+		assertThrows(IllegalStateException.class, () -> ids.allocate());
+	}
+
+	/**
+	 * Tests that ids allocated from several threads at once are all different
+	 * 
+	 * @throws Exception if a thread failed
+	 */
+	@Test
+	public void testConcurrentAllocate() throws Exception {
+		IdAllocator ids = new IdAllocator();
+		ExecutorService pool = Executors.newFixedThreadPool(4);
+		ArrayList<Future<int[]>> futures = new ArrayList<Future<int[]>>();
+		for (int t = 0; t < 4; t++) {
+			futures.add(pool.submit(() -> {
+				int[] allocated = new int[10000];
+				for (int i = 0; i < allocated.length; i++) {
+					allocated[i] = ids.allocate();
+				}
+				return allocated;
+			}));
+		}
+		HashSet<Integer> seen = new HashSet<Integer>();
+		for (Future<int[]> future : futures) {
+			for (int id : future.get()) {
+				assertTrue(seen.add(id));
+			}
+		}
+		pool.shutdown();
+		assertEquals(40000, seen.size());
+		assertEquals(40000, ids.highWaterMark());
+	}
+}
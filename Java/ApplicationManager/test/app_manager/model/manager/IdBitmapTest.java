@@ -0,0 +1,126 @@
+package app_manager.model.manager;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the IdBitmap class.
+ * 
+ * @author Christine Weld
+ */
+public class IdBitmapTest {
+
+	/**
+	 * Returns the ids of a set as a sorted array.
+	 * 
+	 * @param set set of ids
+	 * @return array of ids
+	 */
+	private static int[] toArray(TreeSet<Integer> set) {
+		return set.stream().mapToInt(Integer::intValue).toArray();
+	}
+
+	/**
+	 * Fills a bitmap and a set with the same random ids. Ids are drawn from a few
+	 * groups of 65536 so that some groups are dense enough to use bitmap
+	 * containers and others stay sparse.
+	 * 
+	 * @param random  random source
+	 * @param density ids to draw per group
+	 * @param bitmap  bitmap to fill
+	 * @param set     set to fill
+	 */
+	private static void fill(Random random, int[] density, IdBitmap bitmap, TreeSet<Integer> set) {
+		for (int group = 0; group < density.length; group++) {
+			for (int n = 0; n < density[group]; n++) {
+				int id = (group << 16) | random.nextInt(1 << 16);
+				bitmap.add(id);
+				set.add(id);
+			}
+		}
+	}
+
+	/**
+	 * Tests adding, removing and finding ids
+	 */
+	@Test
+	public void testAddRemove() {
+		IdBitmap bitmap = IdBitmap.of(1, 5, 70000, 5);
+		assertEquals(3, bitmap.cardinality());
+		assertTrue(bitmap.contains(70000));
+		assertFalse(bitmap.contains(2));
+		assertEquals("{1, 5, 70000}", bitmap.toString());
+
+		bitmap.remove(70000);
+		bitmap.remove(3);
+		assertArrayEquals(new int[] { 1, 5 }, bitmap.toArray());
+		bitmap.remove(1);
+		bitmap.remove(5);
+		assertTrue(bitmap.isEmpty());
+	}
+
+	/**
+	 * Tests a group that grows past the array limit and shrinks back
+	 */
+	@Test
+	public void testDenseGroup() {
+		IdBitmap bitmap = new IdBitmap();
+		TreeSet<Integer> set = new TreeSet<Integer>();
+		for (int id = 1; id <= 3 * IdBitmap.ARRAY_MAX; id += 2) {
+			bitmap.add(id);
+			set.add(id);
+		}
+		assertArrayEquals(toArray(set), bitmap.toArray());
+		for (int id = 1; id <= 3 * IdBitmap.ARRAY_MAX; id += 4) {
+			bitmap.remove(id);
+			set.remove(id);
+		}
+		assertEquals(set.size(), bitmap.cardinality());
+		assertArrayEquals(toArray(set), bitmap.toArray());
+		for (int id : toArray(set)) {
+			assertTrue(bitmap.contains(id));
+			assertFalse(bitmap.contains(id + 1));
+		}
+	}
+
+	/**
+	 * Tests and(), or() and andNot() against TreeSets for every mix of sparse and
+	 * dense groups
+	 */
+	@Test
+	public void testOperations() {
+		Random random = new Random(15);
+		int[][] densities = { { 10, 10000, 0, 50000 }, { 10000, 10, 3000, 0, 7 } };
+		for (int[] a : densities) {
+			for (int[] b : densities) {
+				IdBitmap x = new IdBitmap();
+				IdBitmap y = new IdBitmap();
+				TreeSet<Integer> xs = new TreeSet<Integer>();
+				TreeSet<Integer> ys = new TreeSet<Integer>();
+				fill(random, a, x, xs);
+				fill(random, b, y, ys);
+
+				TreeSet<Integer> and = new TreeSet<Integer>(xs);
+				and.retainAll(ys);
+				TreeSet<Integer> or = new TreeSet<Integer>(xs);
+				or.addAll(ys);
+				TreeSet<Integer> andNot = new TreeSet<Integer>(xs);
+				andNot.removeAll(ys);
+
+				assertArrayEquals(toArray(and), x.and(y).toArray());
+				assertArrayEquals(toArray(or), x.or(y).toArray());
+				assertArrayEquals(toArray(andNot), x.andNot(y).toArray());
+				assertEquals(and.size(), x.and(y).cardinality());
+				// the operands are not changed
+				assertArrayEquals(toArray(xs), x.toArray());
+			}
+		}
+	}
+}
@@ -0,0 +1,79 @@
+package app_manager.model.manager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import app_manager.model.application.Application;
+import app_manager.model.application.Application.AppType;
+
+/**
+ * Tests the IntAppMap class.
+ * 
+ * @author Christine Weld
+ */
+public class IntAppMapTest {
+
+	/**
+	 * Tests IntAppMap.put(), get() and remove()
+	 */
+	@Test
+	public void testPutGetRemove() {
+		IntAppMap map = new IntAppMap();
+		Application a1 = new Application(1, AppType.NEW, "Summary 1", "Note");
+		Application a2 = new Application(2, AppType.OLD, "Summary 2", "Note");
+		Application other = new Application(1, AppType.HIRED, "Other", "Note");
+
+		assertNull(map.get(1));
+		assertNull(map.put(1, a1));
+		assertNull(map.put(2, a2));
+		assertEquals(2, map.size());
+		assertSame(a1, map.get(1));
+		assertSame(a1, map.put(1, other));
+		assertSame(other, map.get(1));
+		assertEquals(2, map.size());
+
+		assertSame(other, map.remove(1));
+		assertNull(map.remove(1));
+		assertNull(map.get(1));
+		assertSame(a2, map.get(2));
+		assertEquals(1, map.size());
+
+		map.clear();
+		assertEquals(0, map.size());
+		assertNull(map.get(2));
+	}
+
+	/**
+	 * Tests the map against a HashMap over many random puts and removes, so that
+	 * growing and removing from the middle of probe sequences are covered
+	 */
+	@Test
+	public void testAgainstHashMap() {
+		IntAppMap map = new IntAppMap(4);
+		HashMap<Integer, Application> expected = new HashMap<Integer, Application>();
+		Application[] apps = new Application[500];
+		for (int i = 0; i < apps.length; i++) {
+			apps[i] = new Application(i + 1, AppType.NEW, "Summary", "Note");
+		}
+
+		Random random = new Random(11);
+		for (int n = 0; n < 20000; n++) {
+			int id = 1 + random.nextInt(apps.length);
+			if (random.nextInt(3) == 0) {
+				assertSame(expected.remove(id), map.remove(id));
+			} else {
+				assertSame(expected.put(id, apps[id - 1]), map.put(id, apps[id - 1]));
+			}
+			assertEquals(expected.size(), map.size());
+		}
+		for (int id = 0; id <= apps.length + 1; id++) {
+			assertSame(expected.get(id), map.get(id));
+		}
+	}
+}